@@ -0,0 +1,39 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * @author Nickel Fang 2025/5/8
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    public static TransactionRequest request(long seed) {
+        return TransactionRequest.builder()
+                .amount(BigDecimal.valueOf(8888 + seed % 1000, 2))
+                .beneficiaryName("Nickel Fang")
+                .channel("WeChat")
+                .currency("CNY")
+                .type(TransactionType.TRANSFER)
+                .senderAccount(String.valueOf(1_000_000_000_000_000L + seed))
+                .receiverAccount("2222222222222222")
+                .status(TransactionStatus.PENDING)
+                .description("benchmark")
+                .deviceFingerprint("fingerprint")
+                .ipAddress("192.168.1.1")
+                .build();
+    }
+
+    public static Transaction transaction(long id) {
+        final Transaction transaction = Transaction.fromDTO(request(id));
+        transaction.setId(id);
+        return transaction;
+    }
+}
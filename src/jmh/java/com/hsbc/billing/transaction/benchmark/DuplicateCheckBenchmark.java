@@ -0,0 +1,82 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hsbc.billing.transaction.config.CacheConfig;
+import com.hsbc.billing.transaction.dedup.CaffeineDuplicateDetector;
+import com.hsbc.billing.transaction.dedup.FeatureFingerprint;
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The duplicate check of a new request: the previous get then put of the joined feature info on a Spring Caffeine cache
+ * against the single putIfAbsent of a {@link FeatureFingerprint}, plus the key derivation alone. Every invocation builds
+ * a fresh request, the cost of which is shared by all variants; run with -prof gc to compare allocation.
+ *
+ * @author Nickel Fang 2025/5/14
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DuplicateCheckBenchmark {
+
+    private static final long MAXIMUM_SIZE = 10_000_000L;
+
+    private Cache legacyCache;
+    private CaffeineDuplicateDetector detector;
+    private long seed;
+
+    // fresh state per iteration, so every request is new and nothing is evicted
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final CaffeineCacheManager cacheManager = new CaffeineCacheManager("duplicatedTransactions");
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .expireAfterWrite(CacheConfig.DUPLICATE_WINDOW)
+                .initialCapacity(1000)
+                .maximumSize(MAXIMUM_SIZE)
+                .recordStats());
+        legacyCache = cacheManager.getCache("duplicatedTransactions");
+        detector = new CaffeineDuplicateDetector(CacheConfig.DUPLICATE_WINDOW, MAXIMUM_SIZE);
+    }
+
+    @Benchmark
+    public boolean featureInfoGetThenPut() {
+        final TransactionRequest request = BenchmarkData.request(seed++);
+        if (legacyCache.get(request.getFeatureInfo(), String.class) != null) {
+            return true;
+        }
+        legacyCache.put(request.getFeatureInfo(), "EXIST");
+        return false;
+    }
+
+    @Benchmark
+    public boolean fingerprintPutIfAbsent() {
+        return detector.isDuplicate(BenchmarkData.request(seed++));
+    }
+
+    @Benchmark
+    public String featureInfoKey() {
+        return BenchmarkData.request(seed++).getFeatureInfo();
+    }
+
+    @Benchmark
+    public FeatureFingerprint fingerprintKey() {
+        return FeatureFingerprint.of(BenchmarkData.request(seed++));
+    }
+}
@@ -0,0 +1,95 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hsbc.billing.transaction.cache.EncodedTransaction;
+import com.hsbc.billing.transaction.cache.EncodedTransactionCache;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.IndexedField;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The body of a get by id of 10^6 stored transactions, nine reads in ten on a tenth of the ids: read and written by
+ * Jackson on every request as before, and served from the {@link EncodedTransactionCache} of 32 to 128 MB, the default 64
+ * MB holding most of the frequently read ids. The hit rate is printed once per trial.
+ *
+ * @author Nickel Fang 2025/5/25
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EncodedTransactionCacheBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int FREQUENT = SIZE / 10;
+
+    @Param({"32", "64", "128"})
+    private int maxMb;
+
+    private TransactionRepository repo;
+    private ObjectWriter writer;
+    private EncodedTransactionCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // as spring.jackson defaults of Spring Boot
+        final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        writer = mapper.writerFor(TransactionResponse.class);
+        cache = new EncodedTransactionCache(mapper, (long) maxMb << 20);
+        repo = new TransactionRepository(new HeapTransactionStore(), null, EnumSet.noneOf(IndexedField.class), List.of(cache));
+        for (long id = 1; id <= SIZE; id++) {
+            repo.save(BenchmarkData.transaction(id));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        System.out.printf("%nhits %.0f, misses %.0f%n",
+                registry.get("cache.gets").tag("result", "hit").functionCounter().count(),
+                registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    private static long nextId() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        return (random.nextInt(10) == 0 ? random.nextInt(SIZE) : random.nextInt(FREQUENT)) + 1L;
+    }
+
+    @Benchmark
+    public byte[] serialized() throws Exception {
+        return writer.writeValueAsBytes(Transaction.toDTO(repo.findById(nextId())));
+    }
+
+    @Benchmark
+    public byte[] cached() {
+        final EncodedTransaction encoded = cache.get(nextId(), id -> Transaction.toDTO(repo.findById(id)));
+        return encoded.json();
+    }
+}
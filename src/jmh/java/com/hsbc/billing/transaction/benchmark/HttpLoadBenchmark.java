@@ -0,0 +1,272 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.billing.transaction.TransactionApiApplication;
+import com.hsbc.billing.transaction.controller.ReactiveTransactionRouter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.netty.DisposableServer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Closed loop HTTP load against the service on Tomcat platform threads, on virtual threads
+ * ({@code spring.threads.virtual.enabled}) and on the reactive /api/v3 Netty server, reporting throughput and
+ * p50/p99/p99.9 latency of create and get.
+ * <p>
+ * Each mode runs in a fresh JVM with the write-ahead log enabled in {@code GROUP} sync mode, so every create parks its
+ * request thread until the group commit, the blocking the thread pool size limits. The clients are virtual threads in the
+ * same JVM, each one creating a transaction then reading it back in a loop; the first seconds are warmup and discarded.
+ * The virtual thread run is started with {@code -Djdk.tracePinnedThreads=short}, so a carrier pinned by a monitor shows
+ * up in its output. Not a JMH benchmark, run it with the benchmarks profile:
+ * <pre>
+ * mvn -Pbenchmarks -DskipTests test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.hsbc.billing.transaction.benchmark.HttpLoadBenchmark PLATFORM,VIRTUAL,REACTIVE 1000 30 10"
+ * </pre>
+ * The arguments are the comma separated modes ({@code PLATFORM}, {@code VIRTUAL}, {@code REACTIVE}), concurrent
+ * clients, each on a connection of its own, measured seconds and warmup seconds; any further {@code --name=value}
+ * argument is passed to the application, e.g. {@code --server.tomcat.threads.max=50}. Each mode gets a heap of
+ * {@code -Dheap}, 2g by default. Beyond a few thousand clients raise the open file limit of the shell first.
+ *
+ * @author Nickel Fang 2025/5/19
+ */
+public class HttpLoadBenchmark {
+
+    private static final String RESULT = "RESULT ";
+
+    private enum Mode {
+        PLATFORM, VIRTUAL, REACTIVE
+    }
+
+    public static void main(String[] args) throws Exception {
+        final List<Mode> modes = Arrays.stream((args.length > 0 ? args[0] : "PLATFORM,VIRTUAL,REACTIVE").split(","))
+                .map(Mode::valueOf)
+                .toList();
+        final int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        final int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        final int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        final String[] properties = args.length > 4 ? Arrays.copyOfRange(args, 4, args.length) : new String[0];
+
+        if (modes.size() == 1) {
+            run(modes.get(0), clients, seconds, warmupSeconds, properties);
+            return;
+        }
+        final List<String> results = new ArrayList<>();
+        for (Mode mode : modes) {
+            results.addAll(fork(mode, args));
+        }
+        System.out.printf("%n%-8s %-6s %12s %10s %10s %10s %10s%n", "mode", "op", "requests/s", "p50 ms", "p99 ms", "p99.9 ms",
+                "errors");
+        results.forEach(System.out::println);
+    }
+
+    private static List<String> fork(Mode mode, String[] args) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + System.getProperty("heap", "2g"), "-cp", System.getProperty("java.class.path")));
+        if (mode == Mode.VIRTUAL) {
+            command.add("-Djdk.tracePinnedThreads=short");
+        }
+        command.add(HttpLoadBenchmark.class.getName());
+        command.add(mode.name());
+        command.addAll(Arrays.asList(args).subList(Math.min(1, args.length), args.length));
+
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final List<String> results = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                System.out.println(line);
+                if (line.startsWith(RESULT)) {
+                    results.add(line.substring(RESULT.length()));
+                }
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(mode + " run exited with " + process.exitValue());
+        }
+        return results;
+    }
+
+    private static void run(Mode mode, int clients, int seconds, int warmupSeconds, String[] properties) throws Exception {
+        final Path walDir = Files.createTempDirectory("http-load-wal");
+        final Map<String, String> arguments = new LinkedHashMap<>();
+        arguments.put("server.port", "0");
+        arguments.put("spring.threads.virtual.enabled", String.valueOf(mode == Mode.VIRTUAL));
+        arguments.put("transaction.reactive.enabled", String.valueOf(mode == Mode.REACTIVE));
+        arguments.put("transaction.reactive.port", "0");
+        arguments.put("transaction.persistence.enabled", "true");
+        arguments.put("transaction.persistence.dir", walDir.toString());
+        arguments.put("transaction.persistence.sync", "GROUP");
+        arguments.put("transaction.audit.dir", walDir.resolve("audit").toString());
+        arguments.put("logging.level.root", "WARN");
+        for (String property : properties) {
+            final int separator = property.indexOf('=');
+            arguments.put(property.substring(2, separator), property.substring(separator + 1));
+        }
+        // command line arguments, so they take precedence over application.yml
+        final ConfigurableApplicationContext context = new SpringApplicationBuilder(TransactionApiApplication.class)
+                .run(arguments.entrySet().stream().map(entry -> "--" + entry.getKey() + "=" + entry.getValue()).toArray(String[]::new));
+        try {
+            checkResolved(context, arguments);
+            final URI base = mode == Mode.REACTIVE
+                    ? URI.create("http://localhost:" + context.getBean(DisposableServer.class).port() + ReactiveTransactionRouter.BASE_PATH)
+                    : URI.create("http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port") + "/api/v2/transactions");
+            final Load load = new Load(base);
+            System.out.printf("%s: %d clients, %d s warmup, %d s measured%n", mode, clients, warmupSeconds, seconds);
+            load.run(clients, warmupSeconds, seconds);
+            load.report(mode.name(), seconds);
+        } finally {
+            context.close();
+            try (Stream<Path> files = Files.walk(walDir)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    // a mode measured with settings other than its own would go unnoticed in the numbers
+    private static void checkResolved(ConfigurableApplicationContext context, Map<String, String> arguments) {
+        for (Map.Entry<String, String> argument : arguments.entrySet()) {
+            final String resolved = context.getEnvironment().getProperty(argument.getKey());
+            if (!argument.getValue().equals(resolved)) {
+                throw new IllegalStateException(argument.getKey() + " resolved to " + resolved + " instead of " + argument.getValue());
+            }
+        }
+    }
+
+    private static final class Load {
+
+        private final URI base;
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        private final AtomicLong seed = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final List<Latencies> creates = new ArrayList<>();
+        private final List<Latencies> gets = new ArrayList<>();
+        private volatile boolean measuring;
+        private volatile boolean running = true;
+
+        Load(URI base) {
+            this.base = base;
+        }
+
+        void run(int clients, int warmupSeconds, int seconds) throws InterruptedException {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    final Latencies create = new Latencies();
+                    final Latencies get = new Latencies();
+                    creates.add(create);
+                    gets.add(get);
+                    executor.submit(() -> loop(create, get));
+                }
+                TimeUnit.SECONDS.sleep(warmupSeconds);
+                measuring = true;
+                TimeUnit.SECONDS.sleep(seconds);
+                measuring = false;
+                running = false;
+            }
+        }
+
+        private void loop(Latencies create, Latencies get) {
+            while (running) {
+                try {
+                    final String body = objectMapper.writeValueAsString(BenchmarkData.request(seed.getAndIncrement()));
+                    long start = System.nanoTime();
+                    final HttpResponse<String> created = client.send(HttpRequest.newBuilder(base)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build(), HttpResponse.BodyHandlers.ofString());
+                    record(create, start, created.statusCode());
+                    if (created.statusCode() != 201 && created.statusCode() != 200) {
+                        continue;
+                    }
+
+                    final long id = objectMapper.readTree(created.body()).get("id").asLong();
+                    start = System.nanoTime();
+                    final HttpResponse<String> found = client.send(HttpRequest.newBuilder(base.resolve(base.getPath() + "/" + id))
+                            .GET()
+                            .build(), HttpResponse.BodyHandlers.ofString());
+                    record(get, start, found.statusCode());
+                } catch (IOException e) {
+                    if (measuring) {
+                        errors.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void record(Latencies latencies, long start, int status) {
+            final long nanos = System.nanoTime() - start;
+            if (!measuring) {
+                return;
+            }
+            if (status >= 400) {
+                errors.incrementAndGet();
+            } else {
+                latencies.add(nanos);
+            }
+        }
+
+        void report(String mode, int seconds) {
+            System.out.println(RESULT + line(mode, "create", creates, seconds));
+            System.out.println(RESULT + line(mode, "get", gets, seconds));
+        }
+
+        private String line(String mode, String operation, List<Latencies> perClient, int seconds) {
+            final long[] all = perClient.stream().flatMapToLong(Latencies::stream).sorted().toArray();
+            return String.format("%-8s %-6s %12.0f %10.2f %10.2f %10.2f %10d", mode, operation, (double) all.length / seconds,
+                    millis(all, 0.50), millis(all, 0.99), millis(all, 0.999), errors.get());
+        }
+
+        private static double millis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1_000_000.0;
+        }
+    }
+
+    // written by one client only, read once the clients are done
+    private static final class Latencies {
+
+        private long[] nanos = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+
+        LongStream stream() {
+            return Arrays.stream(nanos, 0, size);
+        }
+    }
+}
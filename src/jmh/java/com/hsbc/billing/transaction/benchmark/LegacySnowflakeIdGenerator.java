@@ -0,0 +1,49 @@
+package com.hsbc.billing.transaction.benchmark;
+
+/**
+ * The monitor based generator replaced by the CAS based {@link com.hsbc.billing.transaction.util.SnowflakeIdGenerator},
+ * kept only as the baseline of {@link SnowflakeIdGeneratorBenchmark}.
+ *
+ * @author Nickel Fang 2025/4/24
+ */
+public class LegacySnowflakeIdGenerator {
+
+    private final long datacenterId;
+    private final long machineId;
+    private long sequence = 0L;
+    private long lastTimestamp = -1L;
+
+    public LegacySnowflakeIdGenerator(long datacenterId, long machineId) {
+        this.datacenterId = datacenterId;
+        this.machineId = machineId;
+    }
+
+    public synchronized long nextId() {
+        long timestamp = System.currentTimeMillis();
+
+        if (timestamp < lastTimestamp) {
+            throw new RuntimeException("Clock moved backwards");
+        }
+
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & 0xFFF;
+            if (sequence == 0) {
+                timestamp = tilNextMillis(lastTimestamp);
+            }
+        } else {
+            sequence = 0L;
+        }
+
+        lastTimestamp = timestamp;
+
+        return (timestamp << 22) | (datacenterId << 17) | (machineId << 12) | sequence;
+    }
+
+    private long tilNextMillis(long lastTimestamp) {
+        long timestamp = System.currentTimeMillis();
+        while (timestamp <= lastTimestamp) {
+            timestamp = System.currentTimeMillis();
+        }
+        return timestamp;
+    }
+}
@@ -0,0 +1,91 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.util.ConcurrentLongMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The primary index of the heap stores under an 80/20 read/write mix, ConcurrentHashMap with boxed keys against
+ * {@link ConcurrentLongMap}. Keys are snowflake shaped ids and writes overwrite existing keys, so the size stays fixed.
+ * Run with -prof gc to compare the allocation rate.
+ *
+ * @author Nickel Fang 2025/5/11
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LongIndexBenchmark {
+
+    public enum Index {
+        CONCURRENT_HASH_MAP,
+        CONCURRENT_LONG_MAP
+    }
+
+    @Param({"CONCURRENT_HASH_MAP", "CONCURRENT_LONG_MAP"})
+    private Index index;
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private ConcurrentHashMap<Long, Transaction> hashMap;
+    private ConcurrentLongMap<Transaction> longMap;
+    private long[] ids;
+    private Transaction[] transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hashMap = new ConcurrentHashMap<>();
+        longMap = new ConcurrentLongMap<>();
+        ids = new long[size];
+        transactions = new Transaction[size];
+        final long start = System.currentTimeMillis() - 1_288_834_974_657L;
+        for (int i = 0; i < size; i++) {
+            // 4096 ids per millisecond on worker 1/1, like a busy generator
+            ids[i] = ((start + i / 4096) << 22) | (1L << 17) | (1L << 12) | (i % 4096);
+            transactions[i] = BenchmarkData.transaction(ids[i]);
+            hashMap.put(ids[i], transactions[i]);
+            longMap.put(ids[i], transactions[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Transaction mixed80_20_1thread() {
+        return mixed();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Transaction mixed80_20_8threads() {
+        return mixed();
+    }
+
+    private Transaction mixed() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int i = random.nextInt(size);
+        final boolean write = random.nextInt(10) < 2;
+        if (index == Index.CONCURRENT_HASH_MAP) {
+            return write ? hashMap.put(ids[i], transactions[i]) : hashMap.get(ids[i]);
+        }
+        return write ? longMap.put(ids[i], transactions[i]) : longMap.get(ids[i]);
+    }
+}
@@ -0,0 +1,112 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.CompactTransactionStore;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.IndexedField;
+import com.hsbc.billing.transaction.repository.ShardedTransactionStore;
+import com.hsbc.billing.transaction.repository.StorageMode;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.repository.TransactionStore;
+import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A write-heavy load on the repository with and without shards: every operation saves a transaction with a new
+ * snowflake id and deletes the one the same thread saved {@value #WINDOW} operations before, so the repository stays at
+ * its initial 10^6 transactions plus the window of each thread. Sender and channel are indexed and shared by all
+ * writers. The scatter-gather price is in {@code firstPage}, the first page of the list endpoint.
+ * <p>
+ * Run with {@code -t} set to the cores available, the gain of the shards only shows with several writers on several
+ * cores.
+ *
+ * @author Nickel Fang 2025/5/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ShardedRepositoryBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int WINDOW = 1024;
+
+    @Param({"HEAP", "COMPACT"})
+    private StorageMode storage;
+
+    @Param({"1", "8"})
+    private int shards;
+
+    private TransactionRepository repo;
+
+    private final AtomicInteger workers = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final TransactionStore store = shards == 1 ? store(storage)
+                : new ShardedTransactionStore(shards, shard -> store(storage));
+        repo = new TransactionRepository(store, null, EnumSet.of(IndexedField.SENDER, IndexedField.CHANNEL), List.of());
+        for (long id = 1; id <= SIZE; id++) {
+            repo.save(BenchmarkData.transaction(id));
+        }
+    }
+
+    private static TransactionStore store(StorageMode storage) {
+        return storage == StorageMode.COMPACT ? new CompactTransactionStore() : new HeapTransactionStore();
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+
+        private SnowflakeIdGenerator ids;
+        private final long[] saved = new long[WINDOW];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ShardedRepositoryBenchmark benchmark) {
+            final int worker = benchmark.workers.getAndIncrement();
+            ids = new SnowflakeIdGenerator(worker >> 5, worker & 31);
+        }
+
+        private Transaction nextTransaction() {
+            final long id = ids.nextId();
+            final Transaction transaction = BenchmarkData.transaction(id % SIZE);
+            transaction.setId(id);
+            return transaction;
+        }
+    }
+
+    @Benchmark
+    public Transaction saveAndDelete(Writer writer) {
+        final Transaction transaction = repo.save(writer.nextTransaction());
+        final int slot = writer.next++ & (WINDOW - 1);
+        if (writer.saved[slot] != 0) {
+            repo.delete(writer.saved[slot]);
+        }
+        writer.saved[slot] = transaction.getId();
+        return transaction;
+    }
+
+    @Benchmark
+    public List<Transaction> firstPage() {
+        return repo.findAll(0, 20);
+    }
+}
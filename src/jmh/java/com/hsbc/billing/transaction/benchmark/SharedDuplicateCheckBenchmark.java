@@ -0,0 +1,82 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.hsbc.billing.transaction.config.CacheConfig;
+import com.hsbc.billing.transaction.dedup.EmbeddedRespServer;
+import com.hsbc.billing.transaction.dedup.RespClient;
+import com.hsbc.billing.transaction.dedup.SharedDuplicateDetector;
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency a create pays for the shared duplicate check against the embedded RESP stand-in over loopback: a single caller,
+ * 16 concurrent callers sharing the pipelined connection, and a batch of 100 requests checked together.
+ *
+ * @author Nickel Fang 2025/5/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SharedDuplicateCheckBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final AtomicLong seed = new AtomicLong();
+    private EmbeddedRespServer server;
+    private SharedDuplicateDetector detector;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new EmbeddedRespServer();
+        detector = new SharedDuplicateDetector(new RespClient("localhost", server.getPort()), "benchmark:",
+                CacheConfig.DUPLICATE_WINDOW, 10_000_000, Duration.ofSeconds(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        detector.close();
+        server.close();
+    }
+
+    @Benchmark
+    public boolean isDuplicate_1thread() {
+        return detector.isDuplicate(BenchmarkData.request(seed.getAndIncrement()));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean isDuplicate_16threads() {
+        return detector.isDuplicate(BenchmarkData.request(seed.getAndIncrement()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public boolean[] areDuplicates_batch() {
+        final List<TransactionRequest> requests = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            requests.add(BenchmarkData.request(seed.getAndIncrement()));
+        }
+        return detector.areDuplicates(requests);
+    }
+}
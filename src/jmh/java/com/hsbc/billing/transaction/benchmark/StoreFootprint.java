@@ -0,0 +1,93 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.CompactTransactionStore;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.IndexedField;
+import com.hsbc.billing.transaction.repository.StorageMode;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.repository.TransactionStore;
+import com.hsbc.billing.transaction.repository.offheap.OffHeapTransactionStore;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Retained heap and direct memory per stored transaction of each {@link StorageMode}, measured after a full GC.
+ * The transactions are saved through a repository with the secondary indexes of the third argument (comma separated
+ * {@link IndexedField}s, {@code NONE} for the store alone), whose postings stay on the heap in every mode.
+ * Not a JMH benchmark, run it with the benchmarks profile:
+ * <pre>
+ * mvn -Pbenchmarks -DskipTests test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-Xmx4g -cp %classpath com.hsbc.billing.transaction.benchmark.StoreFootprint 1000000 COMPACT SENDER,RECEIVER"
+ * </pre>
+ *
+ * @author Nickel Fang 2025/5/9
+ */
+public class StoreFootprint {
+
+    public static void main(String[] args) {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        final StorageMode mode = args.length > 1 ? StorageMode.valueOf(args[1]) : StorageMode.COMPACT;
+        final Set<IndexedField> indexes = args.length > 2 ? indexes(args[2]) : TransactionRepository.DEFAULT_INDEXES;
+
+        final long before = usedHeap();
+        final long directBefore = usedDirect();
+        final TransactionStore store = switch (mode) {
+            case HEAP -> new HeapTransactionStore();
+            case COMPACT -> new CompactTransactionStore();
+            case OFF_HEAP -> new OffHeapTransactionStore(64 << 20, count);
+        };
+        final TransactionRepository repository = new TransactionRepository(store, null, indexes, List.of());
+        for (int i = 1; i <= count; i++) {
+            repository.save(deserialized(BenchmarkData.transaction(i)));
+        }
+        final long after = usedHeap();
+        final long direct = usedDirect() - directBefore;
+
+        System.out.printf("%s store, indexes %s: %,d transactions, %,d heap bytes retained, %.1f heap bytes per transaction, "
+                        + "%,d direct bytes, %.1f direct bytes per transaction%n",
+                mode, indexes, repository.count(), after - before, (double) (after - before) / count, direct, (double) direct / count);
+    }
+
+    private static Set<IndexedField> indexes(String names) {
+        final Set<IndexedField> indexes = EnumSet.noneOf(IndexedField.class);
+        if (!"NONE".equals(names)) {
+            Arrays.stream(names.split(",")).map(IndexedField::valueOf).forEach(indexes::add);
+        }
+        return indexes;
+    }
+
+    // every string of a deserialized request is its own instance, the shared literals of BenchmarkData would hide that
+    private static Transaction deserialized(Transaction transaction) {
+        transaction.setAmount(new BigDecimal(transaction.getAmount().toString()));
+        transaction.setCurrency(new String(transaction.getCurrency()));
+        transaction.setReceiverAccount(new String(transaction.getReceiverAccount()));
+        transaction.setBeneficiaryName(new String(transaction.getBeneficiaryName()));
+        transaction.setChannel(new String(transaction.getChannel()));
+        transaction.setDescription(new String(transaction.getDescription()));
+        transaction.setIpAddress(new String(transaction.getIpAddress()));
+        transaction.setDeviceFingerprint(new String(transaction.getDeviceFingerprint()));
+        return transaction;
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
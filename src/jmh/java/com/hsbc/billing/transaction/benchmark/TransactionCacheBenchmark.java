@@ -0,0 +1,125 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hsbc.billing.transaction.cache.TieredTransactionCache;
+import com.hsbc.billing.transaction.cache.TransactionCache;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.CompactTransactionStore;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.IndexedField;
+import com.hsbc.billing.transaction.repository.StorageMode;
+import com.hsbc.billing.transaction.repository.TransactionChangeListener;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.repository.TransactionStore;
+import com.hsbc.billing.transaction.repository.offheap.OffHeapTransactionStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A get by id of 10^6 stored transactions, nine reads in ten on a tenth of the ids: straight from the repository
+ * (NONE), through the previous Spring Caffeine cache of 10^5 responses (LEGACY), and through the tiered cache (TIERED),
+ * whose tiers are sized in MB. The hits and misses of each tier are printed once per trial.
+ *
+ * @author Nickel Fang 2025/5/24
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TransactionCacheBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int FREQUENT = SIZE / 10;
+
+    @Param({"HEAP", "COMPACT", "OFF_HEAP"})
+    private StorageMode storage;
+
+    @Param({"NONE", "LEGACY", "TIERED"})
+    private String cache;
+
+    @Param({"64"})
+    private int hotMaxMb;
+
+    @Param({"0", "64"})
+    private int coldMaxMb;
+
+    private TransactionRepository repo;
+    private TransactionCache transactionCache;
+    private TieredTransactionCache tiered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final TransactionStore store = switch (storage) {
+            case HEAP -> new HeapTransactionStore();
+            case COMPACT -> new CompactTransactionStore();
+            case OFF_HEAP -> new OffHeapTransactionStore(64 << 20, SIZE);
+        };
+        tiered = new TieredTransactionCache((long) hotMaxMb << 20, (long) coldMaxMb << 20);
+        final List<TransactionChangeListener> listeners = cache.equals("TIERED") ? List.of(tiered) : List.of();
+        repo = new TransactionRepository(store, null, EnumSet.noneOf(IndexedField.class), listeners);
+        for (long id = 1; id <= SIZE; id++) {
+            repo.save(BenchmarkData.transaction(id));
+        }
+        transactionCache = switch (cache) {
+            case "LEGACY" -> legacy();
+            case "TIERED" -> tiered;
+            default -> TransactionCache.NONE;
+        };
+    }
+
+    private static TransactionCache legacy() {
+        final Cache springCache = new CaffeineCache("transactions", Caffeine.newBuilder()
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .initialCapacity(1000)
+                .maximumSize(100_000)
+                .build());
+        return (id, repositoryRead) -> springCache.get(id, () -> TransactionCache.NONE.get(id, repositoryRead));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (transactionCache == tiered) {
+            final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            tiered.bindTo(registry);
+            System.out.printf("%nhot hits %.0f, misses %.0f, hot bytes %.0f%n",
+                    registry.get("cache.gets").tag("tier", "hot").tag("result", "hit").functionCounter().count(),
+                    registry.get("cache.gets").tag("tier", "hot").tag("result", "miss").functionCounter().count(),
+                    registry.get("transaction.cache.weight").tag("tier", "hot").gauge().value());
+            if (coldMaxMb > 0) {
+                System.out.printf("cold hits %.0f, misses %.0f, cold bytes %.0f%n",
+                        registry.get("cache.gets").tag("tier", "cold").tag("result", "hit").functionCounter().count(),
+                        registry.get("cache.gets").tag("tier", "cold").tag("result", "miss").functionCounter().count(),
+                        registry.get("transaction.cache.weight").tag("tier", "cold").gauge().value());
+            }
+        }
+    }
+
+    @Benchmark
+    public TransactionResponse getById() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int index = random.nextInt(10) == 0 ? random.nextInt(SIZE) : random.nextInt(FREQUENT);
+        return transactionCache.get(index + 1L, repo::findById);
+    }
+}
@@ -0,0 +1,46 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Nickel Fang 2025/5/8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionMappingBenchmark {
+
+    private final TransactionRequest request = BenchmarkData.request(1L);
+    private final Transaction transaction = BenchmarkData.transaction(1L);
+
+    @Benchmark
+    public Transaction fromDTO() {
+        return Transaction.fromDTO(request);
+    }
+
+    @Benchmark
+    public TransactionResponse toDTO() {
+        return Transaction.toDTO(transaction);
+    }
+
+    @Benchmark
+    public String featureInfo() {
+        return request.getFeatureInfo();
+    }
+}
@@ -0,0 +1,89 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository hot paths at 10^4 to 10^7 stored transactions, ids are 1..size so a random id always hits.
+ * The 10^7 case needs a large heap, e.g. -Djmh.args="TransactionRepositoryBenchmark -jvmArgs -Xmx16g".
+ *
+ * @author Nickel Fang 2025/5/8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TransactionRepositoryBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int size;
+
+    private TransactionRepository repo;
+    private Transaction[] transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repo = new TransactionRepository(new HeapTransactionStore(), null, TransactionRepository.DEFAULT_INDEXES, List.of());
+        transactions = new Transaction[size];
+        for (int i = 0; i < size; i++) {
+            transactions[i] = BenchmarkData.transaction(i + 1);
+            repo.save(transactions[i]);
+        }
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+
+    @Benchmark
+    public Transaction findById() {
+        return repo.findById((long) randomIndex() + 1);
+    }
+
+    @Benchmark
+    public boolean existsById() {
+        return repo.existsById((long) randomIndex() + 1);
+    }
+
+    // overwrites an existing id, so the store size stays constant over the run
+    @Benchmark
+    public Transaction save() {
+        return repo.save(transactions[randomIndex()]);
+    }
+
+    @Benchmark
+    public List<Transaction> findAllByPage() {
+        return repo.findAll(randomIndex() / 10, 10);
+    }
+
+    @Benchmark
+    public List<Transaction> findAfterCursor() {
+        return repo.findAfter((long) randomIndex(), 10);
+    }
+
+    // a window of 100 ids, independent of the store size
+    @Benchmark
+    public List<Transaction> findBetweenWindow() {
+        final long after = randomIndex();
+        return repo.findBetween(after, after + 101, 1000);
+    }
+}
@@ -0,0 +1,131 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.hsbc.billing.transaction.audit.AuditLog;
+import com.hsbc.billing.transaction.audit.AuditOverflowPolicy;
+import com.hsbc.billing.transaction.audit.FileAuditLog;
+import com.hsbc.billing.transaction.cache.TransactionCache;
+import com.hsbc.billing.transaction.config.CacheConfig;
+import com.hsbc.billing.transaction.dedup.CaffeineDuplicateDetector;
+import com.hsbc.billing.transaction.dto.BatchCreateResponse;
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.exception.TransactionDuplicatedException;
+import com.hsbc.billing.transaction.metrics.TransactionMetrics;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.service.TransactionService;
+import com.hsbc.billing.transaction.service.impl.TransactionServiceImpl;
+import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * createTransaction end to end below the controller: duplicate check, id generation, repository write and DTO mapping.
+ * The duplicate detector is configured as in CacheConfig; metered records the TransactionMetrics timers into a
+ * Prometheus registry and audited writes the audit events to files in a temporary directory, as the application does.
+ *
+ * @author Nickel Fang 2025/5/8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TransactionServiceBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"false", "true"})
+    private boolean metered;
+
+    @Param({"false", "true"})
+    private boolean audited;
+
+    private final AtomicLong seed = new AtomicLong();
+
+    private TransactionService transactionService;
+    private TransactionRequest duplicated;
+    private FileAuditLog auditLog;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        if (audited) {
+            auditLog = new FileAuditLog(Files.createTempDirectory("audit-benchmark"), 65536, 64 << 20, 4, AuditOverflowPolicy.DROP);
+            auditLog.open();
+        }
+        // a fresh repository per iteration keeps the heap bounded
+        final TransactionRepository repo = new TransactionRepository(new HeapTransactionStore(), null,
+                TransactionRepository.DEFAULT_INDEXES, List.of());
+        transactionService = new TransactionServiceImpl(new SnowflakeIdGenerator(1L, 1L), repo,
+                new CaffeineDuplicateDetector(CacheConfig.DUPLICATE_WINDOW, 1_000_000),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                metered ? new TransactionMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)) : TransactionMetrics.noop(),
+                audited ? auditLog : AuditLog.NOOP, TransactionCache.NONE);
+        duplicated = BenchmarkData.request(-1L);
+        transactionService.createTransaction(duplicated);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (auditLog != null) {
+            auditLog.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResponse create_1thread() {
+        return transactionService.createTransaction(BenchmarkData.request(seed.incrementAndGet()));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResponse create_8threads() {
+        return transactionService.createTransaction(BenchmarkData.request(seed.incrementAndGet()));
+    }
+
+    // per item cost of a batch of 100, which also pays for bean validation done by the controller for single creates
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchCreateResponse createBatch_1thread() {
+        final List<TransactionRequest> requests = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            requests.add(BenchmarkData.request(seed.incrementAndGet()));
+        }
+        return transactionService.createTransactions(requests);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object createDuplicated() {
+        try {
+            return transactionService.createTransaction(duplicated);
+        } catch (TransactionDuplicatedException e) {
+            return e;
+        }
+    }
+}
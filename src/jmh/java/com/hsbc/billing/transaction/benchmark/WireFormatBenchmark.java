@@ -0,0 +1,92 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server CPU of the body of each endpoint shape in JSON and CBOR: reading a create request, writing its response, and
+ * reading a batch and writing a list of 100. The mappers are configured like the application ones; the bytes on the
+ * wire of every shape are printed once per trial.
+ *
+ * @author Nickel Fang 2025/5/23
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int LIST_SIZE = 100;
+
+    @Param({"JSON", "CBOR"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private JavaType requestList;
+    private TransactionResponse response;
+    private List<TransactionResponse> responses;
+    private byte[] request;
+    private byte[] requests;
+
+    @Setup
+    public void setUp() throws Exception {
+        final Jackson2ObjectMapperBuilder builder = format.equals("CBOR") ? Jackson2ObjectMapperBuilder.cbor() : Jackson2ObjectMapperBuilder.json();
+        // as spring.jackson defaults of Spring Boot
+        mapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        requestList = mapper.getTypeFactory().constructCollectionType(List.class, TransactionRequest.class);
+        response = Transaction.toDTO(BenchmarkData.transaction(1L));
+        responses = new ArrayList<>(LIST_SIZE);
+        final List<TransactionRequest> requestObjects = new ArrayList<>(LIST_SIZE);
+        for (long id = 1; id <= LIST_SIZE; id++) {
+            responses.add(Transaction.toDTO(BenchmarkData.transaction(1_000_000L + id)));
+            requestObjects.add(BenchmarkData.request(id));
+        }
+        request = mapper.writeValueAsBytes(BenchmarkData.request(1L));
+        requests = mapper.writeValueAsBytes(requestObjects);
+        System.out.printf("%n%s bytes: request %d, response %d, batch of %d %d, list of %d %d%n", format, request.length,
+                mapper.writeValueAsBytes(response).length, LIST_SIZE, requests.length, LIST_SIZE,
+                mapper.writeValueAsBytes(responses).length);
+    }
+
+    @Benchmark
+    public TransactionRequest readRequest() throws Exception {
+        return mapper.readValue(request, TransactionRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws Exception {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public List<TransactionRequest> readBatch() throws Exception {
+        return mapper.readValue(requests, requestList);
+    }
+
+    @Benchmark
+    public byte[] writeList() throws Exception {
+        return mapper.writeValueAsBytes(responses);
+    }
+}
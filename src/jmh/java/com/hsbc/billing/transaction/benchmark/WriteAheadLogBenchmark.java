@@ -0,0 +1,81 @@
+package com.hsbc.billing.transaction.benchmark;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.repository.wal.WalSyncMode;
+import com.hsbc.billing.transaction.repository.wal.WriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository save throughput in memory only against the write-ahead log in both sync modes.
+ *
+ * @author Nickel Fang 2025/5/9
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(8)
+public class WriteAheadLogBenchmark {
+
+    @Param({"MEMORY", "ASYNC", "GROUP"})
+    private String mode;
+
+    private Path dir;
+    private WriteAheadLog wal;
+    private TransactionRepository repo;
+    private Transaction[] transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        transactions = new Transaction[100_000];
+        for (int i = 0; i < transactions.length; i++) {
+            transactions[i] = BenchmarkData.transaction(i + 1);
+        }
+        if ("MEMORY".equals(mode)) {
+            repo = new TransactionRepository(new HeapTransactionStore(), null, TransactionRepository.DEFAULT_INDEXES, List.of());
+            return;
+        }
+        dir = Files.createTempDirectory("wal-benchmark");
+        wal = new WriteAheadLog(dir, 64 << 20, WalSyncMode.valueOf(mode), 10L, 1_000_000L);
+        repo = new TransactionRepository(new HeapTransactionStore(), wal, TransactionRepository.DEFAULT_INDEXES, List.of());
+        repo.recover();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (wal != null) {
+            wal.close();
+            FileSystemUtils.deleteRecursively(dir);
+        }
+    }
+
+    @Benchmark
+    public Transaction save() {
+        return repo.save(transactions[ThreadLocalRandom.current().nextInt(transactions.length)]);
+    }
+}
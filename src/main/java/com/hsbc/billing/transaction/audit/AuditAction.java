@@ -0,0 +1,18 @@
+package com.hsbc.billing.transaction.audit;
+
+/**
+ * stored by ordinal in the audit files, so new actions are only ever appended
+ *
+ * @author Nickel Fang 2025/5/22
+ */
+public enum AuditAction {
+    CREATE,
+    UPDATE,
+    DELETE;
+
+    private static final AuditAction[] VALUES = values();
+
+    public static AuditAction of(byte ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,21 @@
+package com.hsbc.billing.transaction.audit;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import org.springframework.lang.Nullable;
+
+/**
+ * Receives every transaction mutation once it is saved. Called on the request thread, so an implementation neither
+ * formats nor writes there.
+ *
+ * @author Nickel Fang 2025/5/22
+ */
+public interface AuditLog {
+
+    AuditLog NOOP = (action, id, transaction) -> {
+    };
+
+    /**
+     * @param transaction the saved transaction, never mutated afterwards; null for a delete
+     */
+    void record(AuditAction action, long id, @Nullable Transaction transaction);
+}
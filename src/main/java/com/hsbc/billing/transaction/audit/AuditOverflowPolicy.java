@@ -0,0 +1,17 @@
+package com.hsbc.billing.transaction.audit;
+
+/**
+ * what a request does when the audit writer is a whole ring buffer behind
+ *
+ * @author Nickel Fang 2025/5/22
+ */
+public enum AuditOverflowPolicy {
+    /**
+     * drop the event and count it in {@code transaction.audit.dropped}, the request never waits for the disk
+     */
+    DROP,
+    /**
+     * wait for a free slot, every mutation is audited at the cost of request latency while the disk is slow
+     */
+    BLOCK
+}
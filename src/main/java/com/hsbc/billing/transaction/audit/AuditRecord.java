@@ -0,0 +1,13 @@
+package com.hsbc.billing.transaction.audit;
+
+import com.hsbc.billing.transaction.model.Transaction;
+
+import java.time.Instant;
+
+/**
+ * one event read back from the audit files, the transaction is null for a delete
+ *
+ * @author Nickel Fang 2025/5/22
+ */
+public record AuditRecord(Instant time, AuditAction action, long id, Transaction transaction) {
+}
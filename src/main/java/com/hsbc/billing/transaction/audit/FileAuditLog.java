@@ -0,0 +1,359 @@
+package com.hsbc.billing.transaction.audit;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.codec.TransactionCodec;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * {@link AuditLog} in a bounded ring buffer drained by one background writer into rolling files.
+ * <p>
+ * A request claims a slot with a compare-and-set of the tail, fills the preallocated arrays of that slot with the
+ * action, id, time and the reference to the saved transaction, and publishes the slot with its sequence: no lock, no
+ * allocation and no formatting. The writer encodes the events in sequence order off the request thread. When it is a
+ * whole buffer behind, the {@link AuditOverflowPolicy} either drops the event or makes the request wait.
+ * <p>
+ * Record layout: {@code int length | long epochMillis | byte action | long id | payload}, the payload being the
+ * {@link TransactionCodec} encoding of the transaction, empty for a delete. A file rolls once it reaches the maximum
+ * size, only the newest files are kept, and a restart starts a new file rather than appending to one torn by a crash.
+ * The records of a failed write are counted as dropped, and the next write starts a new file.
+ *
+ * @author Nickel Fang 2025/5/22
+ */
+@Slf4j
+public class FileAuditLog implements AuditLog, MeterBinder, Closeable {
+
+    private static final String FILE_PREFIX = "audit-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final int RECORD_BODY_HEADER_BYTES = 17;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Path dir;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final AuditOverflowPolicy overflowPolicy;
+
+    private final int capacity;
+    private final int mask;
+    // the sequence published in each slot, read by the writer before the plain arrays below
+    private final AtomicLongArray published;
+    private final long[] times;
+    private final byte[] actions;
+    private final long[] ids;
+    private final Transaction[] transactions;
+
+    private final AtomicLong tail = new AtomicLong();
+    // the next sequence to write, only advanced by the writer
+    private volatile long head;
+    private final LongAdder dropped = new LongAdder();
+    private volatile long written;
+    private volatile boolean running;
+    private Thread writer;
+
+    // owned by the writer thread
+    private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+    private int bufferedRecords;
+    // null after a failed write until a new file is opened
+    private FileChannel channel;
+    private boolean failing;
+    private long fileIndex;
+    private long fileSize;
+
+    public FileAuditLog(Path dir, int capacity, long maxFileSize, int maxFiles, AuditOverflowPolicy overflowPolicy) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Audit buffer capacity must be a power of two: " + capacity);
+        }
+        this.dir = dir;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.overflowPolicy = overflowPolicy;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.times = new long[capacity];
+        this.actions = new byte[capacity];
+        this.ids = new long[capacity];
+        this.transactions = new Transaction[capacity];
+    }
+
+    public void open() {
+        try {
+            Files.createDirectories(dir);
+            final List<Long> indexes = listIndexes(dir);
+            fileIndex = indexes.isEmpty() ? 0 : indexes.get(indexes.size() - 1);
+            roll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open audit log in " + dir, e);
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void record(AuditAction action, long id, Transaction transaction) {
+        final long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return;
+        }
+        final int slot = (int) sequence & mask;
+        times[slot] = System.currentTimeMillis();
+        actions[slot] = (byte) action.ordinal();
+        ids[slot] = id;
+        transactions[slot] = transaction;
+        published.set(slot, sequence);
+    }
+
+    // the claimed sequence, -1 when the event is dropped
+    private long claim() {
+        while (running) {
+            final long sequence = tail.get();
+            if (sequence - head >= capacity) {
+                if (overflowPolicy == AuditOverflowPolicy.DROP) {
+                    return -1;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+        return -1;
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (!drain()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        // the requests claiming a slot before close are still published
+        while (head < tail.get()) {
+            if (!drain()) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    // writes the events published in sequence order, false when there was none
+    private boolean drain() {
+        long sequence = head;
+        int slot = (int) sequence & mask;
+        if (published.get(slot) != sequence) {
+            return false;
+        }
+        do {
+            final Transaction transaction = transactions[slot];
+            transactions[slot] = null;
+            append(times[slot], actions[slot], ids[slot], transaction == null ? null : TransactionCodec.encode(transaction));
+            head = ++sequence;
+            slot = (int) sequence & mask;
+        } while (published.get(slot) == sequence);
+        flushBuffer();
+        return true;
+    }
+
+    private void append(long time, byte action, long id, byte[] payload) {
+        final int length = RECORD_BODY_HEADER_BYTES + (payload == null ? 0 : payload.length);
+        if (buffer.remaining() < Integer.BYTES + length) {
+            flushBuffer();
+        }
+        // larger than the whole buffer, written on its own
+        final ByteBuffer target = buffer.remaining() < Integer.BYTES + length ? ByteBuffer.allocate(Integer.BYTES + length) : buffer;
+        target.putInt(length).putLong(time).put(action).putLong(id);
+        if (payload != null) {
+            target.put(payload);
+        }
+        if (target != buffer) {
+            write(target.flip(), 1);
+        } else {
+            bufferedRecords++;
+        }
+    }
+
+    private void flushBuffer() {
+        write(buffer.flip(), bufferedRecords);
+        buffer.clear();
+        bufferedRecords = 0;
+    }
+
+    private void write(ByteBuffer bytes, int records) {
+        if (records == 0) {
+            return;
+        }
+        final int size = bytes.remaining();
+        try {
+            if (channel == null) {
+                roll();
+            }
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            // a record torn by the failed write ends the file for readAll, the next write starts a new one
+            if (!failing) {
+                log.error("Failed to write {} audit records to {}, dropping them until a new file can be written",
+                        records, path(dir, fileIndex), e);
+            }
+            failing = true;
+            dropped.add(records);
+            abandon();
+            return;
+        }
+        if (failing) {
+            log.info("Audit records are written again to {}", path(dir, fileIndex));
+            failing = false;
+        }
+        written += size;
+        fileSize += size;
+        if (fileSize >= maxFileSize) {
+            try {
+                roll();
+            } catch (IOException e) {
+                log.error("Failed to roll audit log file {}", path(dir, fileIndex), e);
+            }
+        }
+    }
+
+    private void abandon() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close audit log file {}", path(dir, fileIndex), e);
+        }
+        channel = null;
+    }
+
+    // on a failure no file is open, the next write tries a new one
+    private void roll() throws IOException {
+        if (channel != null) {
+            final FileChannel previous = channel;
+            channel = null;
+            try {
+                previous.force(false);
+            } finally {
+                previous.close();
+            }
+        }
+        fileIndex++;
+        channel = FileChannel.open(path(dir, fileIndex), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        fileSize = 0;
+        for (long index : listIndexes(dir)) {
+            if (index <= fileIndex - maxFiles) {
+                Files.deleteIfExists(path(dir, index));
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transaction.audit.backlog", this, auditLog -> auditLog.tail.get() - auditLog.head)
+                .description("audit events waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("transaction.audit.dropped", dropped, LongAdder::sum)
+                .description("audit events dropped on a full buffer or a failed write")
+                .register(registry);
+        FunctionCounter.builder("transaction.audit.written", this, auditLog -> auditLog.written)
+                .description("bytes of audit records written")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Failed to close audit log file {}", path(dir, fileIndex), e);
+        }
+    }
+
+    /**
+     * every record of the audit files in the directory, oldest first, up to a record torn by a crash
+     */
+    public static List<AuditRecord> readAll(Path dir) throws IOException {
+        final List<AuditRecord> records = new ArrayList<>();
+        for (long index : listIndexes(dir)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path(dir, index)), 1 << 16))) {
+                while (true) {
+                    final int length = in.readInt();
+                    if (length < RECORD_BODY_HEADER_BYTES) {
+                        break;
+                    }
+                    final Instant time = Instant.ofEpochMilli(in.readLong());
+                    final AuditAction action = AuditAction.of(in.readByte());
+                    final long id = in.readLong();
+                    final byte[] payload = new byte[length - RECORD_BODY_HEADER_BYTES];
+                    in.readFully(payload);
+                    records.add(new AuditRecord(time, action, id, payload.length == 0 ? null : TransactionCodec.decode(payload)));
+                }
+            } catch (EOFException e) {
+                // end of the file
+            }
+        }
+        return records;
+    }
+
+    private static List<Long> listIndexes(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path path(Path dir, long index) {
+        return dir.resolve(String.format("%s%020d%s", FILE_PREFIX, index, FILE_SUFFIX));
+    }
+}
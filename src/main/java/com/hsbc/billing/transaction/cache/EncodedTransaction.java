@@ -0,0 +1,9 @@
+package com.hsbc.billing.transaction.cache;
+
+/**
+ * The JSON of a transaction response and its strong entity tag, quoted.
+ *
+ * @author Nickel Fang 2025/5/25
+ */
+public record EncodedTransaction(byte[] json, String etag) {
+}
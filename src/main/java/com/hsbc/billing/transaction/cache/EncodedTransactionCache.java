@@ -0,0 +1,91 @@
+package com.hsbc.billing.transaction.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionChangeListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.io.UncheckedIOException;
+import java.util.function.LongFunction;
+import java.util.zip.CRC32C;
+
+/**
+ * The JSON of single transaction responses, written once by the application mapper and served as is with an entity tag
+ * derived from the bytes, so a hit skips Jackson and a conditional request skips the body too. Bounded by the bytes of
+ * the entries with the W-TinyLFU policy of Caffeine.
+ * <p>
+ * Registered as a {@link TransactionChangeListener}: every update and delete applied to the repository invalidates the
+ * id under the lock of that id in the cache, which also serializes the loads, so JSON read before a change is never
+ * cached after it.
+ *
+ * @author Nickel Fang 2025/5/25
+ */
+public class EncodedTransactionCache implements TransactionChangeListener, MeterBinder {
+
+    public static final String CACHE_NAME = "transaction-json";
+
+    // record, array headers, tag string, boxed id and the cache entry
+    private static final int ENTRY_OVERHEAD_BYTES = 200;
+
+    private final ObjectWriter writer;
+
+    private final Cache<Long, EncodedTransaction> cache;
+
+    public EncodedTransactionCache(ObjectMapper objectMapper, long maxBytes) {
+        this.writer = objectMapper.writerFor(TransactionResponse.class);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, EncodedTransaction encoded) -> ENTRY_OVERHEAD_BYTES + encoded.json().length)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param read the response of the transaction on a miss, throws when there is none
+     */
+    public EncodedTransaction get(long id, LongFunction<TransactionResponse> read) {
+        return cache.get(id, key -> encode(read.apply(key)));
+    }
+
+    private EncodedTransaction encode(TransactionResponse response) {
+        final byte[] json;
+        try {
+            json = writer.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new EncodedTransaction(json, etag(json));
+    }
+
+    // the length and CRC32C of the bytes, an intrinsic on current CPUs unlike a digest
+    static String etag(byte[] json) {
+        final CRC32C crc = new CRC32C();
+        crc.update(json);
+        return "\"" + Integer.toHexString(json.length) + '-' + Long.toHexString(crc.getValue()) + '"';
+    }
+
+    @Override
+    public void onChange(Transaction previous, Transaction current) {
+        if (previous != null) {
+            cache.invalidate(previous.getId());
+        }
+    }
+
+    @Override
+    public void onClear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+}
@@ -0,0 +1,149 @@
+package com.hsbc.billing.transaction.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionChangeListener;
+import com.hsbc.billing.transaction.repository.codec.TransactionCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.function.LongFunction;
+
+/**
+ * {@link TransactionCache} in two tiers bounded by their estimated bytes: the hot tier keeps decoded responses, the
+ * cold tier the {@link TransactionCodec} encoding of the responses evicted from the hot tier, less than half of their
+ * size. A cold hit is decoded and promoted back to the hot tier. Both tiers admit and evict with the W-TinyLFU policy
+ * of Caffeine, so a scan of rarely read ids does not flush the frequently read ones.
+ * <p>
+ * Registered as a {@link TransactionChangeListener}, so every update and delete applied to the repository, including
+ * imports and the write-ahead log replay, invalidates the id. Loading, demoting and invalidating an id all run under
+ * the lock of that id in the hot tier, so a response read before a change is never cached after it.
+ *
+ * @author Nickel Fang 2025/5/24
+ */
+public class TieredTransactionCache implements TransactionCache, TransactionChangeListener, MeterBinder {
+
+    public static final String CACHE_NAME = "transactions";
+
+    // object headers, references, boxed id, amount and time of a response, and the cache entry
+    private static final int RESPONSE_BYTES = 232;
+    // array header, boxed id and the cache entry
+    private static final int ENCODED_OVERHEAD_BYTES = 96;
+    private static final int STRING_BYTES = 40;
+
+    private final Cache<Long, TransactionResponse> hot;
+
+    // null when the cold tier is disabled
+    private final Cache<Long, byte[]> cold;
+
+    public TieredTransactionCache(long hotMaxBytes, long coldMaxBytes) {
+        this.cold = coldMaxBytes <= 0 ? null : Caffeine.newBuilder()
+                .maximumWeight(coldMaxBytes)
+                .weigher((Long id, byte[] encoded) -> ENCODED_OVERHEAD_BYTES + encoded.length)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        final Caffeine<Long, TransactionResponse> hotBuilder = Caffeine.newBuilder()
+                .maximumWeight(hotMaxBytes)
+                .weigher((Long id, TransactionResponse response) -> weigh(response))
+                .executor(Runnable::run)
+                .recordStats();
+        this.hot = cold == null ? hotBuilder.build() : hotBuilder.evictionListener(this::demote).build();
+    }
+
+    @Override
+    public TransactionResponse get(long id, LongFunction<Transaction> repositoryRead) {
+        return hot.get(id, key -> load(key, repositoryRead));
+    }
+
+    private TransactionResponse load(long id, LongFunction<Transaction> repositoryRead) {
+        if (cold != null) {
+            final byte[] encoded = cold.getIfPresent(id);
+            if (encoded != null) {
+                cold.invalidate(id);
+                return Transaction.toDTO(TransactionCodec.decode(encoded));
+            }
+        }
+        final Transaction transaction = repositoryRead.apply(id);
+        return transaction == null ? null : Transaction.toDTO(transaction);
+    }
+
+    // called by the hot tier under the lock of the id
+    private void demote(Long id, TransactionResponse response, RemovalCause cause) {
+        if (cause == RemovalCause.SIZE && response != null) {
+            cold.put(id, TransactionCodec.encode(toTransaction(response)));
+        }
+    }
+
+    @Override
+    public void onChange(Transaction previous, Transaction current) {
+        // a new id was never cached, a missing transaction is not cached
+        if (previous == null) {
+            return;
+        }
+        hot.asMap().compute(previous.getId(), (id, response) -> {
+            if (cold != null) {
+                cold.invalidate(id);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void onClear() {
+        hot.invalidateAll();
+        if (cold != null) {
+            cold.invalidateAll();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, hot, CACHE_NAME, "tier", "hot");
+        Gauge.builder("transaction.cache.weight", hot, cache -> cache.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                .tag("tier", "hot")
+                .description("estimated bytes of the cached responses")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        if (cold != null) {
+            CaffeineCacheMetrics.monitor(registry, cold, CACHE_NAME, "tier", "cold");
+            Gauge.builder("transaction.cache.weight", cold, cache -> cache.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                    .tag("tier", "cold")
+                    .description("estimated bytes of the cached responses")
+                    .baseUnit(BaseUnits.BYTES)
+                    .register(registry);
+        }
+    }
+
+    static int weigh(TransactionResponse response) {
+        return RESPONSE_BYTES + weigh(response.getCurrency()) + weigh(response.getSenderAccount())
+                + weigh(response.getReceiverAccount()) + weigh(response.getBeneficiaryName()) + weigh(response.getChannel())
+                + weigh(response.getDescription());
+    }
+
+    private static int weigh(String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+
+    private static Transaction toTransaction(TransactionResponse response) {
+        final Transaction transaction = new Transaction();
+        transaction.setId(response.getId());
+        transaction.setAmount(response.getAmount());
+        transaction.setCurrency(response.getCurrency());
+        transaction.setType(response.getType());
+        transaction.setSenderAccount(response.getSenderAccount());
+        transaction.setReceiverAccount(response.getReceiverAccount());
+        transaction.setBeneficiaryName(response.getBeneficiaryName());
+        transaction.setChannel(response.getChannel());
+        transaction.setStatus(response.getStatus());
+        transaction.setDescription(response.getDescription());
+        transaction.setTransactionTime(response.getTransactionTime());
+        return transaction;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hsbc.billing.transaction.cache;
+
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import org.springframework.lang.Nullable;
+
+import java.util.function.LongFunction;
+
+/**
+ * Responses of single transactions read by id. An implementation is kept coherent by the repository changes, not by the
+ * callers.
+ *
+ * @author Nickel Fang 2025/5/24
+ */
+public interface TransactionCache {
+
+    // every read goes to the repository
+    TransactionCache NONE = (id, repositoryRead) -> {
+        final Transaction transaction = repositoryRead.apply(id);
+        return transaction == null ? null : Transaction.toDTO(transaction);
+    };
+
+    /**
+     * @param repositoryRead reads the stored transaction on a miss, null when there is none
+     * @return the response of the transaction, null when there is none
+     */
+    @Nullable
+    TransactionResponse get(long id, LongFunction<Transaction> repositoryRead);
+}
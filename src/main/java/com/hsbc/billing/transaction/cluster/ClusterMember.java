@@ -0,0 +1,31 @@
+package com.hsbc.billing.transaction.cluster;
+
+import java.net.URI;
+
+/**
+ * An instance of the service, known by the snowflake datacenter and machine ids it issues ids with and the base URL
+ * its peers reach it at.
+ *
+ * @author Nickel Fang 2025/5/27
+ */
+public record ClusterMember(long datacenterId, long machineId, URI url) {
+
+    /**
+     * parses {@code datacenterId/machineId=url}, e.g. {@code 1/2=http://transaction-api-1.transaction-api-peers:8080}
+     */
+    public static ClusterMember parse(String member) {
+        final int slash = member.indexOf('/');
+        final int equals = member.indexOf('=');
+        if (slash < 0 || equals < slash) {
+            throw new IllegalArgumentException("Cluster member must be datacenterId/machineId=url: " + member);
+        }
+        final String url = member.substring(equals + 1).trim();
+        return new ClusterMember(Long.parseLong(member.substring(0, slash).trim()),
+                Long.parseLong(member.substring(slash + 1, equals).trim()),
+                URI.create(url.endsWith("/") ? url.substring(0, url.length() - 1) : url));
+    }
+
+    boolean owns(long datacenterId, long machineId) {
+        return this.datacenterId == datacenterId && this.machineId == machineId;
+    }
+}
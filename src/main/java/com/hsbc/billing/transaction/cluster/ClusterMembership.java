@@ -0,0 +1,53 @@
+package com.hsbc.billing.transaction.cluster;
+
+import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The static list of the instances sharing the transactions, each holding the ones it created. A snowflake id carries
+ * the datacenter and machine ids of its generator, so the owner of a transaction is decoded from its id without any
+ * lookup. Ids of a worker missing from the list, e.g. imported from another environment, are served locally.
+ *
+ * @author Nickel Fang 2025/5/27
+ */
+public class ClusterMembership {
+
+    private final List<ClusterMember> peers = new ArrayList<>();
+
+    // datacenter id << 5 | machine id
+    private final Map<Long, ClusterMember> peersByWorker = new HashMap<>();
+
+    public ClusterMembership(long datacenterId, long machineId, List<ClusterMember> members) {
+        for (ClusterMember member : members) {
+            if (member.owns(datacenterId, machineId)) {
+                continue;
+            }
+            if (peersByWorker.put(worker(member.datacenterId(), member.machineId()), member) != null) {
+                throw new IllegalArgumentException("Duplicated cluster member " + member.datacenterId() + "/" + member.machineId());
+            }
+            peers.add(member);
+        }
+    }
+
+    /**
+     * the peer holding the transaction, null when it is this instance or the issuer of the id is not a member
+     */
+    public ClusterMember ownerOf(long id) {
+        if (peers.isEmpty()) {
+            return null;
+        }
+        return peersByWorker.get(worker(SnowflakeIdGenerator.datacenterIdOf(id), SnowflakeIdGenerator.machineIdOf(id)));
+    }
+
+    public List<ClusterMember> peers() {
+        return peers;
+    }
+
+    private static long worker(long datacenterId, long machineId) {
+        return datacenterId << 5 | machineId;
+    }
+}
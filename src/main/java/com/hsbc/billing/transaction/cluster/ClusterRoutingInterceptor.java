@@ -0,0 +1,58 @@
+package com.hsbc.billing.transaction.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Proxies the get, update and delete of a transaction owned by a peer to that peer before the controller runs, see
+ * {@link PeerClient#forward}. Requests already forwarded by a peer, and transactions owned by this instance or by no
+ * member, go on to the controller.
+ *
+ * @author Nickel Fang 2025/5/27
+ */
+public class ClusterRoutingInterceptor implements HandlerInterceptor {
+
+    private final ClusterMembership membership;
+    private final PeerClient peerClient;
+
+    public ClusterRoutingInterceptor(ClusterMembership membership, PeerClient peerClient) {
+        this.membership = membership;
+        this.peerClient = peerClient;
+    }
+
+    public static boolean isForwarded(HttpServletRequest request) {
+        return request.getHeader(PeerClient.FORWARDED_HEADER) != null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (isForwarded(request)) {
+            return true;
+        }
+        final ClusterMember owner = ownerOf(request);
+        if (owner == null) {
+            return true;
+        }
+        peerClient.forward(owner.url(), request, response);
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClusterMember ownerOf(HttpServletRequest request) {
+        final Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        final String id = variables == null ? null : variables.get("id");
+        if (id == null) {
+            return null;
+        }
+        try {
+            return membership.ownerOf(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            // rejected by the controller
+            return null;
+        }
+    }
+}
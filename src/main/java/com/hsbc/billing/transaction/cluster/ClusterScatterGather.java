@@ -0,0 +1,69 @@
+package com.hsbc.billing.transaction.cluster;
+
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * The list pages of {@code GET /api/v2/transactions} over the whole cluster: the same request goes to every peer, and
+ * their pages are merged with the local one in id order. Each member holds a disjoint part of the transactions, so the
+ * first {@code limit} of the cluster are among the first {@code limit} of each member, which makes cursor and filtered
+ * pages cost one page per member. An offset page needs the pages before it from every member.
+ *
+ * @author Nickel Fang 2025/5/27
+ */
+public class ClusterScatterGather {
+
+    private final ClusterMembership membership;
+    private final PeerClient peerClient;
+
+    public ClusterScatterGather(ClusterMembership membership, PeerClient peerClient) {
+        this.membership = membership;
+        this.peerClient = peerClient;
+    }
+
+    /**
+     * the first {@code limit} transactions of the cluster answering the request, {@code local} being the answer of
+     * this instance
+     */
+    public List<TransactionResponse> first(HttpServletRequest request, List<TransactionResponse> local, int limit) {
+        return merge(local, peerClient.list(membership.peers(), pathAndQuery(request, Map.of())), 0, limit);
+    }
+
+    /**
+     * page {@code page} (from 1) of {@code size} transactions of the cluster in id order
+     *
+     * @param local the 1 based page of the given size on this instance
+     */
+    public List<TransactionResponse> page(HttpServletRequest request, int page, int size,
+            BiFunction<Integer, Integer, List<TransactionResponse>> local) {
+        final int skip = (int) Math.min(Integer.MAX_VALUE - size, Math.max(0, (long) (page - 1) * size));
+        final int head = skip + size;
+        final String firstPages = pathAndQuery(request, Map.<String, Object>of("page", 1, "size", head));
+        return merge(local.apply(1, head), peerClient.list(membership.peers(), firstPages), skip, size);
+    }
+
+    private static List<TransactionResponse> merge(List<TransactionResponse> local, List<List<TransactionResponse>> peers,
+            int skip, int limit) {
+        final List<TransactionResponse> all = new ArrayList<>(local);
+        peers.forEach(all::addAll);
+        all.sort(Comparator.comparingLong(TransactionResponse::getId));
+        if (skip >= all.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(all.subList(skip, Math.min(all.size(), skip + limit)));
+    }
+
+    // the path and query of the request, with the given query parameters replaced
+    private static String pathAndQuery(HttpServletRequest request, Map<String, Object> replacements) {
+        final UriComponentsBuilder uri = UriComponentsBuilder.fromPath(request.getRequestURI()).query(request.getQueryString());
+        replacements.forEach(uri::replaceQueryParam);
+        return uri.build().toUriString();
+    }
+}
@@ -0,0 +1,142 @@
+package com.hsbc.billing.transaction.cluster;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.exception.PeerUnavailableException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP/1.1 calls to the peers of the cluster, each marked with {@link #FORWARDED_HEADER} so the peer serves it from its
+ * own repository instead of routing it again. Any failure to get an answer, including a timeout, is a
+ * {@link PeerUnavailableException}: a partial list would silently skip transactions.
+ *
+ * @author Nickel Fang 2025/5/27
+ */
+public class PeerClient implements AutoCloseable {
+
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded";
+
+    private static final List<String> REQUEST_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MATCH);
+
+    private static final List<String> RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG);
+
+    private static final TypeReference<List<TransactionResponse>> TRANSACTIONS = new TypeReference<>() {
+    };
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+
+    public PeerClient(ObjectMapper objectMapper, Duration timeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+    }
+
+    /**
+     * sends the request to the peer at the base URL and copies its answer back: status, content type, entity tag and
+     * body. The accept, content type and conditional headers of the request are kept.
+     */
+    public void forward(URI peer, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        final Map<String, String> headers = new HashMap<>();
+        for (String name : REQUEST_HEADERS) {
+            final String value = request.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        final String query = request.getQueryString();
+        final HttpResponse<byte[]> answer = exchange(peer, request.getMethod(),
+                request.getRequestURI() + (query == null ? "" : "?" + query), headers, request.getInputStream().readAllBytes());
+        response.setStatus(answer.statusCode());
+        for (String name : RESPONSE_HEADERS) {
+            answer.headers().firstValue(name).ifPresent(value -> response.setHeader(name, value));
+        }
+        response.getOutputStream().write(answer.body());
+    }
+
+    /**
+     * the request as is to the peer at the base URL, {@code pathAndQuery} starting with a slash, whatever status the
+     * peer answers with
+     */
+    public HttpResponse<byte[]> exchange(URI peer, String method, String pathAndQuery, Map<String, String> headers,
+            byte[] body) {
+        final HttpRequest.Builder request = request(peer, pathAndQuery)
+                .method(method, body.length == 0 ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        headers.forEach(request::header);
+        try {
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new PeerUnavailableException(peer, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PeerUnavailableException(peer, e);
+        }
+    }
+
+    /**
+     * the JSON lists the peers answer to the same GET, requested concurrently, in the order of the peers
+     */
+    public List<List<TransactionResponse>> list(List<ClusterMember> peers, String pathAndQuery) {
+        final List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>(peers.size());
+        for (ClusterMember peer : peers) {
+            responses.add(client.sendAsync(request(peer.url(), pathAndQuery).header(HttpHeaders.ACCEPT, "application/json").GET().build(),
+                    HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        final List<List<TransactionResponse>> lists = new ArrayList<>(peers.size());
+        for (int i = 0; i < peers.size(); i++) {
+            lists.add(transactions(peers.get(i), responses.get(i)));
+        }
+        return lists;
+    }
+
+    private List<TransactionResponse> transactions(ClusterMember peer, CompletableFuture<HttpResponse<byte[]>> future) {
+        try {
+            final HttpResponse<byte[]> response = future.get();
+            if (response.statusCode() != 200) {
+                throw new PeerUnavailableException(peer.url(), "status " + response.statusCode());
+            }
+            return objectMapper.readValue(response.body(), TRANSACTIONS);
+        } catch (IOException e) {
+            throw new PeerUnavailableException(peer.url(), e);
+        } catch (ExecutionException e) {
+            throw new PeerUnavailableException(peer.url(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PeerUnavailableException(peer.url(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    private HttpRequest.Builder request(URI peer, String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(peer + pathAndQuery))
+                .timeout(timeout)
+                .header(FORWARDED_HEADER, "true");
+    }
+}
@@ -0,0 +1,29 @@
+package com.hsbc.billing.transaction.config;
+
+import com.hsbc.billing.transaction.audit.AuditOverflowPolicy;
+import com.hsbc.billing.transaction.audit.FileAuditLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * @author Nickel Fang 2025/5/22
+ */
+@Configuration
+@ConditionalOnProperty(name = "transaction.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditConfig {
+
+    @Bean
+    public FileAuditLog auditLog(@Value("${transaction.audit.dir:./data/audit}") Path dir,
+            @Value("${transaction.audit.buffer-capacity:65536}") int capacity,
+            @Value("${transaction.audit.max-file-size-mb:64}") int maxFileSizeMb,
+            @Value("${transaction.audit.max-files:16}") int maxFiles,
+            @Value("${transaction.audit.overflow:DROP}") AuditOverflowPolicy overflowPolicy) {
+        final FileAuditLog auditLog = new FileAuditLog(dir, capacity, (long) maxFileSizeMb << 20, maxFiles, overflowPolicy);
+        auditLog.open();
+        return auditLog;
+    }
+}
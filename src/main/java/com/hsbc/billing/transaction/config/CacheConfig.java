@@ -1,13 +1,20 @@
 package com.hsbc.billing.transaction.config;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.billing.transaction.cache.EncodedTransactionCache;
+import com.hsbc.billing.transaction.cache.TieredTransactionCache;
+import com.hsbc.billing.transaction.dedup.CaffeineDuplicateDetector;
+import com.hsbc.billing.transaction.dedup.DuplicateDetector;
+import com.hsbc.billing.transaction.dedup.DuplicateStoreMode;
+import com.hsbc.billing.transaction.dedup.RespClient;
+import com.hsbc.billing.transaction.dedup.SharedDuplicateDetector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Primary;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
 
 /**
  * @author Nickel Fang 2025/4/24
@@ -15,26 +22,35 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class CacheConfig {
 
-    @Bean(name = "cache_transactions")
-    @Primary
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("transactions");
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .initialCapacity(1000)
-                .maximumSize(100_000)
-                .recordStats());
-        return cacheManager;
+    // two transaction requests with the same feature info within this window are duplicated
+    public static final Duration DUPLICATE_WINDOW = Duration.ofMinutes(1);
+
+    // the HEAP storage holds the decoded transactions already
+    @Bean
+    @ConditionalOnExpression("${transaction.cache.enabled:false} and '${transaction.repository.storage:HEAP}' != 'HEAP'")
+    public TieredTransactionCache transactionCache(@Value("${transaction.cache.hot-max-mb:64}") int hotMaxMb,
+            @Value("${transaction.cache.cold-max-mb:0}") int coldMaxMb) {
+        return new TieredTransactionCache((long) hotMaxMb << 20, (long) coldMaxMb << 20);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "transaction.cache.json.enabled", havingValue = "true", matchIfMissing = true)
+    public EncodedTransactionCache encodedTransactionCache(ObjectMapper objectMapper,
+            @Value("${transaction.cache.json.max-mb:64}") int maxMb) {
+        return new EncodedTransactionCache(objectMapper, (long) maxMb << 20);
     }
 
-    @Bean(name = "cache_duplicatedTransactions")
-    public CacheManager cacheManagerForDuplicationCheck() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("duplicatedTransactions");
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(1, TimeUnit.MINUTES)
-                .initialCapacity(1000)
-                .maximumSize(100_000)
-                .recordStats());
-        return cacheManager;
+    @Bean
+    public DuplicateDetector duplicateDetector(@Value("${transaction.duplicate-check.store:LOCAL}") DuplicateStoreMode storeMode,
+            @Value("${transaction.duplicate-check.maximum-size:1000000}") long maximumSize,
+            @Value("${transaction.duplicate-check.shared.host:localhost}") String host,
+            @Value("${transaction.duplicate-check.shared.port:6379}") int port,
+            @Value("${transaction.duplicate-check.shared.key-prefix:transaction:duplicate:}") String keyPrefix,
+            @Value("${transaction.duplicate-check.shared.timeout-ms:50}") long timeoutMillis) {
+        return switch (storeMode) {
+            case LOCAL -> new CaffeineDuplicateDetector(DUPLICATE_WINDOW, maximumSize);
+            case SHARED -> new SharedDuplicateDetector(new RespClient(host, port), keyPrefix, DUPLICATE_WINDOW, maximumSize,
+                    Duration.ofMillis(timeoutMillis));
+        };
     }
 }
@@ -0,0 +1,23 @@
+package com.hsbc.billing.transaction.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * {@code application/cbor} next to JSON, negotiated by Content-Type and Accept. The mapper is built from the builder of
+ * the application ObjectMapper, so CBOR carries the same fields and formats as JSON in binary: amounts as tagged
+ * decimal fractions, ids as integers, no quoted field syntax to parse.
+ *
+ * @author Nickel Fang 2025/5/23
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,53 @@
+package com.hsbc.billing.transaction.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.billing.transaction.cluster.ClusterMember;
+import com.hsbc.billing.transaction.cluster.ClusterMembership;
+import com.hsbc.billing.transaction.cluster.ClusterRoutingInterceptor;
+import com.hsbc.billing.transaction.cluster.ClusterScatterGather;
+import com.hsbc.billing.transaction.cluster.PeerClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @author Nickel Fang 2025/5/27
+ */
+@Configuration
+@ConditionalOnProperty(name = "transaction.cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Bean
+    public ClusterMembership clusterMembership(@Value("${snowflake.datacenter-id}") long datacenterId,
+            @Value("${snowflake.instance-id}") long machineId, @Value("${transaction.cluster.members:}") List<String> members) {
+        return new ClusterMembership(datacenterId, machineId, members.stream().map(ClusterMember::parse).toList());
+    }
+
+    @Bean
+    public PeerClient peerClient(ObjectMapper objectMapper, @Value("${transaction.cluster.timeout-ms:2000}") long timeoutMillis) {
+        return new PeerClient(objectMapper, Duration.ofMillis(timeoutMillis));
+    }
+
+    // the transactions of other members are proxied before the controller runs
+    @Bean
+    public WebMvcConfigurer clusterRouting(ClusterMembership clusterMembership, PeerClient peerClient) {
+        final ClusterRoutingInterceptor interceptor = new ClusterRoutingInterceptor(clusterMembership, peerClient);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/v2/transactions/*");
+            }
+        };
+    }
+
+    @Bean
+    public ClusterScatterGather clusterScatterGather(ClusterMembership clusterMembership, PeerClient peerClient) {
+        return new ClusterScatterGather(clusterMembership, peerClient);
+    }
+}
@@ -0,0 +1,66 @@
+package com.hsbc.billing.transaction.config;
+
+import com.hsbc.billing.transaction.dedup.DuplicateDetector;
+import com.hsbc.billing.transaction.repository.ShardedTransactionStore;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.repository.TransactionStore;
+import com.hsbc.billing.transaction.repository.offheap.OffHeapTransactionStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges of the repository, of each of its shards when sharded, and of the duplicate detector. The timers are in
+ * {@link com.hsbc.billing.transaction.metrics.TransactionMetrics}, the hit/miss/eviction metrics of the transactions
+ * cache are bound by {@link com.hsbc.billing.transaction.cache.TieredTransactionCache} itself.
+ *
+ * @author Nickel Fang 2025/5/21
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder repositoryMetrics(TransactionRepository repo, TransactionStore store) {
+        return registry -> {
+            Gauge.builder("transaction.repository.size", repo, TransactionRepository::count)
+                    .description("transactions in the repository")
+                    .register(registry);
+            if (store instanceof ShardedTransactionStore sharded) {
+                for (int i = 0; i < sharded.shards(); i++) {
+                    final Tags shard = Tags.of("shard", String.valueOf(i));
+                    Gauge.builder("transaction.repository.shard.size", sharded.shard(i), TransactionStore::size)
+                            .description("transactions in the repository shard")
+                            .tags(shard)
+                            .register(registry);
+                    bindOffHeap(registry, sharded.shard(i), shard);
+                }
+            } else {
+                bindOffHeap(registry, store, Tags.empty());
+            }
+        };
+    }
+
+    private static void bindOffHeap(MeterRegistry registry, TransactionStore store, Tags tags) {
+        if (store instanceof OffHeapTransactionStore offHeap) {
+            Gauge.builder("transaction.repository.off-heap.reserved", offHeap, OffHeapTransactionStore::reservedBytes)
+                    .description("bytes reserved by the off-heap record slabs")
+                    .baseUnit(BaseUnits.BYTES)
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+
+    // declared as a DuplicateDetector, so the detector is not found among the MeterBinder beans by its type
+    @Bean
+    public MeterBinder duplicateDetectorMetrics(DuplicateDetector duplicateDetector) {
+        return registry -> {
+            if (duplicateDetector instanceof MeterBinder binder) {
+                binder.bindTo(registry);
+            }
+        };
+    }
+}
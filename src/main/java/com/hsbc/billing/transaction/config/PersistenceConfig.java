@@ -0,0 +1,27 @@
+package com.hsbc.billing.transaction.config;
+
+import com.hsbc.billing.transaction.repository.wal.WalSyncMode;
+import com.hsbc.billing.transaction.repository.wal.WriteAheadLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * @author Nickel Fang 2025/5/9
+ */
+@Configuration
+@ConditionalOnProperty(name = "transaction.persistence.enabled", havingValue = "true")
+public class PersistenceConfig {
+
+    @Bean
+    public WriteAheadLog writeAheadLog(@Value("${transaction.persistence.dir}") Path dir,
+            @Value("${transaction.persistence.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${transaction.persistence.sync:GROUP}") WalSyncMode syncMode,
+            @Value("${transaction.persistence.flush-interval-ms:10}") long flushIntervalMillis,
+            @Value("${transaction.persistence.snapshot-interval-records:1000000}") long snapshotIntervalRecords) {
+        return new WriteAheadLog(dir, segmentSizeMb << 20, syncMode, flushIntervalMillis, snapshotIntervalRecords);
+    }
+}
@@ -0,0 +1,85 @@
+package com.hsbc.billing.transaction.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.billing.transaction.controller.ReactiveTransactionRouter;
+import com.hsbc.billing.transaction.dedup.DuplicateStoreMode;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.repository.wal.WalSyncMode;
+import com.hsbc.billing.transaction.service.ReactiveTransactionService;
+import com.hsbc.billing.transaction.service.TransactionService;
+import com.hsbc.billing.transaction.service.impl.ReactiveTransactionServiceImpl;
+import com.hsbc.billing.transaction.stats.TransactionStatistics;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Serves /api/v3 on its own Netty server next to Tomcat: one Spring Boot application is either servlet or reactive,
+ * so the reactive routes get a handler and a server of their own while sharing every other bean.
+ * <p>
+ * A replication follower does not start it: its writes would land in the replica instead of on the leader.
+ *
+ * @author Nickel Fang 2025/5/20
+ */
+@Configuration
+@ConditionalOnExpression("${transaction.reactive.enabled:false} and '${transaction.replication.role:}' != 'FOLLOWER'")
+@Slf4j
+public class ReactiveServerConfig {
+
+    // writes that can wait on the group commit or the shared duplicate store get a virtual thread each
+    @Bean(destroyMethod = "dispose")
+    public Scheduler reactiveWriteScheduler(@Value("${transaction.persistence.enabled:false}") boolean persistent,
+            @Value("${transaction.persistence.sync:GROUP}") WalSyncMode syncMode,
+            @Value("${transaction.duplicate-check.store:LOCAL}") DuplicateStoreMode storeMode) {
+        return persistent && syncMode == WalSyncMode.GROUP || storeMode == DuplicateStoreMode.SHARED
+                ? Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "reactive-writes")
+                : Schedulers.immediate();
+    }
+
+    @Bean
+    public ReactiveTransactionService reactiveTransactionService(TransactionService transactionService,
+            TransactionRepository transactionRepository, ObjectMapper objectMapper, Scheduler reactiveWriteScheduler) {
+        return new ReactiveTransactionServiceImpl(transactionService, transactionRepository, objectMapper, reactiveWriteScheduler);
+    }
+
+    @Bean
+    public ReactiveTransactionRouter reactiveTransactionRouter(ReactiveTransactionService reactiveTransactionService,
+            TransactionStatistics transactionStatistics, Validator validator,
+            @Value("${transaction.batch.max-size:1000}") int maxBatchSize, @Value("${transaction.page.max-size:1000}") int maxPageSize) {
+        return new ReactiveTransactionRouter(reactiveTransactionService, transactionStatistics, validator, maxBatchSize, maxPageSize);
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveServer(ReactiveTransactionRouter router, ObjectMapper objectMapper,
+            @Value("${transaction.reactive.port:8081}") int port) {
+        // the application ObjectMapper, so v3 writes the same JSON as v2
+        final HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        final HttpHandler handler = RouterFunctions.toHttpHandler(router.routes(), strategies);
+        final DisposableServer server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+        log.info("Reactive transaction API started on port {}", server.port());
+        return server;
+    }
+}
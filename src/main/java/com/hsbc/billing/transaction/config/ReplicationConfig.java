@@ -0,0 +1,73 @@
+package com.hsbc.billing.transaction.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.billing.transaction.cluster.PeerClient;
+import com.hsbc.billing.transaction.replication.ReplicaRequestInterceptor;
+import com.hsbc.billing.transaction.replication.ReplicationFollower;
+import com.hsbc.billing.transaction.replication.ReplicationLeader;
+import com.hsbc.billing.transaction.replication.ReplicationLog;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * @author Nickel Fang 2025/5/28
+ */
+@Configuration
+public class ReplicationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "transaction.replication.role", havingValue = "LEADER")
+    public ReplicationLog replicationLog(@Value("${transaction.replication.backlog:65536}") int backlog) {
+        return new ReplicationLog(backlog);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "transaction.replication.role", havingValue = "LEADER")
+    public ReplicationLeader replicationLeader(ReplicationLog replicationLog, TransactionRepository transactionRepository,
+            @Value("${transaction.replication.port:7070}") int port,
+            @Value("${transaction.replication.heartbeat-ms:100}") long heartbeatMillis) {
+        final ReplicationLeader leader = new ReplicationLeader(replicationLog, transactionRepository, port, heartbeatMillis);
+        leader.open();
+        return leader;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "transaction.replication.role", havingValue = "FOLLOWER")
+    public ReplicationFollower replicationFollower(TransactionRepository transactionRepository,
+            @Value("${transaction.replication.leader.host}") String host,
+            @Value("${transaction.replication.leader.port:7070}") int port,
+            @Value("${transaction.replication.timeout-ms:3000}") int timeoutMillis,
+            @Value("${transaction.replication.max-lag-ms:5000}") long maxLagMillis) {
+        final ReplicationFollower follower = new ReplicationFollower(transactionRepository, host, port, timeoutMillis, maxLagMillis);
+        follower.open();
+        return follower;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "transaction.replication.role", havingValue = "FOLLOWER")
+    public PeerClient leaderClient(ObjectMapper objectMapper, @Value("${transaction.replication.timeout-ms:3000}") long timeoutMillis) {
+        return new PeerClient(objectMapper, Duration.ofMillis(timeoutMillis));
+    }
+
+    // reads are served from the replica within the lag bound, writes are proxied to the leader
+    @Bean
+    @ConditionalOnProperty(name = "transaction.replication.role", havingValue = "FOLLOWER")
+    public WebMvcConfigurer replicaRouting(ReplicationFollower replicationFollower, PeerClient leaderClient,
+            @Value("${transaction.replication.leader.url}") URI leaderUrl) {
+        final ReplicaRequestInterceptor interceptor = new ReplicaRequestInterceptor(replicationFollower, leaderClient, leaderUrl);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/v2/transactions", "/api/v2/transactions/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.hsbc.billing.transaction.config;
+
+import com.hsbc.billing.transaction.repository.CompactTransactionStore;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.ShardedTransactionStore;
+import com.hsbc.billing.transaction.repository.StorageMode;
+import com.hsbc.billing.transaction.repository.TransactionStore;
+import com.hsbc.billing.transaction.repository.offheap.OffHeapTransactionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Nickel Fang 2025/5/9
+ */
+@Configuration
+public class RepositoryConfig {
+
+    @Bean
+    public TransactionStore transactionStore(@Value("${transaction.repository.storage:HEAP}") StorageMode storageMode,
+                                             @Value("${transaction.repository.shards:1}") int shards,
+                                             @Value("${transaction.repository.off-heap.slab-size-mb:64}") int slabSizeMb,
+                                             @Value("${transaction.repository.off-heap.initial-capacity:1048576}") int initialCapacity) {
+        if (shards == 1) {
+            return store(storageMode, slabSizeMb, initialCapacity);
+        }
+        return new ShardedTransactionStore(shards, shard -> store(storageMode, slabSizeMb, Math.max(1, initialCapacity / shards)));
+    }
+
+    private static TransactionStore store(StorageMode storageMode, int slabSizeMb, int initialCapacity) {
+        return switch (storageMode) {
+            case HEAP -> new HeapTransactionStore();
+            case COMPACT -> new CompactTransactionStore();
+            case OFF_HEAP -> new OffHeapTransactionStore(slabSizeMb << 20, initialCapacity);
+        };
+    }
+}
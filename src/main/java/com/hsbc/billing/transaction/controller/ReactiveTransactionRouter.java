@@ -0,0 +1,237 @@
+package com.hsbc.billing.transaction.controller;
+
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
+import com.hsbc.billing.transaction.exception.BatchSizeExceededException;
+import com.hsbc.billing.transaction.exception.PageSizeException;
+import com.hsbc.billing.transaction.exception.ClockMovedBackwardsException;
+import com.hsbc.billing.transaction.exception.TransactionDuplicatedException;
+import com.hsbc.billing.transaction.exception.TransactionNotFoundException;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.service.ReactiveTransactionService;
+import com.hsbc.billing.transaction.stats.StatsDimension;
+import com.hsbc.billing.transaction.stats.StatsWindow;
+import com.hsbc.billing.transaction.stats.TransactionStatistics;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+
+/**
+ * /api/v3/transactions on the reactive stack: the endpoints, parameters, status codes and error bodies of
+ * {@link TransactionController}, served by {@link ReactiveTransactionService}. Functional routes rather than annotated
+ * controllers, so the servlet dispatcher does not map them too.
+ * <p>
+ * A list requested with {@code Accept: application/x-ndjson} streams as it is read, without the
+ * {@value TransactionController#NEXT_CURSOR_HEADER} header: the id of the last line is the next cursor.
+ *
+ * @author Nickel Fang 2025/5/20
+ */
+public class ReactiveTransactionRouter {
+
+    public static final String BASE_PATH = "/api/v3/transactions";
+
+    private final ReactiveTransactionService transactionService;
+
+    private final TransactionStatistics transactionStatistics;
+
+    private final Validator validator;
+
+    private final int maxBatchSize;
+
+    private final int maxPageSize;
+
+    public ReactiveTransactionRouter(ReactiveTransactionService transactionService, TransactionStatistics transactionStatistics,
+            Validator validator, int maxBatchSize, int maxPageSize) {
+        this.transactionService = transactionService;
+        this.transactionStatistics = transactionStatistics;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .path(BASE_PATH, builder -> builder
+                        .POST("/batch", this::createTransactions)
+                        .GET("/export", this::exportTransactions)
+                        .POST("/import", contentType(MediaType.APPLICATION_NDJSON), this::importTransactions)
+                        .GET("/stats", this::getStatistics)
+                        .GET("/{id}", this::getTransaction)
+                        .PUT("/{id}", this::updateTransaction)
+                        .DELETE("/{id}", this::deleteTransaction)
+                        .POST("", this::createTransaction)
+                        .GET("", this::getAllTransactions))
+                .onError(TransactionNotFoundException.class, (e, request) -> error(HttpStatus.NOT_FOUND, e.getMessage()))
+                .onError(TransactionDuplicatedException.class, (e, request) -> error(HttpStatus.CONFLICT, e.getMessage()))
+                .onError(BatchSizeExceededException.class, (e, request) -> error(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .onError(PageSizeException.class, (e, request) -> error(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .onError(ClockMovedBackwardsException.class, (e, request) -> error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()))
+                .onError(ResponseStatusException.class, (e, request) -> error(e.getStatusCode(),
+                        e.getReason() == null ? e.getMessage() : e.getReason()))
+                // filters added earlier wrap the later ones, so an exception thrown by a handler becomes an error signal
+                // inside the error handlers above
+                .filter((request, next) -> Mono.defer(() -> next.handle(request)))
+                .build();
+    }
+
+    private Mono<ServerResponse> createTransaction(ServerRequest request) {
+        return validBody(request)
+                .flatMap(transactionService::createTransaction)
+                .flatMap(created -> ServerResponse.status(HttpStatus.CREATED).bodyValue(created));
+    }
+
+    // items are validated one by one in the service, so an invalid item is reported instead of rejecting the batch
+    private Mono<ServerResponse> createTransactions(ServerRequest request) {
+        return request.bodyToFlux(TransactionRequest.class)
+                .collectList()
+                .flatMap(transactionRequests -> {
+                    if (transactionRequests.size() > maxBatchSize) {
+                        return Mono.error(new BatchSizeExceededException(transactionRequests.size(), maxBatchSize));
+                    }
+                    return transactionService.createTransactions(transactionRequests);
+                })
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    // from/to restrict the export to the transactions created in that window, each line is written as the client reads
+    private Mono<ServerResponse> exportTransactions(ServerRequest request) {
+        final LocalDateTime from = param(request, "from", ReactiveTransactionRouter::dateTime, null);
+        final LocalDateTime to = param(request, "to", ReactiveTransactionRouter::dateTime, null);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(transactionService.exportTransactions(from, to), Transaction.class);
+    }
+
+    private Mono<ServerResponse> importTransactions(ServerRequest request) {
+        return transactionService.importTransactions(request.bodyToFlux(String.class))
+                .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    // previous=true returns the last complete window instead of the one in progress
+    private Mono<ServerResponse> getStatistics(ServerRequest request) {
+        final StatsWindow window = param(request, "window", StatsWindow::valueOf, StatsWindow.ALL);
+        final StatsDimension dimension = param(request, "dimension", StatsDimension::valueOf, StatsDimension.CURRENCY);
+        final boolean previous = param(request, "previous", Boolean::parseBoolean, false);
+        return ServerResponse.ok().bodyValue(transactionStatistics.snapshot(window, dimension, previous));
+    }
+
+    private Mono<ServerResponse> getTransaction(ServerRequest request) {
+        return transactionService.getTransaction(id(request))
+                .flatMap(transaction -> ServerResponse.ok().bodyValue(transaction));
+    }
+
+    // the same page/size, after/limit and filter parameters as v2
+    private Mono<ServerResponse> getAllTransactions(ServerRequest request) {
+        final int page = param(request, "page", Integer::valueOf, 1);
+        final int size = param(request, "size", Integer::valueOf, 10);
+        final Long after = param(request, "after", Long::valueOf, null);
+        final Integer limit = param(request, "limit", Integer::valueOf, null);
+        final TransactionSearchCriteria criteria = TransactionSearchCriteria.builder()
+                .sender(param(request, "sender", Function.identity(), null))
+                .receiver(param(request, "receiver", Function.identity(), null))
+                .channel(param(request, "channel", Function.identity(), null))
+                .status(param(request, "status", TransactionStatus::valueOf, null))
+                .from(param(request, "from", ReactiveTransactionRouter::dateTime, null))
+                .to(param(request, "to", ReactiveTransactionRouter::dateTime, null))
+                .build();
+
+        final boolean paged = after == null && limit == null && criteria.isEmpty();
+        final int pageLimit = limit == null ? size : limit;
+        if (pageLimit < 1 || pageLimit > maxPageSize) {
+            return Mono.error(new PageSizeException(limit == null ? "size" : "limit", pageLimit, maxPageSize));
+        }
+        final Flux<TransactionResponse> transactions = paged ? transactionService.getAllTransactions(page, size)
+                : criteria.isEmpty() ? transactionService.getTransactionsAfter(after, pageLimit)
+                : transactionService.searchTransactions(criteria, after, pageLimit);
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(transactions, TransactionResponse.class);
+        }
+        return transactions.collectList().flatMap(list -> {
+            if (paged || list.isEmpty() || list.size() < pageLimit) {
+                return ServerResponse.ok().bodyValue(list);
+            }
+            return ServerResponse.ok()
+                    .header(TransactionController.NEXT_CURSOR_HEADER, String.valueOf(list.get(list.size() - 1).getId()))
+                    .bodyValue(list);
+        });
+    }
+
+    private Mono<ServerResponse> updateTransaction(ServerRequest request) {
+        final Long id = id(request);
+        return validBody(request)
+                .flatMap(transactionRequest -> transactionService.updateTransaction(id, transactionRequest))
+                .flatMap(updated -> ServerResponse.ok().bodyValue(updated));
+    }
+
+    private Mono<ServerResponse> deleteTransaction(ServerRequest request) {
+        return transactionService.deleteTransaction(id(request))
+                .then(ServerResponse.noContent().build());
+    }
+
+    private Mono<TransactionRequest> validBody(ServerRequest request) {
+        return request.bodyToMono(TransactionRequest.class)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is required")))
+                .handle((transactionRequest, sink) -> {
+                    final Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(transactionRequest);
+                    if (violations.isEmpty()) {
+                        sink.next(transactionRequest);
+                        return;
+                    }
+                    sink.error(new ServerWebInputException(violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("\n"))));
+                });
+    }
+
+    private static Long id(ServerRequest request) {
+        final String id = request.pathVariable("id");
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Invalid transaction id " + id);
+        }
+    }
+
+    private static <T> T param(ServerRequest request, String name, Function<String, T> parser, T defaultValue) {
+        final List<String> values = request.queryParams().get(name);
+        if (values == null || values.isEmpty() || values.get(0).isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return parser.apply(values.get(0));
+        } catch (RuntimeException e) {
+            throw new ServerWebInputException("Invalid value of parameter " + name + ": " + values.get(0));
+        }
+    }
+
+    // the ISO date time accepted by @DateTimeFormat(iso = DATE_TIME) on the v2 parameters
+    private static LocalDateTime dateTime(String value) {
+        return LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME);
+    }
+
+    private static Mono<ServerResponse> error(HttpStatusCode status, String message) {
+        return ServerResponse.status(status).contentType(MediaType.TEXT_PLAIN).bodyValue(message);
+    }
+}
@@ -1,22 +1,47 @@
 package com.hsbc.billing.transaction.controller;
 
+import com.hsbc.billing.transaction.cache.EncodedTransaction;
+import com.hsbc.billing.transaction.cache.EncodedTransactionCache;
+import com.hsbc.billing.transaction.cluster.ClusterRoutingInterceptor;
+import com.hsbc.billing.transaction.cluster.ClusterScatterGather;
+import com.hsbc.billing.transaction.dto.BatchCreateResponse;
+import com.hsbc.billing.transaction.dto.ImportResult;
 import com.hsbc.billing.transaction.dto.TransactionRequest;
 import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
+import com.hsbc.billing.transaction.dto.TransactionStatsResponse;
+import com.hsbc.billing.transaction.exception.BatchSizeExceededException;
+import com.hsbc.billing.transaction.exception.PageSizeException;
+import com.hsbc.billing.transaction.service.TransactionBulkService;
 import com.hsbc.billing.transaction.service.TransactionService;
+import com.hsbc.billing.transaction.stats.StatsDimension;
+import com.hsbc.billing.transaction.stats.StatsWindow;
+import com.hsbc.billing.transaction.stats.TransactionStatistics;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -26,25 +51,141 @@ import java.util.List;
 @RequestMapping("/api/v2/transactions")
 public class TransactionController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-After";
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionBulkService transactionBulkService;
+
+    @Autowired
+    private TransactionStatistics transactionStatistics;
+
+    // null when transaction.cache.json.enabled is false
+    @Autowired(required = false)
+    private EncodedTransactionCache encodedTransactionCache;
+
+    // null unless transaction.cluster.enabled
+    @Autowired(required = false)
+    private ClusterScatterGather clusterScatterGather;
+
+    @Value("${transaction.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${transaction.page.max-size:1000}")
+    private int maxPageSize;
+
     @PostMapping
     public ResponseEntity<TransactionResponse> createTransaction(@RequestBody @Valid TransactionRequest transactionRequest) {
         final TransactionResponse created = transactionService.createTransaction(transactionRequest);
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    // items are validated one by one in the service, so an invalid item is reported instead of rejecting the batch
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateResponse> createTransactions(@RequestBody List<TransactionRequest> transactionRequests) {
+        if (transactionRequests.size() > maxBatchSize) {
+            throw new BatchSizeExceededException(transactionRequests.size(), maxBatchSize);
+        }
+        return ResponseEntity.ok(transactionService.createTransactions(transactionRequests));
+    }
+
+    // from/to restrict the export to the transactions created in that window, e.g. for a reconciliation run
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        final StreamingResponseBody body = from == null && to == null
+                ? out -> transactionBulkService.exportTransactions(out)
+                : out -> transactionBulkService.exportTransactions(out, from, to);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResult> importTransactions(InputStream body) throws IOException {
+        return ResponseEntity.ok(transactionBulkService.importTransactions(body));
+    }
+
+    // previous=true returns the last complete window instead of the one in progress
+    @GetMapping("/stats")
+    public ResponseEntity<TransactionStatsResponse> getStatistics(@RequestParam(defaultValue = "ALL") StatsWindow window,
+            @RequestParam(defaultValue = "CURRENCY") StatsDimension dimension, @RequestParam(defaultValue = "false") boolean previous) {
+        return ResponseEntity.ok(transactionStatistics.snapshot(window, dimension, previous));
+    }
+
+    // JSON is served from the encoded cache with its ETag, a matching If-None-Match gets a 304 without a body
     @GetMapping("/{id}")
-    public ResponseEntity<TransactionResponse> getTransaction(@PathVariable Long id) {
-        return ResponseEntity.ok(transactionService.getTransaction(id));
+    public ResponseEntity<?> getTransaction(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (encodedTransactionCache == null || !acceptsJson(accept)) {
+            return ResponseEntity.ok(transactionService.getTransaction(id));
+        }
+        final EncodedTransaction encoded = encodedTransactionCache.get(id, transactionService::getTransaction);
+        return ResponseEntity.ok()
+                .eTag(encoded.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(encoded.json());
     }
 
+    // whether content negotiation would pick JSON: the most specific range of the highest quality that includes one of
+    // the representations decides, JSON first on a tie like */*
+    private static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        final List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_CBOR)) {
+                return false;
+            }
+        }
+        return false;
+    }
 
+    // page/size is kept for the existing clients, after/limit switches to the cursor pagination which is stable under concurrent writes,
+    // any of sender/receiver/channel/status/from/to filters with the same cursor pagination
+    // in a cluster, the pages of every member merged in id order unless a peer asks for the page of this instance
     @GetMapping
     public ResponseEntity<List<TransactionResponse>> getAllTransactions(@RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(transactionService.getAllTransactions(page, size));
+            @RequestParam(defaultValue = "10") int size, @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit, TransactionSearchCriteria criteria, HttpServletRequest request) {
+        final int pageLimit = limit == null ? size : limit;
+        checkPageSize(limit == null ? "size" : "limit", pageLimit);
+        final boolean gather = clusterScatterGather != null && !ClusterRoutingInterceptor.isForwarded(request);
+        if (after == null && limit == null && criteria.isEmpty()) {
+            if (gather) {
+                // every member returns the pages before the requested one as well
+                checkPageSize("page * size", (long) Math.max(1, page) * size);
+                return ResponseEntity.ok(clusterScatterGather.page(request, page, size, transactionService::getAllTransactions));
+            }
+            return ResponseEntity.ok(transactionService.getAllTransactions(page, size));
+        }
+        final List<TransactionResponse> local = criteria.isEmpty()
+                ? transactionService.getTransactionsAfter(after, pageLimit)
+                : transactionService.searchTransactions(criteria, after, pageLimit);
+        final List<TransactionResponse> transactions = gather ? clusterScatterGather.first(request, local, pageLimit) : local;
+        if (transactions.isEmpty() || transactions.size() < pageLimit) {
+            return ResponseEntity.ok(transactions);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(transactions.get(transactions.size() - 1).getId()))
+                .body(transactions);
+    }
+
+    private void checkPageSize(String parameter, long value) {
+        if (value < 1 || value > maxPageSize) {
+            throw new PageSizeException(parameter, value, maxPageSize);
+        }
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,51 @@
+package com.hsbc.billing.transaction.dedup;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+
+/**
+ * Remembers the {@link FeatureFingerprint} of every accepted request for one window. The check and the insert are a
+ * single {@code putIfAbsent}, so of two concurrent identical requests exactly one is accepted.
+ *
+ * @author Nickel Fang 2025/5/15
+ */
+public class CaffeineDuplicateDetector implements DuplicateDetector, MeterBinder {
+
+    private final Cache<FeatureFingerprint, Boolean> fingerprints;
+
+    public CaffeineDuplicateDetector(Duration window, long maximumSize) {
+        this(window, maximumSize, Ticker.systemTicker());
+    }
+
+    public CaffeineDuplicateDetector(Duration window, long maximumSize, Ticker ticker) {
+        this.fingerprints = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    // a duplicate does not extend the window of the first request
+    @Override
+    public boolean isDuplicate(TransactionRequest transactionRequest) {
+        return fingerprints.asMap().putIfAbsent(FeatureFingerprint.of(transactionRequest), Boolean.TRUE) != null;
+    }
+
+    public long size() {
+        return fingerprints.estimatedSize();
+    }
+
+    // evictions before the end of the window mean maximum-size is too small to catch every duplicate
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, fingerprints, "duplicate-fingerprints");
+    }
+}
@@ -0,0 +1,31 @@
+package com.hsbc.billing.transaction.dedup;
+
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+
+import java.util.List;
+
+/**
+ * Decides whether a transaction request repeats the features of a request accepted within the duplicate window.
+ * Checking a request also records it, so of two concurrent identical requests exactly one is accepted.
+ *
+ * @author Nickel Fang 2025/5/16
+ */
+public interface DuplicateDetector {
+
+    /**
+     * records the features of the request and returns whether they were already recorded within the window
+     */
+    boolean isDuplicate(TransactionRequest transactionRequest);
+
+    /**
+     * {@link #isDuplicate} for every request in order, a later request repeating an earlier one of the same list is
+     * duplicated
+     */
+    default boolean[] areDuplicates(List<TransactionRequest> transactionRequests) {
+        final boolean[] duplicates = new boolean[transactionRequests.size()];
+        for (int i = 0; i < duplicates.length; i++) {
+            duplicates[i] = isDuplicate(transactionRequests.get(i));
+        }
+        return duplicates;
+    }
+}
@@ -0,0 +1,11 @@
+package com.hsbc.billing.transaction.dedup;
+
+/**
+ * @author Nickel Fang 2025/5/16
+ */
+public enum DuplicateStoreMode {
+    // fingerprints in a Caffeine cache of this JVM, see CaffeineDuplicateDetector
+    LOCAL,
+    // fingerprints in a Redis compatible store shared by every replica, see SharedDuplicateDetector
+    SHARED
+}
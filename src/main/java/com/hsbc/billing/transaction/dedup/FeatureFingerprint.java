@@ -0,0 +1,130 @@
+package com.hsbc.billing.transaction.dedup;
+
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 128 bit MurmurHash3 (x64) fingerprint of the duplicate check features of a request: sender account, receiver account,
+ * amount and currency. The fields are fed to the hash directly instead of being joined into
+ * {@link TransactionRequest#getFeatureInfo()}, every string is prefixed with its length and the amount is hashed as
+ * unscaled value and scale, so two requests share a fingerprint exactly when their feature infos are equal, barring a
+ * 2^-128 collision.
+ *
+ * @author Nickel Fang 2025/5/15
+ */
+public record FeatureFingerprint(long high, long low) {
+
+    private static final long NULL = 0x9E3779B97F4A7C15L;
+
+    public static FeatureFingerprint of(TransactionRequest transactionRequest) {
+        final Murmur3 hash = new Murmur3();
+        hash.putString(transactionRequest.getSenderAccount());
+        hash.putString(transactionRequest.getReceiverAccount());
+        hash.putAmount(transactionRequest.getAmount());
+        hash.putString(transactionRequest.getCurrency());
+        return hash.finish();
+    }
+
+    // streaming form of murmur3_x64_128, consumes the input as 64 bit words
+    private static final class Murmur3 {
+
+        private static final long C1 = 0x87c37b91114253d5L;
+        private static final long C2 = 0x4cf5ad432745937fL;
+
+        private long h1;
+        private long h2;
+        private long pending;
+        private boolean hasPending;
+        private long length;
+
+        void putString(String value) {
+            if (value == null) {
+                putLong(NULL);
+                return;
+            }
+            final int size = value.length();
+            putLong(size);
+            for (int i = 0; i < size; i += 4) {
+                long word = 0;
+                for (int j = i; j < Math.min(i + 4, size); j++) {
+                    word = (word << 16) | value.charAt(j);
+                }
+                putLong(word);
+            }
+        }
+
+        void putAmount(BigDecimal amount) {
+            if (amount == null) {
+                putLong(NULL);
+                return;
+            }
+            putLong(amount.scale());
+            final BigInteger unscaled = amount.unscaledValue();
+            if (unscaled.bitLength() < Long.SIZE) {
+                putLong(unscaled.longValue());
+                return;
+            }
+            final byte[] bytes = unscaled.toByteArray();
+            putLong(bytes.length);
+            for (int i = 0; i < bytes.length; i += 8) {
+                long word = 0;
+                for (int j = i; j < Math.min(i + 8, bytes.length); j++) {
+                    word = (word << 8) | (bytes[j] & 0xFF);
+                }
+                putLong(word);
+            }
+        }
+
+        void putLong(long word) {
+            length += Long.BYTES;
+            if (!hasPending) {
+                pending = word;
+                hasPending = true;
+                return;
+            }
+            hasPending = false;
+            h1 ^= mixK1(pending);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(word);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        FeatureFingerprint finish() {
+            if (hasPending) {
+                h1 ^= mixK1(pending);
+            }
+            h1 ^= length;
+            h2 ^= length;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix(h1);
+            h2 = fmix(h2);
+            h1 += h2;
+            h2 += h1;
+            return new FeatureFingerprint(h1, h2);
+        }
+
+        private static long mixK1(long k1) {
+            return Long.rotateLeft(k1 * C1, 31) * C2;
+        }
+
+        private static long mixK2(long k2) {
+            return Long.rotateLeft(k2 * C2, 33) * C1;
+        }
+
+        private static long fmix(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
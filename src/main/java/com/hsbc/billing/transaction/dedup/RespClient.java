@@ -0,0 +1,309 @@
+package com.hsbc.billing.transaction.dedup;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Minimal pipelined client of the Redis serialization protocol (RESP2) over a single connection.
+ * <p>
+ * Callers enqueue the encoded command, then the caller that gets the write lock writes everything queued so far and
+ * flushes it at once, while callers finding the lock held return immediately. A reader thread completes the replies in
+ * the order the commands were written, so concurrent callers share one write and one round trip instead of one each.
+ * Replies are {@link String} for simple strings and bulk strings, {@link Long} for integers, {@link List} for arrays
+ * and {@code null} for nil. When the connection is lost every command in flight fails, and connecting again is
+ * attempted at most once per second, failing commands immediately in between.
+ *
+ * @author Nickel Fang 2025/5/16
+ */
+@Slf4j
+public class RespClient implements Closeable {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String host;
+    private final int port;
+    private final Queue<Command> outbound = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean running = true;
+
+    // guarded by writeLock
+    private Connection connection;
+    private long nextConnectNanos;
+
+    public RespClient(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public CompletableFuture<Object> send(String... args) {
+        final Command command = new Command(encode(args), new CompletableFuture<>());
+        if (!running) {
+            command.reply.completeExceptionally(new IOException("RESP client to " + host + ":" + port + " is closed"));
+            return command.reply;
+        }
+        outbound.add(command);
+        flush();
+        return command.reply;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        writeLock.lock();
+        try {
+            if (connection != null) {
+                connection.close(new IOException("RESP client to " + host + ":" + port + " is closed"));
+            }
+            final List<Command> pending = new ArrayList<>();
+            drain(pending);
+            fail(pending, new IOException("RESP client to " + host + ":" + port + " is closed"));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // whoever holds the lock writes everything queued so far, a caller finding it held leaves its command to the holder
+    private void flush() {
+        final List<Command> batch = new ArrayList<>();
+        while (!outbound.isEmpty() && writeLock.tryLock()) {
+            try {
+                drain(batch);
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            batch.clear();
+        }
+    }
+
+    private void drain(List<Command> batch) {
+        Command command;
+        while ((command = outbound.poll()) != null) {
+            batch.add(command);
+        }
+    }
+
+    private void write(List<Command> batch) {
+        final Connection connection = connection();
+        if (connection == null) {
+            fail(batch, new IOException("Not connected to " + host + ":" + port));
+            return;
+        }
+        try {
+            connection.enqueue(batch);
+            for (Command command : batch) {
+                connection.out.write(command.bytes);
+            }
+            connection.out.flush();
+        } catch (IOException e) {
+            connection.close(e);
+        }
+    }
+
+    private Connection connection() {
+        if (connection != null && !connection.closed) {
+            return connection;
+        }
+        if (System.nanoTime() < nextConnectNanos) {
+            return null;
+        }
+        try {
+            final Socket socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            connection = new Connection(socket);
+            final Thread reader = new Thread(connection::readLoop, "resp-reader-" + host + ":" + port);
+            reader.setDaemon(true);
+            reader.start();
+            log.info("Connected to RESP server {}:{}", host, port);
+            return connection;
+        } catch (IOException e) {
+            log.warn("Failed to connect to RESP server {}:{}: {}", host, port, e.toString());
+            nextConnectNanos = System.nanoTime() + RECONNECT_BACKOFF_NANOS;
+            return null;
+        }
+    }
+
+    private static void fail(List<Command> commands, IOException cause) {
+        for (Command command : commands) {
+            command.reply.completeExceptionally(cause);
+        }
+    }
+
+    static byte[] encode(String... args) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(16 + args.length * 32);
+        writeHeader(out, '*', args.length);
+        for (String arg : args) {
+            final byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+            writeHeader(out, '$', bytes.length);
+            out.writeBytes(bytes);
+            out.write('\r');
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeHeader(ByteArrayOutputStream out, char type, int length) {
+        out.write(type);
+        out.writeBytes(Integer.toString(length).getBytes(StandardCharsets.US_ASCII));
+        out.write('\r');
+        out.write('\n');
+    }
+
+    /**
+     * reads one reply, an error reply is returned as {@link IllegalStateException}
+     */
+    static Object readReply(InputStream in) throws IOException {
+        final int type = in.read();
+        if (type < 0) {
+            throw new EOFException("RESP connection closed");
+        }
+        final String line = readLine(in);
+        switch (type) {
+            case '+':
+                return line;
+            case '-':
+                return new IllegalStateException(line);
+            case ':':
+                return Long.parseLong(line);
+            case '$': {
+                final int length = Integer.parseInt(line);
+                if (length < 0) {
+                    return null;
+                }
+                final byte[] bytes = in.readNBytes(length);
+                if (bytes.length < length || in.read() != '\r' || in.read() != '\n') {
+                    throw new EOFException("Truncated RESP bulk string");
+                }
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case '*': {
+                final int length = Integer.parseInt(line);
+                if (length < 0) {
+                    return null;
+                }
+                final List<Object> elements = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    elements.add(readReply(in));
+                }
+                return elements;
+            }
+            default:
+                throw new IOException("Unknown RESP type " + (char) type);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new EOFException("RESP connection closed");
+            }
+            line.append((char) b);
+        }
+        if (in.read() != '\n') {
+            throw new IOException("Malformed RESP line " + line);
+        }
+        return line.toString();
+    }
+
+    private record Command(byte[] bytes, CompletableFuture<Object> reply) {
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final BufferedOutputStream out;
+        private final BufferedInputStream in;
+        // replies not read yet, in the order the commands were written
+        private final Queue<CompletableFuture<Object>> inFlight = new ConcurrentLinkedQueue<>();
+        // guards closed against enqueue
+        private final ReentrantLock stateLock = new ReentrantLock();
+        private volatile boolean closed;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+            this.in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+        }
+
+        // nothing is enqueued once closed, so close drains every reply that will never be read
+        void enqueue(List<Command> batch) throws IOException {
+            stateLock.lock();
+            try {
+                if (closed) {
+                    throw new IOException("Connection to " + host + ":" + port + " is closed");
+                }
+                for (Command command : batch) {
+                    inFlight.add(command.reply);
+                }
+            } finally {
+                stateLock.unlock();
+            }
+        }
+
+        void readLoop() {
+            try {
+                while (!closed) {
+                    final Object reply = readReply(in);
+                    final CompletableFuture<Object> future = inFlight.poll();
+                    if (future == null) {
+                        throw new IOException("Unexpected RESP reply " + reply);
+                    }
+                    if (reply instanceof IllegalStateException error) {
+                        future.completeExceptionally(error);
+                    } else {
+                        future.complete(reply);
+                    }
+                }
+            } catch (IOException e) {
+                close(e);
+            }
+        }
+
+        void close(IOException cause) {
+            stateLock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            } finally {
+                stateLock.unlock();
+            }
+            if (running) {
+                log.warn("Lost connection to RESP server {}:{}: {}", host, port, cause.toString());
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close RESP socket", e);
+            }
+            CompletableFuture<Object> future;
+            while ((future = inFlight.poll()) != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.hsbc.billing.transaction.dedup;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Duplicate detection shared by every replica through a Redis compatible store, with a near-cache in front.
+ * <p>
+ * A request is first claimed in the near-cache of this JVM, a fingerprint already there is a duplicate without a round
+ * trip. Only the local winner claims the fingerprint in the store with {@code SET key 1 NX PX window}, pipelined with a
+ * {@code PTTL} of the same key. When another replica holds the key the request is duplicated and the near-cache entry
+ * expires together with the key in the store. The requests of a batch are all written before the first reply is
+ * awaited. If the store does not answer within the timeout the local decision stands, so an outage of the store
+ * degrades to the per-JVM check rather than failing creates.
+ *
+ * @author Nickel Fang 2025/5/16
+ */
+@Slf4j
+public class SharedDuplicateDetector implements DuplicateDetector, MeterBinder, Closeable {
+
+    private static final long WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final RespClient client;
+    private final String keyPrefix;
+    private final long windowNanos;
+    private final String windowMillis;
+    private final long timeoutNanos;
+    // value is the time to live of the entry in nanoseconds
+    private final Cache<FeatureFingerprint, Long> nearCache;
+    private volatile long lastWarnNanos;
+
+    public SharedDuplicateDetector(RespClient client, String keyPrefix, Duration window, long nearCacheSize, Duration timeout) {
+        this(client, keyPrefix, window, nearCacheSize, timeout, Ticker.systemTicker());
+    }
+
+    public SharedDuplicateDetector(RespClient client, String keyPrefix, Duration window, long nearCacheSize, Duration timeout,
+            Ticker ticker) {
+        this.client = client;
+        this.keyPrefix = keyPrefix;
+        this.windowNanos = window.toNanos();
+        this.windowMillis = Long.toString(window.toMillis());
+        this.timeoutNanos = timeout.toNanos();
+        this.nearCache = Caffeine.newBuilder()
+                .expireAfter(new Expiry<FeatureFingerprint, Long>() {
+                    @Override
+                    public long expireAfterCreate(FeatureFingerprint key, Long ttlNanos, long currentTime) {
+                        return ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(FeatureFingerprint key, Long ttlNanos, long currentTime, long currentDuration) {
+                        return ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(FeatureFingerprint key, Long ttlNanos, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(nearCacheSize)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.lastWarnNanos = System.nanoTime() - WARN_INTERVAL_NANOS;
+    }
+
+    @Override
+    public boolean isDuplicate(TransactionRequest transactionRequest) {
+        return areDuplicates(List.of(transactionRequest))[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean[] areDuplicates(List<TransactionRequest> transactionRequests) {
+        final int size = transactionRequests.size();
+        final boolean[] duplicates = new boolean[size];
+        final FeatureFingerprint[] fingerprints = new FeatureFingerprint[size];
+        final CompletableFuture<Object>[] claims = new CompletableFuture[size];
+        final CompletableFuture<Object>[] ttls = new CompletableFuture[size];
+        for (int i = 0; i < size; i++) {
+            fingerprints[i] = FeatureFingerprint.of(transactionRequests.get(i));
+            if (nearCache.asMap().putIfAbsent(fingerprints[i], windowNanos) != null) {
+                duplicates[i] = true;
+                continue;
+            }
+            final String key = key(fingerprints[i]);
+            claims[i] = client.send("SET", key, "1", "NX", "PX", windowMillis);
+            ttls[i] = client.send("PTTL", key);
+        }
+
+        final long deadline = System.nanoTime() + timeoutNanos;
+        for (int i = 0; i < size; i++) {
+            if (claims[i] == null) {
+                continue;
+            }
+            try {
+                if (claims[i].get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS) == null) {
+                    duplicates[i] = true;
+                    expireWithStore(fingerprints[i], ttls[i].get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+                }
+            } catch (ExecutionException | TimeoutException e) {
+                warnLocalDecision(e instanceof ExecutionException ? e.getCause() : e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                warnLocalDecision(e);
+            }
+        }
+        return duplicates;
+    }
+
+    public long nearCacheSize() {
+        return nearCache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, nearCache, "duplicate-near-cache");
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    private String key(FeatureFingerprint fingerprint) {
+        return keyPrefix + HEX.toHexDigits(fingerprint.high()) + HEX.toHexDigits(fingerprint.low());
+    }
+
+    // the key of another replica expires earlier than our own window would
+    private void expireWithStore(FeatureFingerprint fingerprint, Object ttlMillis) {
+        if (ttlMillis instanceof Long millis && millis > 0) {
+            nearCache.asMap().replace(fingerprint, TimeUnit.MILLISECONDS.toNanos(millis));
+        } else {
+            nearCache.invalidate(fingerprint);
+        }
+    }
+
+    private void warnLocalDecision(Throwable cause) {
+        final long now = System.nanoTime();
+        if (now - lastWarnNanos >= WARN_INTERVAL_NANOS) {
+            lastWarnNanos = now;
+            log.warn("Duplicate store did not answer, falling back to the local duplicate check: {}", cause.toString());
+        }
+    }
+}
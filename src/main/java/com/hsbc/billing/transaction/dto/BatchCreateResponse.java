@@ -0,0 +1,22 @@
+package com.hsbc.billing.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author Nickel Fang 2025/5/12
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateResponse {
+
+    private int created;
+    private int duplicated;
+    private int invalid;
+    // one result per request, in request order
+    private List<BatchItemResult> results;
+}
@@ -0,0 +1,35 @@
+package com.hsbc.billing.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * outcome of one request of a batch, {@code index} is its position in the request list
+ *
+ * @author Nickel Fang 2025/5/12
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+
+    private int index;
+    private BatchItemStatus status;
+    // set when created
+    private Long id;
+    // set when invalid or duplicated
+    private String error;
+
+    public static BatchItemResult created(int index, long id) {
+        return new BatchItemResult(index, BatchItemStatus.CREATED, id, null);
+    }
+
+    public static BatchItemResult duplicate(int index, String error) {
+        return new BatchItemResult(index, BatchItemStatus.DUPLICATE, null, error);
+    }
+
+    public static BatchItemResult invalid(int index, String error) {
+        return new BatchItemResult(index, BatchItemStatus.INVALID, null, error);
+    }
+}
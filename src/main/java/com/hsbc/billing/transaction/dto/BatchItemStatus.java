@@ -0,0 +1,11 @@
+package com.hsbc.billing.transaction.dto;
+
+/**
+ * @author Nickel Fang 2025/5/12
+ */
+public enum BatchItemStatus {
+    CREATED,
+    // same feature info as a transaction created in the last minute, or earlier in the same batch
+    DUPLICATE,
+    INVALID
+}
@@ -0,0 +1,21 @@
+package com.hsbc.billing.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author Nickel Fang 2025/5/13
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+
+    private long imported;
+    private long rejected;
+    // "line n: reason" of the first rejected lines
+    private List<String> errors;
+}
@@ -0,0 +1,22 @@
+package com.hsbc.billing.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * @author Nickel Fang 2025/5/18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsEntry {
+
+    // value of the dimension, e.g. TRANSFER for the type
+    private String value;
+    private String currency;
+    private long count;
+    private BigDecimal amount;
+}
@@ -0,0 +1,38 @@
+package com.hsbc.billing.transaction.dto;
+
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of {@code GET /api/v2/transactions}, bound from the query parameters of the same names. {@code from} is
+ * inclusive and {@code to} exclusive, both bound the creation time of the transaction.
+ *
+ * @author Nickel Fang 2025/5/17
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSearchCriteria {
+
+    private String sender;
+    private String receiver;
+    private String channel;
+    private TransactionStatus status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    public boolean isEmpty() {
+        return sender == null && receiver == null && channel == null && status == null && from == null && to == null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hsbc.billing.transaction.dto;
+
+import com.hsbc.billing.transaction.stats.StatsDimension;
+import com.hsbc.billing.transaction.stats.StatsWindow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @author Nickel Fang 2025/5/18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatsResponse {
+
+    private StatsWindow window;
+    // bounds of the window by transaction creation time, null for ALL
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private StatsDimension dimension;
+    // transactions in the window
+    private long count;
+    private List<StatsEntry> entries;
+}
@@ -0,0 +1,11 @@
+package com.hsbc.billing.transaction.exception;
+
+/**
+ * @author Nickel Fang 2025/5/12
+ */
+public class BatchSizeExceededException extends RuntimeException {
+
+    public BatchSizeExceededException(int size, int maxSize) {
+        super("Batch of " + size + " transactions exceeds the limit of " + maxSize);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hsbc.billing.transaction.exception;
+
+/**
+ * @author Nickel Fang 2025/5/7
+ */
+public class ClockMovedBackwardsException extends RuntimeException {
+
+    public ClockMovedBackwardsException(long backwardMillis) {
+        super("Clock moved backwards by " + backwardMillis + " ms, refusing to generate id");
+    }
+}
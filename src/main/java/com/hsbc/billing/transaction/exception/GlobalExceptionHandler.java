@@ -26,6 +26,31 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(BatchSizeExceededException.class)
+    public ResponseEntity<String> handleBatchSizeExceeded(BatchSizeExceededException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PageSizeException.class)
+    public ResponseEntity<String> handlePageSize(PageSizeException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ClockMovedBackwardsException.class)
+    public ResponseEntity<String> handleClockMovedBackwards(ClockMovedBackwardsException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(PeerUnavailableException.class)
+    public ResponseEntity<String> handlePeerUnavailable(PeerUnavailableException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ReplicationLagException.class)
+    public ResponseEntity<String> handleReplicationLag(ReplicationLagException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(WebExchangeBindException.class)
     public ResponseEntity<String> handleIllegalArgument(WebExchangeBindException e) {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
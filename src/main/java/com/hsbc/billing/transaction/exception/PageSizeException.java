@@ -0,0 +1,11 @@
+package com.hsbc.billing.transaction.exception;
+
+/**
+ * @author Nickel Fang 2025/5/29
+ */
+public class PageSizeException extends RuntimeException {
+
+    public PageSizeException(String parameter, long value, int maxSize) {
+        super("Parameter " + parameter + " must be between 1 and " + maxSize + ": " + value);
+    }
+}
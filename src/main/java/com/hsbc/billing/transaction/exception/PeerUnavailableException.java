@@ -0,0 +1,17 @@
+package com.hsbc.billing.transaction.exception;
+
+import java.net.URI;
+
+/**
+ * @author Nickel Fang 2025/5/27
+ */
+public class PeerUnavailableException extends RuntimeException {
+
+    public PeerUnavailableException(URI peer, String reason) {
+        super("Cluster peer " + peer + " unavailable: " + reason);
+    }
+
+    public PeerUnavailableException(URI peer, Throwable cause) {
+        super("Cluster peer " + peer + " unavailable: " + cause, cause);
+    }
+}
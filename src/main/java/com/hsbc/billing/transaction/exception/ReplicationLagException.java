@@ -0,0 +1,13 @@
+package com.hsbc.billing.transaction.exception;
+
+/**
+ * @author Nickel Fang 2025/5/28
+ */
+public class ReplicationLagException extends RuntimeException {
+
+    public ReplicationLagException(long lagMillis, long maxLagMillis) {
+        super(lagMillis == Long.MAX_VALUE
+                ? "Replica has not synchronized with the leader yet"
+                : "Replica is " + lagMillis + " ms behind the leader, beyond " + maxLagMillis + " ms");
+    }
+}
@@ -0,0 +1,122 @@
+package com.hsbc.billing.transaction.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of the {@link com.hsbc.billing.transaction.service.TransactionService} operations and of the stages of a
+ * single create, registered once so the hot path never looks a meter up by its tags.
+ * <p>
+ * Each timer publishes a percentile histogram: a record is a bucket increment, the percentiles are computed by the
+ * monitoring system from the buckets, so nothing is sorted or decayed in the service. The get timer includes the gets
+ * served by the transactions cache, not the JSON served by the controller from the {@code transaction-json} cache; the
+ * {@code cache.gets} metrics of each cache count those.
+ *
+ * @author Nickel Fang 2025/5/21
+ */
+@Component
+public class TransactionMetrics {
+
+    public static final String OPERATION_TIMER = "transaction.operation";
+    public static final String CREATE_STAGE_TIMER = "transaction.create.stage";
+
+    private static final Duration MINIMUM_EXPECTED = Duration.ofNanos(1_000);
+    private static final Duration MAXIMUM_EXPECTED = Duration.ofSeconds(10);
+
+    private final Timer create;
+    private final Timer createBatch;
+    private final Timer update;
+    private final Timer delete;
+    private final Timer get;
+    private final Timer list;
+    private final Timer search;
+
+    private final Timer duplicateCheck;
+    private final Timer idGeneration;
+    private final Timer repositoryWrite;
+    private final Timer mapping;
+
+    @Autowired
+    public TransactionMetrics(MeterRegistry registry) {
+        this.create = operation(registry, "create");
+        this.createBatch = operation(registry, "create-batch");
+        this.update = operation(registry, "update");
+        this.delete = operation(registry, "delete");
+        this.get = operation(registry, "get");
+        this.list = operation(registry, "list");
+        this.search = operation(registry, "search");
+        this.duplicateCheck = stage(registry, "duplicate-check");
+        this.idGeneration = stage(registry, "id-generation");
+        this.repositoryWrite = stage(registry, "repository-write");
+        this.mapping = stage(registry, "mapping");
+    }
+
+    /**
+     * timers that record nothing, for a service built outside of Spring
+     */
+    public static TransactionMetrics noop() {
+        return new TransactionMetrics(new CompositeMeterRegistry());
+    }
+
+    public Timer create() {
+        return create;
+    }
+
+    public Timer createBatch() {
+        return createBatch;
+    }
+
+    public Timer update() {
+        return update;
+    }
+
+    public Timer delete() {
+        return delete;
+    }
+
+    public Timer get() {
+        return get;
+    }
+
+    public Timer list() {
+        return list;
+    }
+
+    public Timer search() {
+        return search;
+    }
+
+    /**
+     * records the stages of one create from the {@link System#nanoTime()} taken at their boundaries, mapping being the
+     * request to transaction conversion before the write and the transaction to response conversion after it
+     */
+    public void recordCreateStages(long started, long checked, long identified, long mapped, long written, long finished) {
+        duplicateCheck.record(checked - started, TimeUnit.NANOSECONDS);
+        idGeneration.record(identified - checked, TimeUnit.NANOSECONDS);
+        repositoryWrite.record(written - mapped, TimeUnit.NANOSECONDS);
+        mapping.record(mapped - identified + finished - written, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer operation(MeterRegistry registry, String operation) {
+        return histogram(Timer.builder(OPERATION_TIMER).tag("operation", operation)
+                .description("TransactionService operations, failed ones included"), registry);
+    }
+
+    private static Timer stage(MeterRegistry registry, String stage) {
+        return histogram(Timer.builder(CREATE_STAGE_TIMER).tag("stage", stage)
+                .description("stages of a single create"), registry);
+    }
+
+    private static Timer histogram(Timer.Builder builder, MeterRegistry registry) {
+        return builder.publishPercentileHistogram()
+                .minimumExpectedValue(MINIMUM_EXPECTED)
+                .maximumExpectedValue(MAXIMUM_EXPECTED)
+                .register(registry);
+    }
+}
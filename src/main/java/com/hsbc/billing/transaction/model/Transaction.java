@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * @author Nickel Fang 2025/4/24
@@ -29,22 +30,23 @@ public class Transaction {
     private String ipAddress;
     private String deviceFingerprint;
 
+    // through the getters, so a view decoding its fields on read prints them too
     @Override
     public String toString() {
         return "Transaction{" +
-                "id=" + id +
-                ", amount=" + amount +
-                ", currency='" + currency + '\'' +
-                ", type=" + type +
-                ", senderAccount='" + senderAccount + '\'' +
-                ", receiverAccount='" + receiverAccount + '\'' +
-                ", beneficiaryName='" + beneficiaryName + '\'' +
-                ", channel='" + channel + '\'' +
-                ", status=" + status +
-                ", description='" + description + '\'' +
-                ", transactionTime=" + transactionTime +
-                ", ipAddress='" + ipAddress + '\'' +
-                ", deviceFingerprint='" + deviceFingerprint + '\'' +
+                "id=" + getId() +
+                ", amount=" + getAmount() +
+                ", currency='" + getCurrency() + '\'' +
+                ", type=" + getType() +
+                ", senderAccount='" + getSenderAccount() + '\'' +
+                ", receiverAccount='" + getReceiverAccount() + '\'' +
+                ", beneficiaryName='" + getBeneficiaryName() + '\'' +
+                ", channel='" + getChannel() + '\'' +
+                ", status=" + getStatus() +
+                ", description='" + getDescription() + '\'' +
+                ", transactionTime=" + getTransactionTime() +
+                ", ipAddress='" + getIpAddress() + '\'' +
+                ", deviceFingerprint='" + getDeviceFingerprint() + '\'' +
                 '}';
     }
 
@@ -59,7 +61,8 @@ public class Transaction {
         transaction.setChannel(transactionRequest.getChannel());
         transaction.setStatus(transactionRequest.getStatus());
         transaction.setDescription(transactionRequest.getDescription());
-        transaction.setTransactionTime(LocalDateTime.now());
+        // microsecond precision, as kept by the compact record format
+        transaction.setTransactionTime(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         transaction.setIpAddress(transactionRequest.getIpAddress());
         transaction.setDeviceFingerprint(transactionRequest.getDeviceFingerprint());
         return transaction;
@@ -0,0 +1,32 @@
+package com.hsbc.billing.transaction.replication;
+
+/**
+ * Frames sent by the leader to a follower, each a type byte and then:
+ * <ul>
+ *     <li>SNAPSHOT: {@code long epoch | long sequence}, the run of the leader and the first log sequence not covered by
+ *     the snapshot that follows</li>
+ *     <li>TRANSACTION: {@code int length | payload}, a transaction of the snapshot in {@code TransactionCodec} encoding</li>
+ *     <li>SNAPSHOT_END: nothing</li>
+ *     <li>RECORD: {@code long sequence | long head | long epochMillis | byte WalRecordType | long id | int length | payload},
+ *     the payload empty for a delete or a clear</li>
+ *     <li>HEARTBEAT: {@code long head | long epochMillis}, sent while the follower has every record</li>
+ * </ul>
+ * {@code head} is the last sequence of the leader when the frame is sent. A follower opens the connection with the
+ * {@code long} epoch of its last snapshot, 0 for none, and the {@code long} sequence it applied last: a leader restarted
+ * since numbers its changes again from 0, so the sequence only holds within the epoch.
+ *
+ * @author Nickel Fang 2025/5/28
+ */
+enum FrameType {
+    SNAPSHOT,
+    TRANSACTION,
+    SNAPSHOT_END,
+    RECORD,
+    HEARTBEAT;
+
+    private static final FrameType[] VALUES = values();
+
+    static FrameType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
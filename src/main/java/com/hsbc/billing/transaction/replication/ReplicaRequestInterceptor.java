@@ -0,0 +1,46 @@
+package com.hsbc.billing.transaction.replication;
+
+import com.hsbc.billing.transaction.cluster.PeerClient;
+import com.hsbc.billing.transaction.exception.ReplicationLagException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.net.URI;
+
+/**
+ * The requests of a follower: reads are served from its replica with the lag in {@link #LAG_HEADER}, or fail with 503
+ * once the lag is beyond the bound, writes are forwarded to the leader. A write is seen by the reads of the follower
+ * after the replication lag, the leader reads its own writes.
+ *
+ * @author Nickel Fang 2025/5/28
+ */
+public class ReplicaRequestInterceptor implements HandlerInterceptor {
+
+    public static final String LAG_HEADER = "X-Replication-Lag-Ms";
+
+    private final ReplicationFollower follower;
+    private final PeerClient leaderClient;
+    private final URI leaderUrl;
+
+    public ReplicaRequestInterceptor(ReplicationFollower follower, PeerClient leaderClient, URI leaderUrl) {
+        this.follower = follower;
+        this.leaderClient = leaderClient;
+        this.leaderUrl = leaderUrl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            leaderClient.forward(leaderUrl, request, response);
+            return false;
+        }
+        final long lag = follower.lagMillis();
+        if (lag > follower.maxLagMillis()) {
+            throw new ReplicationLagException(lag, follower.maxLagMillis());
+        }
+        response.setHeader(LAG_HEADER, Long.toString(lag));
+        return true;
+    }
+}
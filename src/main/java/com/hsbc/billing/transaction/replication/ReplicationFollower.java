@@ -0,0 +1,238 @@
+package com.hsbc.billing.transaction.replication;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.repository.codec.TransactionCodec;
+import com.hsbc.billing.transaction.repository.wal.WalRecordType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the repository of this instance a copy of the repository of the leader: connects to its replication port,
+ * applies the snapshot and records of {@link FrameType} in sequence order through the repository, so the indexes,
+ * caches and statistics follow, and reconnects from the last applied sequence when the connection drops.
+ * <p>
+ * The lag is the time since the follower last held every change of the leader: the time a record was made on the
+ * leader once it is applied, or the time of a heartbeat sent while the follower was up to date. It keeps growing while
+ * the leader is unreachable, and until a snapshot is applied it is unbounded. Times are taken from the clocks of both
+ * instances, synchronized like the ones the snowflake ids depend on.
+ *
+ * @author Nickel Fang 2025/5/28
+ */
+@Slf4j
+public class ReplicationFollower implements HealthIndicator, MeterBinder, Closeable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final long RETRY_MILLIS = 1000;
+    private static final int SNAPSHOT_BATCH_SIZE = 1024;
+
+    private final TransactionRepository repository;
+    private final String host;
+    private final int port;
+    private final int timeoutMillis;
+    private final long maxLagMillis;
+
+    // written by the follower thread only
+    private long epoch;
+    private volatile long applied = -1;
+    private volatile long head = -1;
+    // leader time this instance held every change of the leader at, 0 until it holds a snapshot
+    private volatile long syncedAt;
+    private volatile boolean connected;
+
+    private volatile boolean running;
+    private volatile Socket socket;
+    private Thread follower;
+
+    public ReplicationFollower(TransactionRepository repository, String host, int port, int timeoutMillis, long maxLagMillis) {
+        this.repository = repository;
+        this.host = host;
+        this.port = port;
+        this.timeoutMillis = timeoutMillis;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public void open() {
+        running = true;
+        follower = new Thread(this::followLoop, "replication-follower");
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    private void followLoop() {
+        while (running) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(new InetSocketAddress(host, port), timeoutMillis);
+                connection.setSoTimeout(timeoutMillis);
+                connection.setTcpNoDelay(true);
+                final DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+                out.writeLong(epoch);
+                out.writeLong(applied);
+                out.flush();
+                connected = true;
+                follow(new DataInputStream(new BufferedInputStream(connection.getInputStream(), BUFFER_BYTES)));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Replication from {}:{} interrupted at sequence {}: {}", host, port, applied, e.toString());
+                }
+            } finally {
+                connected = false;
+            }
+            if (running) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void follow(DataInputStream in) throws IOException {
+        long snapshotStart = -1;
+        final List<Transaction> batch = new ArrayList<>(SNAPSHOT_BATCH_SIZE);
+        while (running) {
+            switch (FrameType.of(in.readUnsignedByte())) {
+                case SNAPSHOT -> {
+                    epoch = in.readLong();
+                    snapshotStart = in.readLong();
+                    // nothing is served from the repository until it holds the snapshot
+                    syncedAt = 0;
+                    repository.clear();
+                }
+                case TRANSACTION -> {
+                    batch.add(TransactionCodec.decode(readPayload(in)));
+                    if (batch.size() == SNAPSHOT_BATCH_SIZE) {
+                        repository.saveAll(batch);
+                        batch.clear();
+                    }
+                }
+                case SNAPSHOT_END -> {
+                    repository.saveAll(batch);
+                    batch.clear();
+                    applied = snapshotStart - 1;
+                    log.info("Replication snapshot from {}:{} applied, {} transactions", host, port, repository.count());
+                }
+                case RECORD -> {
+                    final long sequence = in.readLong();
+                    final long leaderHead = in.readLong();
+                    final long epochMillis = in.readLong();
+                    final WalRecordType type = WalRecordType.of(in.readUnsignedByte());
+                    final long id = in.readLong();
+                    final byte[] payload = readPayload(in);
+                    if (sequence != applied + 1) {
+                        throw new StreamCorruptedException("Replication record " + sequence + " after " + applied);
+                    }
+                    apply(type, id, payload);
+                    applied = sequence;
+                    head = leaderHead;
+                    syncedAt = Math.max(syncedAt, epochMillis);
+                }
+                case HEARTBEAT -> {
+                    head = in.readLong();
+                    final long epochMillis = in.readLong();
+                    if (applied >= head) {
+                        syncedAt = Math.max(syncedAt, epochMillis);
+                    }
+                }
+            }
+        }
+    }
+
+    private void apply(WalRecordType type, long id, byte[] payload) {
+        switch (type) {
+            case SAVE -> repository.save(TransactionCodec.decode(payload));
+            case UPDATE -> repository.update(TransactionCodec.decode(payload));
+            case DELETE -> repository.delete(id);
+            case CLEAR -> repository.clear();
+        }
+    }
+
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        final byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * milliseconds since this instance last held every change of the leader, {@link Long#MAX_VALUE} until it holds a
+     * snapshot
+     */
+    public long lagMillis() {
+        final long synced = syncedAt;
+        return synced == 0 ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - synced);
+    }
+
+    public long maxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public long appliedSequence() {
+        return applied;
+    }
+
+    // down while the lag is beyond the bound, so a readiness probe takes the follower out of the service
+    @Override
+    public Health health() {
+        final long lag = lagMillis();
+        return (lag > maxLagMillis ? Health.down() : Health.up())
+                .withDetail("leader", host + ":" + port)
+                .withDetail("connected", connected)
+                .withDetail("appliedSequence", applied)
+                .withDetail("leaderSequence", head)
+                .withDetail("lagMillis", lag)
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transaction.replication.lag", this, follower -> follower.syncedAt == 0 ? Double.NaN : follower.lagMillis())
+                .description("milliseconds since this follower last held every change of the leader, NaN before a snapshot")
+                .baseUnit(BaseUnits.MILLISECONDS)
+                .register(registry);
+        Gauge.builder("transaction.replication.lag.records", this, follower -> Math.max(0, follower.head - follower.applied))
+                .description("changes of the leader known to this follower and not applied yet")
+                .register(registry);
+        Gauge.builder("transaction.replication.applied", this, follower -> follower.applied)
+                .description("sequence of the last change applied from the leader")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            final Socket connection = socket;
+            if (connection != null) {
+                connection.close();
+            }
+            follower.interrupt();
+            follower.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (IOException e) {
+            log.warn("Failed to close the replication connection to {}:{}", host, port, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.hsbc.billing.transaction.replication;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.repository.codec.TransactionCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ships the {@link ReplicationLog} of this instance to every follower connecting on the replication port, one virtual
+ * thread per follower, in the frames of {@link FrameType}.
+ * <p>
+ * A follower sends the last sequence it applied. When the log no longer holds the next one, or the follower has none of
+ * this run of the leader, it first gets a snapshot: the sequence the log is at, then every stored transaction read page
+ * by page, then the records from that sequence on. Changes made while the snapshot is read are both in it and in the
+ * records after it; the records carry whole transactions and are applied in order, so the follower ends up with the
+ * state of the leader.
+ * A follower overtaken by a whole ring of changes is disconnected and resynchronizes from a snapshot when it reconnects.
+ *
+ * @author Nickel Fang 2025/5/28
+ */
+@Slf4j
+public class ReplicationLeader implements MeterBinder, Closeable {
+
+    private static final int SNAPSHOT_PAGE_SIZE = 1024;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ReplicationLog replicationLog;
+    private final TransactionRepository repository;
+    private final int port;
+    private final long heartbeatNanos;
+    // this run of the leader, never 0
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    public ReplicationLeader(ReplicationLog replicationLog, TransactionRepository repository, int port, long heartbeatMillis) {
+        this.replicationLog = replicationLog;
+        this.repository = repository;
+        this.port = port;
+        this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+    }
+
+    public void open() {
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to listen for replication followers on port " + port, e);
+        }
+        running = true;
+        acceptor = new Thread(this::acceptLoop, "replication-leader");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * the port followers connect to, the bound one when configured with 0
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                followers.add(socket);
+                Thread.ofVirtual().name("replication-ship-" + socket.getRemoteSocketAddress()).start(() -> ship(socket));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Failed to accept a replication follower", e);
+                }
+            }
+        }
+    }
+
+    private void ship(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES));
+            final long followerEpoch = in.readLong();
+            final long applied = in.readLong();
+            long next = applied + 1;
+            if (followerEpoch != epoch || next > replicationLog.next() || !replicationLog.retains(next)) {
+                next = sendSnapshot(out);
+            }
+            log.info("Replication follower {} connected at sequence {}", socket.getRemoteSocketAddress(), next);
+            long lastHeartbeat = System.nanoTime() - heartbeatNanos;
+            while (running) {
+                if (!replicationLog.retains(next)) {
+                    log.warn("Replication follower {} fell a whole log behind at sequence {}", socket.getRemoteSocketAddress(), next);
+                    return;
+                }
+                final ReplicationLog.Entry entry = replicationLog.get(next);
+                if (entry != null) {
+                    sendRecord(out, entry);
+                    next++;
+                    continue;
+                }
+                if (next == replicationLog.next() && System.nanoTime() - lastHeartbeat >= heartbeatNanos) {
+                    out.writeByte(FrameType.HEARTBEAT.ordinal());
+                    out.writeLong(next - 1);
+                    out.writeLong(System.currentTimeMillis());
+                    lastHeartbeat = System.nanoTime();
+                }
+                out.flush();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        } catch (IOException e) {
+            if (running) {
+                log.info("Replication follower {} disconnected: {}", socket.getRemoteSocketAddress(), e.toString());
+            }
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    // the sequence the records go on from
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        final long start = replicationLog.next();
+        out.writeByte(FrameType.SNAPSHOT.ordinal());
+        out.writeLong(epoch);
+        out.writeLong(start);
+        Long after = null;
+        List<Transaction> page;
+        do {
+            page = repository.findAfter(after, SNAPSHOT_PAGE_SIZE);
+            for (Transaction transaction : page) {
+                final byte[] payload = TransactionCodec.encode(transaction);
+                out.writeByte(FrameType.TRANSACTION.ordinal());
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == SNAPSHOT_PAGE_SIZE);
+        out.writeByte(FrameType.SNAPSHOT_END.ordinal());
+        return start;
+    }
+
+    private void sendRecord(DataOutputStream out, ReplicationLog.Entry entry) throws IOException {
+        final byte[] payload = entry.transaction() == null ? new byte[0] : TransactionCodec.encode(entry.transaction());
+        out.writeByte(FrameType.RECORD.ordinal());
+        out.writeLong(entry.sequence());
+        out.writeLong(replicationLog.next() - 1);
+        out.writeLong(entry.epochMillis());
+        out.writeByte(entry.type().ordinal());
+        out.writeLong(entry.id());
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transaction.replication.followers", followers, Set::size)
+                .description("followers connected to this leader")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            serverSocket.close();
+            for (Socket follower : followers) {
+                follower.close();
+            }
+            acceptor.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (IOException e) {
+            log.warn("Failed to close the replication port {}", port, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
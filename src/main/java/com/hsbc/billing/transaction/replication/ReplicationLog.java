@@ -0,0 +1,103 @@
+package com.hsbc.billing.transaction.replication;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionChangeListener;
+import com.hsbc.billing.transaction.repository.wal.WalRecordType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The latest changes of the repository of the leader, numbered in the order followers apply them, in a ring of
+ * {@code capacity} entries. Registered as a {@link TransactionChangeListener}, so every save, update, delete and clear
+ * gets its sequence under the lock of its id: the changes of one id are numbered in the order they were applied.
+ * <p>
+ * Appending takes no lock: a change claims the next sequence and publishes an immutable entry in its slot, a slot only
+ * ever moving to a higher sequence. A follower whose next sequence has been overwritten resynchronizes from a snapshot.
+ *
+ * @author Nickel Fang 2025/5/28
+ */
+public class ReplicationLog implements TransactionChangeListener, MeterBinder {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Entry> entries;
+
+    // the next sequence to claim
+    private final AtomicLong tail = new AtomicLong();
+
+    public ReplicationLog(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Replication log capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public void onChange(Transaction previous, Transaction current) {
+        if (current == null) {
+            append(WalRecordType.DELETE, previous.getId(), null);
+        } else {
+            append(previous == null ? WalRecordType.SAVE : WalRecordType.UPDATE, current.getId(), current);
+        }
+    }
+
+    @Override
+    public void onClear() {
+        append(WalRecordType.CLEAR, 0L, null);
+    }
+
+    private void append(WalRecordType type, long id, Transaction transaction) {
+        final long sequence = tail.getAndIncrement();
+        final Entry entry = new Entry(sequence, System.currentTimeMillis(), type, id, transaction);
+        final int slot = (int) sequence & mask;
+        Entry current;
+        do {
+            current = entries.get(slot);
+            // a whole ring later already
+            if (current != null && current.sequence() > sequence) {
+                return;
+            }
+        } while (!entries.compareAndSet(slot, current, entry));
+    }
+
+    /**
+     * the sequence the next change gets, the log holds none of it or after
+     */
+    public long next() {
+        return tail.get();
+    }
+
+    /**
+     * whether the entry of the sequence is still in the ring or yet to come
+     */
+    public boolean retains(long sequence) {
+        return sequence >= tail.get() - capacity;
+    }
+
+    /**
+     * the entry of the sequence, null when not published yet or overwritten, see {@link #retains(long)}
+     */
+    public Entry get(long sequence) {
+        final Entry entry = entries.get((int) sequence & mask);
+        return entry != null && entry.sequence() == sequence ? entry : null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transaction.replication.sequence", tail, AtomicLong::get)
+                .description("changes numbered for the followers")
+                .register(registry);
+    }
+
+    /**
+     * @param transaction null for a delete or a clear
+     */
+    public record Entry(long sequence, long epochMillis, WalRecordType type, long id, Transaction transaction) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.hsbc.billing.transaction.repository;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.codec.CompactTransactionView;
+import com.hsbc.billing.transaction.repository.codec.TransactionCodec;
+import com.hsbc.billing.transaction.util.ConcurrentLongMap;
+
+import java.util.List;
+
+/**
+ * Keeps every transaction as one {@link TransactionCodec} byte array instead of a graph of boxed fields,
+ * reads return a {@link CompactTransactionView} decoding on access.
+ *
+ * @author Nickel Fang 2025/5/9
+ */
+public class CompactTransactionStore implements TransactionStore {
+
+    private final ConcurrentLongMap<byte[]> store = new ConcurrentLongMap<>();
+    private final OrderedIdIndex orderedIds = new OrderedIdIndex();
+
+    @Override
+    public Transaction get(long id) {
+        final byte[] bytes = store.get(id);
+        return bytes == null ? null : TransactionCodec.view(bytes);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return store.containsKey(id);
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        final byte[] bytes = transaction instanceof CompactTransactionView view ? view.bytes() : TransactionCodec.encode(transaction);
+        if (store.put(transaction.getId(), bytes) == null) {
+            orderedIds.add(transaction.getId());
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        orderedIds.remove(id);
+        store.remove(id);
+    }
+
+    @Override
+    public long size() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        orderedIds.clear();
+        store.clear();
+    }
+
+    @Override
+    public List<Transaction> scan(long after, long before, long skip, int limit) {
+        return orderedIds.scan(after, before, skip, limit, this::get);
+    }
+}
@@ -0,0 +1,55 @@
+package com.hsbc.billing.transaction.repository;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.util.ConcurrentLongMap;
+
+import java.util.List;
+
+/**
+ * @author Nickel Fang 2025/5/9
+ */
+public class HeapTransactionStore implements TransactionStore {
+
+    private final ConcurrentLongMap<Transaction> store = new ConcurrentLongMap<>();
+    private final OrderedIdIndex orderedIds = new OrderedIdIndex();
+
+    @Override
+    public Transaction get(long id) {
+        return store.get(id);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return store.containsKey(id);
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        // an update keeps its place in the ordered index
+        if (store.put(transaction.getId(), transaction) == null) {
+            orderedIds.add(transaction.getId());
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        orderedIds.remove(id);
+        store.remove(id);
+    }
+
+    @Override
+    public long size() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        orderedIds.clear();
+        store.clear();
+    }
+
+    @Override
+    public List<Transaction> scan(long after, long before, long skip, int limit) {
+        return orderedIds.scan(after, before, skip, limit, this::get);
+    }
+}
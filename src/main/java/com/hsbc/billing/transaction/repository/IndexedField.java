@@ -0,0 +1,28 @@
+package com.hsbc.billing.transaction.repository;
+
+import com.hsbc.billing.transaction.model.Transaction;
+
+import java.util.function.Function;
+
+/**
+ * Transaction fields {@link TransactionRepository} can keep a secondary index on, in the order a query prefers them
+ * when it filters on several: the account numbers are the most selective.
+ *
+ * @author Nickel Fang 2025/5/17
+ */
+public enum IndexedField {
+    SENDER(Transaction::getSenderAccount),
+    RECEIVER(Transaction::getReceiverAccount),
+    CHANNEL(Transaction::getChannel),
+    STATUS(Transaction::getStatus);
+
+    private final Function<Transaction, Object> extractor;
+
+    IndexedField(Function<Transaction, Object> extractor) {
+        this.extractor = extractor;
+    }
+
+    Object valueOf(Transaction transaction) {
+        return extractor.apply(transaction);
+    }
+}
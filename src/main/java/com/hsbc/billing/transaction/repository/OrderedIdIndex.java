@@ -0,0 +1,50 @@
+package com.hsbc.billing.transaction.repository;
+
+import com.hsbc.billing.transaction.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongFunction;
+
+/**
+ * Ids ordered by value for the scans of the on-heap stores, so pages stay stable under concurrent inserts.
+ *
+ * @author Nickel Fang 2025/5/10
+ */
+class OrderedIdIndex {
+
+    private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+
+    void add(long id) {
+        ids.add(id);
+    }
+
+    void remove(long id) {
+        ids.remove(id);
+    }
+
+    void clear() {
+        ids.clear();
+    }
+
+    List<Transaction> scan(long after, long before, long skip, int limit, LongFunction<Transaction> reader) {
+        if (after >= before || limit < 1) {
+            return new ArrayList<>();
+        }
+        final Iterator<Long> iterator = ids.subSet(after, false, before, false).iterator();
+        for (; skip > 0 && iterator.hasNext(); skip--) {
+            iterator.next();
+        }
+        final List<Transaction> transactions = new ArrayList<>(Math.min(limit, 1024));
+        while (transactions.size() < limit && iterator.hasNext()) {
+            final Transaction transaction = reader.apply(iterator.next());
+            // removed after the id was read from the index
+            if (transaction != null) {
+                transactions.add(transaction);
+            }
+        }
+        return transactions;
+    }
+}
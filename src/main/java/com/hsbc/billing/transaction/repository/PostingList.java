@@ -0,0 +1,104 @@
+package com.hsbc.billing.transaction.repository;
+
+import java.util.Arrays;
+
+/**
+ * Ascending ids of one indexed value in a primitive array, laid out like {@code OffHeapSortedIds}: snowflake ids arrive
+ * almost sorted so an insert is an append, a removed id stays in place negated until tombstones pass a quarter of the
+ * array. A long array holds no references, so a large index adds 8 bytes per id to the heap without adding objects for
+ * the GC to trace. Not thread-safe, {@link SecondaryIndexes} guards it.
+ *
+ * @author Nickel Fang 2025/5/29
+ */
+final class PostingList {
+
+    private long[] ids = new long[2];
+    private int length;
+    private int tombstones;
+
+    void add(long id) {
+        if (length == 0 || Math.abs(ids[length - 1]) < id) {
+            ensureCapacity();
+            ids[length++] = id;
+            return;
+        }
+        final int index = search(id);
+        if (index < length && Math.abs(ids[index]) == id) {
+            if (ids[index] < 0) {
+                ids[index] = id;
+                tombstones--;
+            }
+            return;
+        }
+        ensureCapacity();
+        System.arraycopy(ids, index, ids, index + 1, length - index);
+        ids[index] = id;
+        length++;
+    }
+
+    void remove(long id) {
+        final int index = search(id);
+        if (index < length && ids[index] == id) {
+            ids[index] = -id;
+            if (++tombstones > length / 4) {
+                compact();
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return length == tombstones;
+    }
+
+    /**
+     * copies the live ids between the exclusive bounds in ascending order, at most as many as {@code into} holds
+     */
+    int copy(long after, long before, long[] into) {
+        int count = 0;
+        for (int i = after < 0 ? 0 : search(after + 1); i < length && count < into.length; i++) {
+            final long id = ids[i];
+            if (Math.abs(id) >= before) {
+                break;
+            }
+            if (id > 0) {
+                into[count++] = id;
+            }
+        }
+        return count;
+    }
+
+    // first index whose absolute value is not less than id
+    private int search(long id) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (Math.abs(ids[middle]) < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < length; i++) {
+            if (ids[i] > 0) {
+                ids[live++] = ids[i];
+            }
+        }
+        length = live;
+        tombstones = 0;
+        if (ids.length > 16 && length < ids.length / 4) {
+            ids = Arrays.copyOf(ids, ids.length / 2);
+        }
+    }
+
+    private void ensureCapacity() {
+        if (length == ids.length) {
+            ids = Arrays.copyOf(ids, length * 2);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.hsbc.billing.transaction.repository;
+
+import com.hsbc.billing.transaction.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongToIntFunction;
+
+/**
+ * For every enabled {@link IndexedField}, the ids of the transactions holding each value, ordered by id in a
+ * {@link PostingList}. The postings of a value are changed and read under a lock striped by the value, and a posting
+ * list is dropped with its last id under the same lock, so adding to a value never races with dropping it. Readers
+ * copy the ids a chunk at a time, get weakly consistent views and must check the transaction they read still matches.
+ * <p>
+ * The postings are partitioned like the shards of the store, each partition with locks of its own, so writers of a
+ * common value such as a channel or a status append to one list per shard; a read merges the partitions in id order.
+ *
+ * @author Nickel Fang 2025/5/17
+ */
+class SecondaryIndexes {
+
+    private static final int LOCK_STRIPES = 16;
+    private static final int CHUNK_SIZE = 256;
+
+    private final List<Partition> partitions;
+
+    private final LongToIntFunction partitionOf;
+
+    SecondaryIndexes(Set<IndexedField> fields) {
+        this(fields, 1, id -> 0);
+    }
+
+    SecondaryIndexes(Set<IndexedField> fields, int partitionCount, LongToIntFunction partitionOf) {
+        this.partitions = new ArrayList<>(partitionCount);
+        this.partitionOf = partitionOf;
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new Partition(fields));
+        }
+    }
+
+    boolean isEmpty() {
+        return partitions.get(0).postings.isEmpty();
+    }
+
+    boolean isIndexed(IndexedField field) {
+        return partitions.get(0).postings.containsKey(field);
+    }
+
+    /**
+     * moves the id of the transaction from the values of {@code previous} to its own, either may be null
+     */
+    void update(Transaction previous, Transaction current) {
+        final long id = current != null ? current.getId() : previous.getId();
+        final Partition partition = partitions.get(partitionOf.applyAsInt(id));
+        for (Map.Entry<IndexedField, ConcurrentHashMap<Object, PostingList>> entry : partition.postings.entrySet()) {
+            final Object before = previous == null ? null : entry.getKey().valueOf(previous);
+            final Object after = current == null ? null : entry.getKey().valueOf(current);
+            if (before != null && before.equals(after)) {
+                continue;
+            }
+            if (after != null) {
+                final ReentrantLock lock = partition.lockFor(after);
+                lock.lock();
+                try {
+                    entry.getValue().computeIfAbsent(after, value -> new PostingList()).add(id);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (before != null) {
+                final ReentrantLock lock = partition.lockFor(before);
+                lock.lock();
+                try {
+                    final PostingList ids = entry.getValue().get(before);
+                    if (ids != null) {
+                        ids.remove(id);
+                        if (ids.isEmpty()) {
+                            entry.getValue().remove(before);
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * the ids holding the value between the exclusive bounds, in ascending order
+     */
+    Iterator<Long> ids(IndexedField field, Object value, long after, long before) {
+        if (after >= before) {
+            return Collections.emptyIterator();
+        }
+        if (partitions.size() == 1) {
+            return new PostingIterator(partitions.get(0), field, value, after, before);
+        }
+        final List<Iterator<Long>> iterators = new ArrayList<>(partitions.size());
+        for (Partition partition : partitions) {
+            iterators.add(new PostingIterator(partition, field, value, after, before));
+        }
+        return new MergedIterator(iterators);
+    }
+
+    void clear() {
+        for (Partition partition : partitions) {
+            partition.postings.values().forEach(Map::clear);
+        }
+    }
+
+    private static final class Partition {
+
+        private final Map<IndexedField, ConcurrentHashMap<Object, PostingList>> postings = new EnumMap<>(IndexedField.class);
+
+        private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+        private Partition(Set<IndexedField> fields) {
+            for (IndexedField field : fields) {
+                postings.put(field, new ConcurrentHashMap<>());
+            }
+            for (int i = 0; i < LOCK_STRIPES; i++) {
+                locks[i] = new ReentrantLock();
+            }
+        }
+
+        private ReentrantLock lockFor(Object value) {
+            final int hash = value.hashCode();
+            return locks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+        }
+    }
+
+    // the ids of one value in one partition, copied a chunk at a time under the lock of the value
+    private static final class PostingIterator implements Iterator<Long> {
+
+        private final ConcurrentHashMap<Object, PostingList> postings;
+        private final ReentrantLock lock;
+        private final Object value;
+        private final long before;
+        private final long[] chunk = new long[CHUNK_SIZE];
+        private long after;
+        private int size;
+        private int index;
+        private boolean exhausted;
+
+        private PostingIterator(Partition partition, IndexedField field, Object value, long after, long before) {
+            this.postings = partition.postings.get(field);
+            this.lock = partition.lockFor(value);
+            this.value = value;
+            this.after = after;
+            this.before = before;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index == size && !exhausted) {
+                fill();
+            }
+            return index < size;
+        }
+
+        @Override
+        public Long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk[index++];
+        }
+
+        private void fill() {
+            lock.lock();
+            try {
+                final PostingList ids = postings.get(value);
+                size = ids == null ? 0 : ids.copy(after, before, chunk);
+            } finally {
+                lock.unlock();
+            }
+            index = 0;
+            exhausted = size < chunk.length;
+            if (size > 0) {
+                after = chunk[size - 1];
+            }
+        }
+    }
+
+    // ascending ids of the partitions, each iterator being ascending and disjoint from the others
+    private static final class MergedIterator implements Iterator<Long> {
+
+        private final PriorityQueue<Head> heads;
+
+        private MergedIterator(List<Iterator<Long>> iterators) {
+            heads = new PriorityQueue<>(iterators.size(), Comparator.comparingLong(Head::id));
+            for (Iterator<Long> iterator : iterators) {
+                if (iterator.hasNext()) {
+                    heads.add(new Head(iterator.next(), iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Long next() {
+            final Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+            return head.id();
+        }
+
+        private record Head(long id, Iterator<Long> rest) {
+        }
+    }
+}
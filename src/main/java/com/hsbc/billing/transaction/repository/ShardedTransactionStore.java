@@ -0,0 +1,155 @@
+package com.hsbc.billing.transaction.repository;
+
+import com.hsbc.billing.transaction.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+/**
+ * {@link TransactionStore} split into independent shards chosen by a hash of the id, each shard a store of its own
+ * with its own map and ordered ids, and in the repository its own secondary index postings. Concurrent writers of
+ * consecutive snowflake ids no longer meet at the tail of one skip list or in the resize of one table.
+ * <p>
+ * A read or write of one id goes to its shard. Ordered scans gather the shards page by page and merge them in id order,
+ * so a cursor page costs about one page per shard; an offset page reads the skipped transactions of every shard.
+ *
+ * @author Nickel Fang 2025/5/26
+ */
+public class ShardedTransactionStore implements TransactionStore {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final int MERGE_PAGE_SIZE = 256;
+    private static final int MERGE_PAGE_SLACK = 8;
+
+    private final TransactionStore[] shards;
+
+    private final int shardBits;
+
+    public ShardedTransactionStore(int shards, IntFunction<TransactionStore> shardFactory) {
+        if (shards < 2 || Integer.bitCount(shards) != 1) {
+            throw new IllegalArgumentException("Shards must be a power of two greater than one: " + shards);
+        }
+        this.shards = new TransactionStore[shards];
+        this.shardBits = Integer.numberOfTrailingZeros(shards);
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = shardFactory.apply(i);
+        }
+    }
+
+    @Override
+    public int shards() {
+        return shards.length;
+    }
+
+    // the low bits of a snowflake id are a sequence restarting every millisecond, so the id is mixed first
+    @Override
+    public int shardOf(long id) {
+        return (int) (id * GOLDEN_RATIO >>> (Long.SIZE - shardBits));
+    }
+
+    public TransactionStore shard(int shard) {
+        return shards[shard];
+    }
+
+    @Override
+    public Transaction get(long id) {
+        return shards[shardOf(id)].get(id);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return shards[shardOf(id)].contains(id);
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        shards[shardOf(transaction.getId())].put(transaction);
+    }
+
+    @Override
+    public void remove(long id) {
+        shards[shardOf(id)].remove(id);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (TransactionStore shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (TransactionStore shard : shards) {
+            shard.clear();
+        }
+    }
+
+    @Override
+    public List<Transaction> scan(long after, long before, long skip, int limit) {
+        final List<Transaction> transactions = new ArrayList<>(Math.min(limit, 1024));
+        if (after >= before || limit <= 0) {
+            return transactions;
+        }
+        // ids are spread evenly, so a shard holds about its share of the page and is read again only past it
+        final int pageSize = (int) Math.min(MERGE_PAGE_SIZE, (skip + limit) / shards.length + MERGE_PAGE_SLACK);
+        final PriorityQueue<ShardCursor> heads = new PriorityQueue<>(shards.length, Comparator.comparingLong(ShardCursor::headId));
+        for (TransactionStore shard : shards) {
+            final ShardCursor cursor = new ShardCursor(shard, after, before, pageSize);
+            if (cursor.hasHead()) {
+                heads.add(cursor);
+            }
+        }
+        while (transactions.size() < limit && !heads.isEmpty()) {
+            final ShardCursor cursor = heads.poll();
+            final Transaction head = cursor.next();
+            if (skip > 0) {
+                skip--;
+            } else {
+                transactions.add(head);
+            }
+            if (cursor.hasHead()) {
+                heads.add(cursor);
+            }
+        }
+        return transactions;
+    }
+
+    // the transactions of one shard in id order, read a page at a time
+    private static final class ShardCursor {
+
+        private final TransactionStore shard;
+        private final long before;
+        private final int pageSize;
+        private List<Transaction> page;
+        private int index;
+
+        private ShardCursor(TransactionStore shard, long after, long before, int pageSize) {
+            this.shard = shard;
+            this.before = before;
+            this.pageSize = pageSize;
+            this.page = shard.scan(after, before, 0, pageSize);
+        }
+
+        private boolean hasHead() {
+            if (index == page.size() && page.size() == pageSize) {
+                page = shard.scan(page.get(index - 1).getId(), before, 0, pageSize);
+                index = 0;
+            }
+            return index < page.size();
+        }
+
+        private long headId() {
+            return page.get(index).getId();
+        }
+
+        private Transaction next() {
+            return page.get(index++);
+        }
+    }
+}
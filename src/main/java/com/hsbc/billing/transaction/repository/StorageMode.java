@@ -0,0 +1,13 @@
+package com.hsbc.billing.transaction.repository;
+
+/**
+ * @author Nickel Fang 2025/5/9
+ */
+public enum StorageMode {
+    // transaction objects in a ConcurrentLongMap keyed by the primitive id
+    HEAP,
+    // one encoded byte array per transaction, see TransactionCodec
+    COMPACT,
+    // encoded records, id index and ordered ids in direct buffers outside the Java heap
+    OFF_HEAP
+}
@@ -0,0 +1,20 @@
+package com.hsbc.billing.transaction.repository;
+
+import com.hsbc.billing.transaction.model.Transaction;
+
+/**
+ * Notified by {@link TransactionRepository} of every change applied to the store, including the write-ahead log replay
+ * on startup. Calls for one id are serialized by the lock of that id.
+ *
+ * @author Nickel Fang 2025/5/18
+ */
+public interface TransactionChangeListener {
+
+    /**
+     * @param previous the stored transaction before the change, null for an insert
+     * @param current  the stored transaction after the change, null for a removal
+     */
+    void onChange(Transaction previous, Transaction current);
+
+    void onClear();
+}
@@ -0,0 +1,44 @@
+package com.hsbc.billing.transaction.repository;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Objects;
+
+/**
+ * Filter of {@link TransactionRepository#query}: every non-null field must match, the id bounds are exclusive.
+ *
+ * @author Nickel Fang 2025/5/17
+ */
+@Value
+@Builder(toBuilder = true)
+public class TransactionQuery {
+
+    String senderAccount;
+    String receiverAccount;
+    String channel;
+    TransactionStatus status;
+    Long afterId;
+    Long beforeId;
+
+    Object valueOf(IndexedField field) {
+        return switch (field) {
+            case SENDER -> senderAccount;
+            case RECEIVER -> receiverAccount;
+            case CHANNEL -> channel;
+            case STATUS -> status;
+        };
+    }
+
+    boolean matches(Transaction transaction) {
+        for (IndexedField field : IndexedField.values()) {
+            final Object value = valueOf(field);
+            if (value != null && !Objects.equals(value, field.valueOf(transaction))) {
+                return false;
+            }
+        }
+        return (afterId == null || transaction.getId() > afterId) && (beforeId == null || transaction.getId() < beforeId);
+    }
+}
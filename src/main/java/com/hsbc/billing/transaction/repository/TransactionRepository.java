@@ -1,12 +1,22 @@
 package com.hsbc.billing.transaction.repository;
 
 import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.codec.TransactionCodec;
+import com.hsbc.billing.transaction.repository.wal.WalRecordType;
+import com.hsbc.billing.transaction.repository.wal.WriteAheadLog;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Nickel Fang 2025/4/24
@@ -14,16 +24,83 @@ import java.util.concurrent.ConcurrentMap;
 @Repository
 public class TransactionRepository {
 
-    private final ConcurrentMap<Long, Transaction> store = new ConcurrentHashMap<>();
+    private static final int LOCK_STRIPES = 64;
+    private static final int SNAPSHOT_PAGE_SIZE = 1024;
+    private static final int QUERY_SCAN_PAGE_SIZE = 1024;
+    // the default of transaction.repository.indexes
+    public static final Set<IndexedField> DEFAULT_INDEXES = Set.of(IndexedField.SENDER, IndexedField.RECEIVER);
+
+    private final TransactionStore store;
+
+    // maintained together with the store under the lock of the id
+    private final SecondaryIndexes indexes;
+
+    private final List<TransactionChangeListener> listeners;
+
+    // serializes the mutations of one id across the store and the write-ahead log
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    // null when persistence is disabled
+    private final WriteAheadLog wal;
+
+    @Autowired
+    public TransactionRepository(TransactionStore store, @Nullable WriteAheadLog wal,
+            @Value("${transaction.repository.indexes:SENDER,RECEIVER}") Set<IndexedField> indexedFields,
+            ObjectProvider<TransactionChangeListener> listeners) {
+        this(store, wal, indexedFields, listeners.orderedStream().toList());
+    }
+
+    public TransactionRepository(TransactionStore store, @Nullable WriteAheadLog wal, Set<IndexedField> indexedFields,
+            List<TransactionChangeListener> listeners) {
+        this.store = store;
+        this.wal = wal;
+        this.indexes = new SecondaryIndexes(indexedFields, store.shards(), store::shardOf);
+        this.listeners = listeners;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void recover() {
+        if (wal != null) {
+            wal.open(this::replay, () -> this::snapshotIterator);
+        }
+    }
 
     public Transaction save(Transaction tx) {
-        store.put(tx.getId(), tx);
-        return tx;
+        return write(WalRecordType.SAVE, tx);
     }
 
     public Transaction update(Transaction tx) {
-        store.put(tx.getId(), tx);
-        return tx;
+        return write(WalRecordType.UPDATE, tx);
+    }
+
+    /**
+     * saves the transactions in one pass, waiting once for the write-ahead log to cover the whole batch
+     */
+    public List<Transaction> saveAll(List<Transaction> transactions) {
+        long position = 0;
+        beginMutation();
+        try {
+            for (Transaction tx : transactions) {
+                final byte[] payload = wal == null ? null : TransactionCodec.encode(tx);
+                final ReentrantLock lock = lockFor(tx.getId());
+                lock.lock();
+                try {
+                    if (wal != null) {
+                        position = wal.append(WalRecordType.SAVE, tx.getId(), payload);
+                    }
+                    putToStore(tx);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            endMutation();
+        }
+        awaitDurable(position);
+        return transactions;
     }
 
     public Transaction findById(Long id) {
@@ -31,21 +108,226 @@ public class TransactionRepository {
     }
 
     public List<Transaction> findAll(int page, int size) {
-        final ArrayList<Transaction> transactions = new ArrayList<>(store.values());
-        final int from = Math.min(page * size, transactions.size());
-        final int to = Math.min(from + size, transactions.size());
-        return transactions.subList(from, to);
+        return store.scan(Long.MIN_VALUE, (long) page * size, size);
+    }
+
+    /**
+     * keyset pagination: the first {@code limit} transactions with an id greater than {@code after}, ordered by id.
+     * A null {@code after} starts from the first transaction.
+     */
+    public List<Transaction> findAfter(Long after, int limit) {
+        return store.scan(after == null ? Long.MIN_VALUE : after, 0, limit);
+    }
+
+    /**
+     * up to {@code limit} transactions with an id between the exclusive bounds, ordered by id. Snowflake ids start with
+     * their creation time, so a time window is a range of ids and the cost follows the page, not the store size.
+     */
+    public List<Transaction> findBetween(long afterId, long beforeId, int limit) {
+        if (afterId >= beforeId || limit <= 0) {
+            return new ArrayList<>();
+        }
+        return store.scan(afterId, beforeId, 0, limit);
+    }
+
+    /**
+     * up to {@code limit} transactions matching the query in ascending id order. Served from the index of the first
+     * {@link IndexedField} the query filters on, so the cost follows the size of that posting set within the id bounds,
+     * and from an id ordered scan of the store when no filtered field is indexed.
+     */
+    public List<Transaction> query(TransactionQuery query, int limit) {
+        final long after = query.getAfterId() == null ? Long.MIN_VALUE : query.getAfterId();
+        final long before = query.getBeforeId() == null ? Long.MAX_VALUE : query.getBeforeId();
+        final List<Transaction> transactions = new ArrayList<>(Math.min(limit, 1024));
+        if (after >= before || limit <= 0) {
+            return transactions;
+        }
+        final Iterator<Long> ids = postings(query, after, before);
+        if (ids != null) {
+            while (ids.hasNext()) {
+                final Transaction transaction = store.get(ids.next());
+                // changed or removed after the id was read from the index
+                if (transaction != null && query.matches(transaction)) {
+                    transactions.add(transaction);
+                    if (transactions.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return transactions;
+        }
+        long cursor = after;
+        while (true) {
+            final List<Transaction> page = findBetween(cursor, before, QUERY_SCAN_PAGE_SIZE);
+            for (Transaction transaction : page) {
+                if (query.matches(transaction)) {
+                    transactions.add(transaction);
+                    if (transactions.size() == limit) {
+                        return transactions;
+                    }
+                }
+            }
+            if (page.size() < QUERY_SCAN_PAGE_SIZE) {
+                return transactions;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
     }
 
     public void delete(Long id) {
-        store.remove(id);
+        long position = 0;
+        beginMutation();
+        final ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            if (!store.contains(id)) {
+                return;
+            }
+            if (wal != null) {
+                position = wal.append(WalRecordType.DELETE, id, new byte[0]);
+            }
+            removeFromStore(id);
+        } finally {
+            lock.unlock();
+            endMutation();
+        }
+        awaitDurable(position);
     }
 
     public boolean existsById(Long id) {
-        return store.containsKey(id);
+        return store.contains(id);
+    }
+
+    public long count() {
+        return store.size();
     }
 
     public void clear() {
+        long position = 0;
+        beginMutation();
+        try {
+            if (wal != null) {
+                position = wal.append(WalRecordType.CLEAR, 0L, new byte[0]);
+            }
+            clearStore();
+        } finally {
+            endMutation();
+        }
+        awaitDurable(position);
+    }
+
+    private Transaction write(WalRecordType type, Transaction tx) {
+        final byte[] payload = wal == null ? null : TransactionCodec.encode(tx);
+        long position = 0;
+        beginMutation();
+        final ReentrantLock lock = lockFor(tx.getId());
+        lock.lock();
+        try {
+            if (wal != null) {
+                position = wal.append(type, tx.getId(), payload);
+            }
+            putToStore(tx);
+        } finally {
+            lock.unlock();
+            endMutation();
+        }
+        awaitDurable(position);
+        return tx;
+    }
+
+    // weakly consistent iteration in id order, read page by page while a snapshot is written
+    private Iterator<Transaction> snapshotIterator() {
+        return new Iterator<>() {
+            private List<Transaction> page = store.scan(Long.MIN_VALUE, 0, SNAPSHOT_PAGE_SIZE);
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index == page.size() && page.size() == SNAPSHOT_PAGE_SIZE) {
+                    page = store.scan(page.get(page.size() - 1).getId(), 0, SNAPSHOT_PAGE_SIZE);
+                    index = 0;
+                }
+                return index < page.size();
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(index++);
+            }
+        };
+    }
+
+    private void replay(WalRecordType type, long id, Transaction tx) {
+        switch (type) {
+            case SAVE, UPDATE -> putToStore(tx);
+            case DELETE -> removeFromStore(id);
+            case CLEAR -> clearStore();
+        }
+    }
+
+    private Iterator<Long> postings(TransactionQuery query, long after, long before) {
+        for (IndexedField field : IndexedField.values()) {
+            final Object value = query.valueOf(field);
+            if (value != null && indexes.isIndexed(field)) {
+                return indexes.ids(field, value, after, before);
+            }
+        }
+        return null;
+    }
+
+    private void putToStore(Transaction tx) {
+        final Transaction previous = !tracksChanges() || !store.contains(tx.getId()) ? null : store.get(tx.getId());
+        store.put(tx);
+        indexes.update(previous, tx);
+        for (TransactionChangeListener listener : listeners) {
+            listener.onChange(previous, tx);
+        }
+    }
+
+    private void removeFromStore(long id) {
+        final Transaction previous = tracksChanges() ? store.get(id) : null;
+        store.remove(id);
+        if (previous != null) {
+            indexes.update(previous, null);
+            for (TransactionChangeListener listener : listeners) {
+                listener.onChange(previous, null);
+            }
+        }
+    }
+
+    private void clearStore() {
         store.clear();
+        indexes.clear();
+        listeners.forEach(TransactionChangeListener::onClear);
+    }
+
+    // whether a change needs the stored transaction it replaces
+    private boolean tracksChanges() {
+        return !indexes.isEmpty() || !listeners.isEmpty();
+    }
+
+    private ReentrantLock lockFor(long id) {
+        return locks[(int) (id ^ (id >>> 32)) & (LOCK_STRIPES - 1)];
+    }
+
+    private void beginMutation() {
+        if (wal != null) {
+            wal.beginMutation();
+        }
+    }
+
+    private void endMutation() {
+        if (wal != null) {
+            wal.endMutation();
+        }
+    }
+
+    private void awaitDurable(long position) {
+        if (wal != null) {
+            wal.awaitDurable(position);
+        }
     }
 }
@@ -0,0 +1,50 @@
+package com.hsbc.billing.transaction.repository;
+
+import com.hsbc.billing.transaction.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Primary storage of {@link TransactionRepository}, keyed by the snowflake id and ordered by it. Implementations must be
+ * thread-safe, the repository serializes the mutations of one id itself.
+ *
+ * @author Nickel Fang 2025/5/9
+ */
+public interface TransactionStore {
+
+    Transaction get(long id);
+
+    boolean contains(long id);
+
+    void put(Transaction transaction);
+
+    void remove(long id);
+
+    long size();
+
+    void clear();
+
+    /**
+     * weakly consistent ordered read: skips {@code skip} transactions with an id greater than {@code after}
+     * and returns up to {@code limit} of the following ones in ascending id order
+     */
+    default List<Transaction> scan(long after, long skip, int limit) {
+        return scan(after, Long.MAX_VALUE, skip, limit);
+    }
+
+    /**
+     * {@link #scan(long, long, int)} stopping at the first id not less than {@code before}
+     */
+    List<Transaction> scan(long after, long before, long skip, int limit);
+
+    /**
+     * independent partitions of the store, the repository partitions its secondary indexes the same way
+     */
+    default int shards() {
+        return 1;
+    }
+
+    default int shardOf(long id) {
+        return 0;
+    }
+}
@@ -0,0 +1,162 @@
+package com.hsbc.billing.transaction.repository.codec;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only {@link Transaction} over a record encoded by {@link TransactionCodec}, every getter decodes its field on access,
+ * so mapping it with {@link Transaction#toDTO(Transaction)} skips the fields a response does not carry.
+ *
+ * @author Nickel Fang 2025/5/9
+ */
+public final class CompactTransactionView extends Transaction {
+
+    private final byte[] bytes;
+
+    CompactTransactionView(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    @Override
+    public Long getId() {
+        return TransactionCodec.getLong(bytes, TransactionCodec.ID);
+    }
+
+    @Override
+    public BigDecimal getAmount() {
+        return TransactionCodec.amount(bytes);
+    }
+
+    @Override
+    public String getCurrency() {
+        return TransactionCodec.currency(bytes);
+    }
+
+    @Override
+    public TransactionType getType() {
+        return TransactionCodec.type(bytes);
+    }
+
+    @Override
+    public String getSenderAccount() {
+        return TransactionCodec.string(bytes, TransactionCodec.SENDER_ACCOUNT);
+    }
+
+    @Override
+    public String getReceiverAccount() {
+        return TransactionCodec.string(bytes, TransactionCodec.RECEIVER_ACCOUNT);
+    }
+
+    @Override
+    public String getBeneficiaryName() {
+        return TransactionCodec.string(bytes, TransactionCodec.BENEFICIARY_NAME);
+    }
+
+    @Override
+    public String getChannel() {
+        return TransactionCodec.string(bytes, TransactionCodec.CHANNEL);
+    }
+
+    @Override
+    public TransactionStatus getStatus() {
+        return TransactionCodec.status(bytes);
+    }
+
+    @Override
+    public String getDescription() {
+        return TransactionCodec.string(bytes, TransactionCodec.DESCRIPTION);
+    }
+
+    @Override
+    public LocalDateTime getTransactionTime() {
+        return TransactionCodec.transactionTime(bytes);
+    }
+
+    @Override
+    public String getIpAddress() {
+        return TransactionCodec.string(bytes, TransactionCodec.IP_ADDRESS);
+    }
+
+    @Override
+    public String getDeviceFingerprint() {
+        return TransactionCodec.string(bytes, TransactionCodec.DEVICE_FINGERPRINT);
+    }
+
+    @Override
+    public void setId(Long id) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setAmount(BigDecimal amount) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setCurrency(String currency) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setType(TransactionType type) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setSenderAccount(String senderAccount) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setReceiverAccount(String receiverAccount) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setBeneficiaryName(String beneficiaryName) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setChannel(String channel) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setStatus(TransactionStatus status) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setDescription(String description) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setTransactionTime(LocalDateTime transactionTime) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setIpAddress(String ipAddress) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public void setDeviceFingerprint(String deviceFingerprint) {
+        throw new UnsupportedOperationException("CompactTransactionView is read-only");
+    }
+
+    @Override
+    public String toString() {
+        return TransactionCodec.decode(bytes).toString();
+    }
+}
@@ -0,0 +1,265 @@
+package com.hsbc.billing.transaction.repository.codec;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Compact binary encoding of {@link Transaction}, shared by the compact store, the write-ahead log and its snapshots.
+ * <pre>
+ * fixed header (32 bytes)
+ *   0  long  id
+ *   8  long  amount unscaled value
+ *  16  byte  amount scale
+ *  17  3     currency, ASCII
+ *  20  byte  type ordinal, -1 for null
+ *  21  byte  status ordinal, -1 for null
+ *  22  byte  flags
+ *  23  long  transaction time, epoch micros in UTC
+ *  31  byte  reserved
+ * packed tail
+ *  senderAccount, receiverAccount, beneficiaryName, channel, description, ipAddress, deviceFingerprint as
+ *  varint (UTF-8 length + 1, 0 for null) followed by the bytes, then the amount or currency when flagged as not fitting the header
+ * </pre>
+ *
+ * @author Nickel Fang 2025/5/9
+ */
+public final class TransactionCodec {
+
+    public static final int HEADER_BYTES = 32;
+
+    static final int ID = 0;
+    static final int AMOUNT_UNSCALED = 8;
+    static final int AMOUNT_SCALE = 16;
+    static final int CURRENCY = 17;
+    static final int TYPE = 20;
+    static final int STATUS = 21;
+    static final int FLAGS = 22;
+    static final int TIME = 23;
+
+    static final int FLAG_AMOUNT_NULL = 1;
+    static final int FLAG_AMOUNT_IN_TAIL = 1 << 1;
+    static final int FLAG_CURRENCY_NULL = 1 << 2;
+    static final int FLAG_CURRENCY_IN_TAIL = 1 << 3;
+    static final int FLAG_TIME_NULL = 1 << 4;
+
+    // tail string positions
+    static final int SENDER_ACCOUNT = 0;
+    static final int RECEIVER_ACCOUNT = 1;
+    static final int BENEFICIARY_NAME = 2;
+    static final int CHANNEL = 3;
+    static final int DESCRIPTION = 4;
+    static final int IP_ADDRESS = 5;
+    static final int DEVICE_FINGERPRINT = 6;
+    static final int AMOUNT_TEXT = 7;
+    static final int CURRENCY_TEXT = 8;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private TransactionCodec() {
+    }
+
+    public static byte[] encode(Transaction transaction) {
+        int flags = 0;
+        final BigDecimal amount = transaction.getAmount();
+        String amountText = null;
+        if (amount == null) {
+            flags |= FLAG_AMOUNT_NULL;
+        } else if (amount.unscaledValue().bitLength() >= Long.SIZE || amount.scale() != (byte) amount.scale()) {
+            flags |= FLAG_AMOUNT_IN_TAIL;
+            amountText = amount.toString();
+        }
+        final String currency = transaction.getCurrency();
+        String currencyText = null;
+        if (currency == null) {
+            flags |= FLAG_CURRENCY_NULL;
+        } else if (!isAsciiCode(currency)) {
+            flags |= FLAG_CURRENCY_IN_TAIL;
+            currencyText = currency;
+        }
+        if (transaction.getTransactionTime() == null) {
+            flags |= FLAG_TIME_NULL;
+        }
+
+        final byte[][] strings = {
+                utf8(transaction.getSenderAccount()),
+                utf8(transaction.getReceiverAccount()),
+                utf8(transaction.getBeneficiaryName()),
+                utf8(transaction.getChannel()),
+                utf8(transaction.getDescription()),
+                utf8(transaction.getIpAddress()),
+                utf8(transaction.getDeviceFingerprint()),
+                utf8(amountText),
+                utf8(currencyText)
+        };
+        int size = HEADER_BYTES;
+        for (byte[] string : strings) {
+            size += string == null ? 1 : varintSize(string.length + 1) + string.length;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(ID, transaction.getId());
+        if ((flags & (FLAG_AMOUNT_NULL | FLAG_AMOUNT_IN_TAIL)) == 0) {
+            buffer.putLong(AMOUNT_UNSCALED, amount.unscaledValue().longValue());
+            buffer.put(AMOUNT_SCALE, (byte) amount.scale());
+        }
+        if ((flags & (FLAG_CURRENCY_NULL | FLAG_CURRENCY_IN_TAIL)) == 0) {
+            for (int i = 0; i < 3; i++) {
+                buffer.put(CURRENCY + i, (byte) currency.charAt(i));
+            }
+        }
+        buffer.put(TYPE, (byte) (transaction.getType() == null ? -1 : transaction.getType().ordinal()));
+        buffer.put(STATUS, (byte) (transaction.getStatus() == null ? -1 : transaction.getStatus().ordinal()));
+        buffer.put(FLAGS, (byte) flags);
+        if (transaction.getTransactionTime() != null) {
+            buffer.putLong(TIME, toEpochMicros(transaction.getTransactionTime()));
+        }
+        buffer.position(HEADER_BYTES);
+        for (byte[] string : strings) {
+            if (string == null) {
+                buffer.put((byte) 0);
+            } else {
+                putVarint(buffer, string.length + 1);
+                buffer.put(string);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * decodes every field, use {@link #view(byte[])} when only some of them are read
+     */
+    public static Transaction decode(byte[] bytes) {
+        final CompactTransactionView view = view(bytes);
+        final Transaction transaction = new Transaction();
+        transaction.setId(view.getId());
+        transaction.setAmount(view.getAmount());
+        transaction.setCurrency(view.getCurrency());
+        transaction.setType(view.getType());
+        transaction.setSenderAccount(view.getSenderAccount());
+        transaction.setReceiverAccount(view.getReceiverAccount());
+        transaction.setBeneficiaryName(view.getBeneficiaryName());
+        transaction.setChannel(view.getChannel());
+        transaction.setStatus(view.getStatus());
+        transaction.setDescription(view.getDescription());
+        transaction.setTransactionTime(view.getTransactionTime());
+        transaction.setIpAddress(view.getIpAddress());
+        transaction.setDeviceFingerprint(view.getDeviceFingerprint());
+        return transaction;
+    }
+
+    public static CompactTransactionView view(byte[] bytes) {
+        return new CompactTransactionView(bytes);
+    }
+
+    public static long toEpochMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), time);
+    }
+
+    public static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000,
+                ZoneOffset.UTC);
+    }
+
+    static long getLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    static BigDecimal amount(byte[] bytes) {
+        final int flags = bytes[FLAGS];
+        if ((flags & FLAG_AMOUNT_NULL) != 0) {
+            return null;
+        }
+        if ((flags & FLAG_AMOUNT_IN_TAIL) != 0) {
+            return new BigDecimal(string(bytes, AMOUNT_TEXT));
+        }
+        return BigDecimal.valueOf(getLong(bytes, AMOUNT_UNSCALED), bytes[AMOUNT_SCALE]);
+    }
+
+    static String currency(byte[] bytes) {
+        final int flags = bytes[FLAGS];
+        if ((flags & FLAG_CURRENCY_NULL) != 0) {
+            return null;
+        }
+        if ((flags & FLAG_CURRENCY_IN_TAIL) != 0) {
+            return string(bytes, CURRENCY_TEXT);
+        }
+        return new String(bytes, CURRENCY, 3, StandardCharsets.US_ASCII);
+    }
+
+    static TransactionType type(byte[] bytes) {
+        return bytes[TYPE] < 0 ? null : TYPES[bytes[TYPE]];
+    }
+
+    static TransactionStatus status(byte[] bytes) {
+        return bytes[STATUS] < 0 ? null : STATUSES[bytes[STATUS]];
+    }
+
+    static LocalDateTime transactionTime(byte[] bytes) {
+        return (bytes[FLAGS] & FLAG_TIME_NULL) != 0 ? null : fromEpochMicros(getLong(bytes, TIME));
+    }
+
+    // skips the varint prefixed strings in front of the requested one
+    static String string(byte[] bytes, int index) {
+        int position = HEADER_BYTES;
+        for (int i = 0; ; i++) {
+            int lengthPlusOne = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                lengthPlusOne |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (i == index) {
+                return lengthPlusOne == 0 ? null : new String(bytes, position, lengthPlusOne - 1, StandardCharsets.UTF_8);
+            }
+            position += Math.max(0, lengthPlusOne - 1);
+        }
+    }
+
+    private static boolean isAsciiCode(String currency) {
+        if (currency.length() != 3) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            if (currency.charAt(i) == 0 || currency.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -0,0 +1,130 @@
+package com.hsbc.billing.transaction.repository.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Slab allocator over direct buffers. Blocks are bump-allocated from fixed size slabs and recycled through one
+ * intrusive free list per size class, the next pointer lives in the freed block itself.
+ * <pre>
+ * block
+ *   0  int   block size, header included
+ *   4  int   record length
+ *   8  ...   record bytes, or the next free block address while the block is free
+ * </pre>
+ * Block sizes are multiples of 16 bytes up to 4 KB and powers of two above. An address is {@code (slab + 1) << 32 | offset},
+ * so 0 never names a block. Not thread-safe, the owning store guards it.
+ *
+ * @author Nickel Fang 2025/5/10
+ */
+class OffHeapArena {
+
+    static final int BLOCK_HEADER_BYTES = 8;
+
+    private static final int SMALL_LIMIT = 4096;
+    private static final int SMALL_CLASSES = SMALL_LIMIT / 16;
+
+    private final int slabSize;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final long[] freeLists = new long[SMALL_CLASSES + Integer.SIZE];
+    private int top;
+
+    OffHeapArena(int slabSize) {
+        if (slabSize < SMALL_LIMIT) {
+            throw new IllegalArgumentException("slab size must be at least " + SMALL_LIMIT + " bytes");
+        }
+        this.slabSize = slabSize;
+        this.top = slabSize;
+    }
+
+    long allocate(int length) {
+        final int blockSize = blockSize(length + BLOCK_HEADER_BYTES);
+        if (blockSize > slabSize) {
+            throw new IllegalArgumentException("record of " + length + " bytes does not fit a " + slabSize + " bytes slab");
+        }
+        final int sizeClass = sizeClass(blockSize);
+        long address = freeLists[sizeClass];
+        if (address != 0) {
+            freeLists[sizeClass] = slab(address).getLong(offset(address) + BLOCK_HEADER_BYTES);
+        } else {
+            if (top + blockSize > slabSize) {
+                slabs.add(ByteBuffer.allocateDirect(slabSize));
+                top = 0;
+            }
+            address = ((long) slabs.size() << 32) | top;
+            top += blockSize;
+            slab(address).putInt(offset(address), blockSize);
+        }
+        slab(address).putInt(offset(address) + 4, length);
+        return address;
+    }
+
+    void free(long address) {
+        final ByteBuffer slab = slab(address);
+        final int offset = offset(address);
+        final int sizeClass = sizeClass(slab.getInt(offset));
+        slab.putLong(offset + BLOCK_HEADER_BYTES, freeLists[sizeClass]);
+        freeLists[sizeClass] = address;
+    }
+
+    /**
+     * overwrites the record in place when it fits the block, returns false otherwise
+     */
+    boolean overwrite(long address, byte[] bytes) {
+        final ByteBuffer slab = slab(address);
+        final int offset = offset(address);
+        if (slab.getInt(offset) - BLOCK_HEADER_BYTES < bytes.length) {
+            return false;
+        }
+        slab.putInt(offset + 4, bytes.length);
+        slab.put(offset + BLOCK_HEADER_BYTES, bytes);
+        return true;
+    }
+
+    void write(long address, byte[] bytes) {
+        slab(address).put(offset(address) + BLOCK_HEADER_BYTES, bytes);
+    }
+
+    // absolute gets only, safe for concurrent readers
+    byte[] read(long address) {
+        final ByteBuffer slab = slab(address);
+        final int offset = offset(address);
+        final byte[] bytes = new byte[slab.getInt(offset + 4)];
+        slab.get(offset + BLOCK_HEADER_BYTES, bytes);
+        return bytes;
+    }
+
+    void clear() {
+        slabs.clear();
+        Arrays.fill(freeLists, 0);
+        top = slabSize;
+    }
+
+    long reservedBytes() {
+        return (long) slabs.size() * slabSize;
+    }
+
+    static int blockSize(int size) {
+        if (size <= SMALL_LIMIT) {
+            return (size + 15) & ~15;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static int sizeClass(int blockSize) {
+        if (blockSize <= SMALL_LIMIT) {
+            return (blockSize >>> 4) - 1;
+        }
+        return SMALL_CLASSES + Integer.numberOfTrailingZeros(blockSize);
+    }
+
+    private ByteBuffer slab(long address) {
+        return slabs.get((int) (address >>> 32) - 1);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,133 @@
+package com.hsbc.billing.transaction.repository.offheap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Open addressing long to long map in a direct buffer, 16 byte slots of key and value probed linearly.
+ * Key 0 marks an empty slot and the value 0 means absent, removals shift the following entries back so no
+ * tombstones are needed. Not thread-safe, the owning store guards it.
+ *
+ * @author Nickel Fang 2025/5/10
+ */
+class OffHeapLongIndex {
+
+    private static final int SLOT_BYTES = 16;
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+
+    OffHeapLongIndex(int initialCapacity) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1));
+    }
+
+    long get(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            final long current = table.getLong(slot * SLOT_BYTES);
+            if (current == key) {
+                return table.getLong(slot * SLOT_BYTES + 8);
+            }
+            if (current == 0) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * returns the previous value, 0 when the key was absent
+     */
+    long put(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            final long current = table.getLong(slot * SLOT_BYTES);
+            if (current == key) {
+                final long previous = table.getLong(slot * SLOT_BYTES + 8);
+                table.putLong(slot * SLOT_BYTES + 8, value);
+                return previous;
+            }
+            if (current == 0) {
+                table.putLong(slot * SLOT_BYTES, key);
+                table.putLong(slot * SLOT_BYTES + 8, value);
+                if (++size > (mask + 1) / 4 * 3) {
+                    resize();
+                }
+                return 0;
+            }
+        }
+    }
+
+    long remove(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            final long current = table.getLong(slot * SLOT_BYTES);
+            if (current == 0) {
+                return 0;
+            }
+            if (current == key) {
+                final long previous = table.getLong(slot * SLOT_BYTES + 8);
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    void clear() {
+        allocate(16);
+    }
+
+    private void shiftBack(int hole) {
+        for (int slot = (hole + 1) & mask; ; slot = (slot + 1) & mask) {
+            final long key = table.getLong(slot * SLOT_BYTES);
+            if (key == 0) {
+                break;
+            }
+            // the entry may move into the hole only when the hole lies on its probe path
+            final int home = slot(key);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                table.putLong(hole * SLOT_BYTES, key);
+                table.putLong(hole * SLOT_BYTES + 8, table.getLong(slot * SLOT_BYTES + 8));
+                hole = slot;
+            }
+        }
+        table.putLong(hole * SLOT_BYTES, 0);
+        table.putLong(hole * SLOT_BYTES + 8, 0);
+    }
+
+    private void resize() {
+        if (mask + 1 >= MAX_CAPACITY) {
+            throw new IllegalStateException("off-heap index is full at " + size + " entries");
+        }
+        final ByteBuffer old = table;
+        final int oldCapacity = mask + 1;
+        allocate(oldCapacity << 1);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            final long key = old.getLong(slot * SLOT_BYTES);
+            if (key != 0) {
+                put(key, old.getLong(slot * SLOT_BYTES + 8));
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+}
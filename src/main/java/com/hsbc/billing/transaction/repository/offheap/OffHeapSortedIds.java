@@ -0,0 +1,115 @@
+package com.hsbc.billing.transaction.repository.offheap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ascending array of positive ids in a direct buffer for ordered scans. Snowflake ids arrive almost sorted, so an insert
+ * is an append in the common case. A removed id stays in place negated as a tombstone, binary searches compare absolute
+ * values, and the array is compacted once tombstones pass a quarter of it. Not thread-safe, the owning store guards it.
+ *
+ * @author Nickel Fang 2025/5/10
+ */
+class OffHeapSortedIds {
+
+    private ByteBuffer ids;
+    private int length;
+    private int tombstones;
+
+    OffHeapSortedIds(int initialCapacity) {
+        ids = ByteBuffer.allocateDirect(Math.max(16, initialCapacity) * Long.BYTES);
+    }
+
+    void add(long id) {
+        if (length == 0 || Math.abs(at(length - 1)) < id) {
+            ensureCapacity();
+            ids.putLong(length++ * Long.BYTES, id);
+            return;
+        }
+        final int index = search(id);
+        if (index < length && Math.abs(at(index)) == id) {
+            if (at(index) < 0) {
+                ids.putLong(index * Long.BYTES, id);
+                tombstones--;
+            }
+            return;
+        }
+        ensureCapacity();
+        for (int i = length; i > index; i--) {
+            ids.putLong(i * Long.BYTES, at(i - 1));
+        }
+        ids.putLong(index * Long.BYTES, id);
+        length++;
+    }
+
+    void remove(long id) {
+        final int index = search(id);
+        if (index < length && at(index) == id) {
+            ids.putLong(index * Long.BYTES, -id);
+            if (++tombstones > length / 4) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * index of the first live or dead id greater than {@code after}
+     */
+    int firstAfter(long after) {
+        if (after == Long.MAX_VALUE) {
+            return length;
+        }
+        return after < 0 ? 0 : search(after + 1);
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * the id at {@code index}, negative for a tombstone
+     */
+    long at(int index) {
+        return ids.getLong(index * Long.BYTES);
+    }
+
+    void clear() {
+        length = 0;
+        tombstones = 0;
+    }
+
+    // first index whose absolute value is not less than id
+    private int search(long id) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (Math.abs(at(middle)) < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < length; i++) {
+            final long id = at(i);
+            if (id > 0) {
+                ids.putLong(live++ * Long.BYTES, id);
+            }
+        }
+        length = live;
+        tombstones = 0;
+    }
+
+    private void ensureCapacity() {
+        if ((length + 1) * Long.BYTES <= ids.capacity()) {
+            return;
+        }
+        final ByteBuffer grown = ByteBuffer.allocateDirect(ids.capacity() * 2);
+        grown.put(0, ids, 0, length * Long.BYTES);
+        ids = grown;
+    }
+}
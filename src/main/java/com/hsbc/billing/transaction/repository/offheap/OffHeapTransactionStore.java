@@ -0,0 +1,169 @@
+package com.hsbc.billing.transaction.repository.offheap;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionStore;
+import com.hsbc.billing.transaction.repository.codec.CompactTransactionView;
+import com.hsbc.billing.transaction.repository.codec.TransactionCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the {@link TransactionCodec} records, the id index and the ordered ids outside the Java heap, so the collector
+ * only ever sees the views handed out by reads. Ids must be positive, which snowflake ids always are.
+ *
+ * @author Nickel Fang 2025/5/10
+ */
+public class OffHeapTransactionStore implements TransactionStore {
+
+    private final OffHeapArena arena;
+    private final OffHeapLongIndex index;
+    private final OffHeapSortedIds orderedIds;
+
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    public OffHeapTransactionStore(int slabSize, int initialCapacity) {
+        this.arena = new OffHeapArena(slabSize);
+        this.index = new OffHeapLongIndex(initialCapacity);
+        this.orderedIds = new OffHeapSortedIds(initialCapacity);
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+    }
+
+    @Override
+    public Transaction get(long id) {
+        if (id <= 0) {
+            return null;
+        }
+        readLock.lock();
+        try {
+            return read(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(long id) {
+        if (id <= 0) {
+            return false;
+        }
+        readLock.lock();
+        try {
+            return index.get(id) != 0;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        final long id = transaction.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("off-heap store requires positive ids, got " + id);
+        }
+        final byte[] bytes = transaction instanceof CompactTransactionView view ? view.bytes() : TransactionCodec.encode(transaction);
+        writeLock.lock();
+        try {
+            final long current = index.get(id);
+            if (current != 0 && arena.overwrite(current, bytes)) {
+                return;
+            }
+            final long address = arena.allocate(bytes.length);
+            arena.write(address, bytes);
+            index.put(id, address);
+            if (current != 0) {
+                arena.free(current);
+            } else {
+                orderedIds.add(id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        if (id <= 0) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            final long address = index.remove(id);
+            if (address != 0) {
+                arena.free(address);
+                orderedIds.remove(id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        readLock.lock();
+        try {
+            return index.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            index.clear();
+            orderedIds.clear();
+            arena.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Transaction> scan(long after, long before, long skip, int limit) {
+        final List<Transaction> transactions = new ArrayList<>(Math.min(limit, 1024));
+        readLock.lock();
+        try {
+            for (int i = orderedIds.firstAfter(after); i < orderedIds.length() && transactions.size() < limit; i++) {
+                final long id = orderedIds.at(i);
+                if (id < 0) {
+                    continue;
+                }
+                if (id >= before) {
+                    break;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                transactions.add(read(id));
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return transactions;
+    }
+
+    /**
+     * bytes reserved by the record slabs, excluding the index and the ordered ids
+     */
+    public long reservedBytes() {
+        readLock.lock();
+        try {
+            return arena.reservedBytes();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private Transaction read(long id) {
+        final long address = index.get(id);
+        return address == 0 ? null : TransactionCodec.view(arena.read(address));
+    }
+}
@@ -0,0 +1,17 @@
+package com.hsbc.billing.transaction.repository.wal;
+
+/**
+ * @author Nickel Fang 2025/5/9
+ */
+public enum WalRecordType {
+    SAVE,
+    UPDATE,
+    DELETE,
+    CLEAR;
+
+    private static final WalRecordType[] VALUES = values();
+
+    public static WalRecordType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,15 @@
+package com.hsbc.billing.transaction.repository.wal;
+
+import com.hsbc.billing.transaction.model.Transaction;
+
+/**
+ * Receives the snapshot entries (as {@link WalRecordType#SAVE}) and then the log records in append order during recovery.
+ * The transaction is null for {@link WalRecordType#DELETE} and {@link WalRecordType#CLEAR}.
+ *
+ * @author Nickel Fang 2025/5/9
+ */
+@FunctionalInterface
+public interface WalReplayHandler {
+
+    void replay(WalRecordType type, long id, Transaction transaction);
+}
@@ -0,0 +1,11 @@
+package com.hsbc.billing.transaction.repository.wal;
+
+/**
+ * @author Nickel Fang 2025/5/9
+ */
+public enum WalSyncMode {
+    // a write returns once the group commit covering it has been forced to disk
+    GROUP,
+    // a write returns once appended, the log is forced every flush interval in the background
+    ASYNC
+}
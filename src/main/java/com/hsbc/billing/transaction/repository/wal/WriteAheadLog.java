@@ -0,0 +1,493 @@
+package com.hsbc.billing.transaction.repository.wal;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.codec.TransactionCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of repository mutations in memory-mapped segment files.
+ * <p>
+ * Record layout: {@code int length | int crc32c | byte type | long id | payload}, a zero length marks the end of a segment.
+ * Writers append under a short lock and, in {@link WalSyncMode#GROUP} mode, wait until a background flusher has forced
+ * the segment, so one {@code force} covers every write appended since the previous one. Every
+ * {@code snapshotIntervalRecords} records the flusher rolls to a new segment, writes the current state as a snapshot
+ * named after that segment and deletes the older segments, which keeps recovery bounded to one snapshot plus the tail.
+ * <p>
+ * A failed {@code force} fails the log: what it covered may not be on disk, so no later write is acknowledged and
+ * {@link #append} and {@link #awaitDurable} throw until the service is restarted and recovers from the files.
+ *
+ * @author Nickel Fang 2025/5/9
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int RECORD_BODY_HEADER_BYTES = 9;
+    private static final int SNAPSHOT_END = -1;
+
+    private final Path dir;
+    private final int segmentSize;
+    private final WalSyncMode syncMode;
+    private final long flushIntervalMillis;
+    private final long snapshotIntervalRecords;
+
+    // held shared by every mutation from its append to its apply, exclusively when choosing a snapshot boundary
+    private final ReentrantReadWriteLock mutationLock = new ReentrantReadWriteLock();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushRequested = flushLock.newCondition();
+    private final Condition flushed = flushLock.newCondition();
+
+    // guarded by appendLock
+    private Segment current;
+    private final List<Segment> rolled = new ArrayList<>();
+    private long recordsSinceSnapshot;
+
+    private volatile long appendedPosition;
+    private volatile long durablePosition;
+    private volatile boolean running;
+    private volatile RuntimeException failure;
+    private Thread flusher;
+    private Supplier<? extends Iterable<Transaction>> snapshotSource;
+
+    public WriteAheadLog(Path dir, int segmentSize, WalSyncMode syncMode, long flushIntervalMillis, long snapshotIntervalRecords) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.syncMode = syncMode;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.snapshotIntervalRecords = snapshotIntervalRecords;
+    }
+
+    /**
+     * replays the latest snapshot and the log after it into the handler, then starts accepting appends
+     *
+     * @param snapshotSource the current state of the repository, read when a snapshot is taken
+     */
+    public void open(WalReplayHandler handler, Supplier<? extends Iterable<Transaction>> snapshotSource) {
+        this.snapshotSource = snapshotSource;
+        try {
+            Files.createDirectories(dir);
+            final long snapshotIndex = loadLatestSnapshot(handler);
+            recordsSinceSnapshot = 0;
+            boolean torn = false;
+            for (long index : listIndexes(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                if (index < snapshotIndex) {
+                    Files.deleteIfExists(segmentPath(index));
+                    continue;
+                }
+                // a segment is forced before any record after it is acknowledged, so nothing past a torn write was
+                if (torn) {
+                    log.warn("Deleting write-ahead log segment {} after a torn write", segmentPath(index));
+                    Files.deleteIfExists(segmentPath(index));
+                    continue;
+                }
+                final Segment segment = Segment.open(segmentPath(index), index, segmentSize);
+                torn = !replay(segment, handler);
+                if (current != null) {
+                    current.close();
+                }
+                current = segment;
+            }
+            if (current == null) {
+                current = Segment.open(segmentPath(Math.max(1, snapshotIndex)), Math.max(1, snapshotIndex), segmentSize);
+            }
+            log.info("Recovered write-ahead log in {} from snapshot {} and {} log records", dir, snapshotIndex, recordsSinceSnapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover write-ahead log in " + dir, e);
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * must be called before {@link #append} and kept until the mutation is visible in the repository state
+     */
+    public void beginMutation() {
+        mutationLock.readLock().lock();
+    }
+
+    public void endMutation() {
+        mutationLock.readLock().unlock();
+    }
+
+    /**
+     * @return the log position after the record, to be passed to {@link #awaitDurable(long)}
+     */
+    public long append(WalRecordType type, long id, byte[] payload) {
+        final int length = RECORD_BODY_HEADER_BYTES + payload.length;
+        if (RECORD_HEADER_BYTES + length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes exceeds the segment size " + segmentSize);
+        }
+        final CRC32C crc = new CRC32C();
+        final ByteBuffer header = ByteBuffer.allocate(RECORD_BODY_HEADER_BYTES).put((byte) type.ordinal()).putLong(id).flip();
+        crc.update(header);
+        crc.update(payload);
+
+        appendLock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            checkNotFailed();
+            if (current.buffer.remaining() < RECORD_HEADER_BYTES + length) {
+                roll();
+            }
+            current.buffer.putInt(length)
+                    .putInt((int) crc.getValue())
+                    .put((byte) type.ordinal())
+                    .putLong(id)
+                    .put(payload);
+            recordsSinceSnapshot++;
+            appendedPosition += RECORD_HEADER_BYTES + length;
+            return appendedPosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void awaitDurable(long position) {
+        if (syncMode == WalSyncMode.ASYNC || durablePosition >= position) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushRequested.signal();
+            while (durablePosition < position) {
+                checkNotFailed();
+                if (!running) {
+                    throw new IllegalStateException("Write-ahead log closed before the record was flushed");
+                }
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write-ahead log flush", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            flushLock.lock();
+            try {
+                if (durablePosition == appendedPosition) {
+                    flushRequested.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                flushLock.unlock();
+            }
+            try {
+                flush();
+                if (recordsSinceSnapshot >= snapshotIntervalRecords) {
+                    snapshot();
+                }
+            } catch (Exception e) {
+                if (failure != null) {
+                    return;
+                }
+                log.error("Write-ahead log snapshot failed", e);
+            }
+        }
+    }
+
+    private void checkNotFailed() {
+        final RuntimeException cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Write-ahead log failed, restart to recover from " + dir, cause);
+        }
+    }
+
+    void flush() {
+        checkNotFailed();
+        final long target;
+        final List<Segment> toForce;
+        final Segment segment;
+        appendLock.lock();
+        try {
+            target = appendedPosition;
+            toForce = new ArrayList<>(rolled);
+            segment = current;
+        } finally {
+            appendLock.unlock();
+        }
+        if (target == durablePosition) {
+            return;
+        }
+        try {
+            // a rolled segment is only let go once forced, the records of the current one count on it
+            for (Segment rolledSegment : toForce) {
+                rolledSegment.buffer.force();
+                appendLock.lock();
+                try {
+                    rolled.remove(rolledSegment);
+                } finally {
+                    appendLock.unlock();
+                }
+                rolledSegment.close();
+            }
+            segment.buffer.force();
+        } catch (RuntimeException e) {
+            fail(e);
+            throw e;
+        }
+
+        flushLock.lock();
+        try {
+            durablePosition = Math.max(durablePosition, target);
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void fail(RuntimeException cause) {
+        log.error("Write-ahead log in {} failed to force its segments, no further writes are accepted", dir, cause);
+        flushLock.lock();
+        try {
+            failure = cause;
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    void snapshot() throws IOException {
+        final long boundary;
+        mutationLock.writeLock().lock();
+        try {
+            appendLock.lock();
+            try {
+                roll();
+                boundary = current.index;
+                recordsSinceSnapshot = 0;
+            } finally {
+                appendLock.unlock();
+            }
+        } finally {
+            mutationLock.writeLock().unlock();
+        }
+
+        // every mutation logged before the boundary is applied, the ones after it are replayed on top of the snapshot
+        final Path tmp = dir.resolve(SNAPSHOT_PREFIX + boundary + ".tmp");
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            for (Transaction transaction : snapshotSource.get()) {
+                final byte[] payload = TransactionCodec.encode(transaction);
+                out.writeInt(payload.length);
+                out.write(payload);
+                count++;
+            }
+            out.writeInt(SNAPSHOT_END);
+            out.writeLong(count);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, snapshotPath(boundary), StandardCopyOption.ATOMIC_MOVE);
+        flush();
+
+        for (long index : listIndexes(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (index < boundary) {
+                Files.deleteIfExists(snapshotPath(index));
+            }
+        }
+        for (long index : listIndexes(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (index < boundary) {
+                Files.deleteIfExists(segmentPath(index));
+            }
+        }
+        log.info("Wrote write-ahead log snapshot {} with {} transactions", boundary, count);
+    }
+
+    // appendLock must be held
+    private void roll() {
+        try {
+            rolled.add(current);
+            current = Segment.open(segmentPath(current.index + 1), current.index + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll write-ahead log segment", e);
+        }
+    }
+
+    // snapshots are only renamed to .snap once fully written and forced, so an incomplete one means a damaged disk
+    private long loadLatestSnapshot(WalReplayHandler handler) throws IOException {
+        final List<Long> indexes = listIndexes(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (indexes.isEmpty()) {
+            return 0;
+        }
+        final long index = indexes.get(indexes.size() - 1);
+        final Path path = snapshotPath(index);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            long count = 0;
+            int length;
+            while ((length = in.readInt()) != SNAPSHOT_END) {
+                final byte[] payload = new byte[length];
+                in.readFully(payload);
+                final Transaction transaction = TransactionCodec.decode(payload);
+                handler.replay(WalRecordType.SAVE, transaction.getId(), transaction);
+                count++;
+            }
+            if (in.readLong() != count) {
+                throw new IllegalStateException("Corrupted write-ahead log snapshot " + path);
+            }
+        } catch (EOFException e) {
+            throw new IllegalStateException("Truncated write-ahead log snapshot " + path, e);
+        }
+        return index;
+    }
+
+    // replays the records of a segment and leaves its buffer positioned after the last valid one, false when it ends in
+    // a torn write
+    private boolean replay(Segment segment, WalReplayHandler handler) {
+        final MappedByteBuffer buffer = segment.buffer;
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            final int start = buffer.position();
+            final int length = buffer.getInt(start);
+            if (length == 0) {
+                break;
+            }
+            if (!isValidRecord(buffer, start, length)) {
+                // torn write at the tail of the log, drop it and anything after it
+                log.warn("Truncating write-ahead log segment {} at {}", segment.path, start);
+                for (int i = start; i < buffer.limit(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                return false;
+            }
+            final WalRecordType type = WalRecordType.of(buffer.get(start + RECORD_HEADER_BYTES));
+            final long id = buffer.getLong(start + RECORD_HEADER_BYTES + 1);
+            Transaction transaction = null;
+            if (type == WalRecordType.SAVE || type == WalRecordType.UPDATE) {
+                final byte[] payload = new byte[length - RECORD_BODY_HEADER_BYTES];
+                buffer.get(start + RECORD_HEADER_BYTES + RECORD_BODY_HEADER_BYTES, payload);
+                transaction = TransactionCodec.decode(payload);
+            }
+            handler.replay(type, id, transaction);
+            buffer.position(start + RECORD_HEADER_BYTES + length);
+            recordsSinceSnapshot++;
+        }
+        return true;
+    }
+
+    private boolean isValidRecord(MappedByteBuffer buffer, int start, int length) {
+        if (length < RECORD_BODY_HEADER_BYTES || length > buffer.limit() - start - RECORD_HEADER_BYTES) {
+            return false;
+        }
+        final CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + RECORD_HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(start + 4);
+    }
+
+    private List<Long> listIndexes(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotPath(long index) {
+        return dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, index, SNAPSHOT_SUFFIX));
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flushLock.lock();
+        try {
+            flushRequested.signal();
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure == null) {
+            flush();
+        }
+        rolled.forEach(Segment::close);
+        current.close();
+        flushLock.lock();
+        try {
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long index;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path path, long index, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long index, int size) throws IOException {
+            final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close write-ahead log segment {}", path, e);
+            }
+        }
+    }
+}
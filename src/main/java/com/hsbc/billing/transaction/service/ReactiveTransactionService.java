@@ -0,0 +1,49 @@
+package com.hsbc.billing.transaction.service;
+
+import com.hsbc.billing.transaction.dto.BatchCreateResponse;
+import com.hsbc.billing.transaction.dto.ImportResult;
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
+import com.hsbc.billing.transaction.model.Transaction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link TransactionService} and {@link TransactionBulkService} behind /api/v3. Lists and
+ * exports read the repository one page per downstream demand, so a slow consumer holds back the reads instead of
+ * buffering the result.
+ *
+ * @author Nickel Fang 2025/5/20
+ */
+public interface ReactiveTransactionService {
+
+    Mono<TransactionResponse> createTransaction(TransactionRequest transactionRequest);
+
+    Mono<BatchCreateResponse> createTransactions(List<TransactionRequest> transactionRequests);
+
+    Mono<TransactionResponse> updateTransaction(Long id, TransactionRequest transactionRequest);
+
+    Mono<Void> deleteTransaction(Long id);
+
+    Mono<TransactionResponse> getTransaction(Long id);
+
+    Flux<TransactionResponse> getAllTransactions(Integer page, Integer size);
+
+    Flux<TransactionResponse> getTransactionsAfter(Long after, Integer limit);
+
+    Flux<TransactionResponse> searchTransactions(TransactionSearchCriteria criteria, Long after, Integer limit);
+
+    /**
+     * the transactions created from {@code from} inclusive to {@code to} exclusive in id order, either bound may be null
+     */
+    Flux<Transaction> exportTransactions(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * same rules as {@link TransactionBulkService#importTransactions}, one element per line
+     */
+    Mono<ImportResult> importTransactions(Flux<String> lines);
+}
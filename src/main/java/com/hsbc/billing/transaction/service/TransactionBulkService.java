@@ -0,0 +1,35 @@
+package com.hsbc.billing.transaction.service;
+
+import com.hsbc.billing.transaction.dto.ImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Bulk transfer of the repository as newline-delimited JSON, one complete transaction per line including its id,
+ * ip address and device fingerprint. Both directions work page by page in constant memory.
+ *
+ * @author Nickel Fang 2025/5/13
+ */
+public interface TransactionBulkService {
+
+    /**
+     * writes every transaction in id order and returns how many were written
+     */
+    long exportTransactions(OutputStream out) throws IOException;
+
+    /**
+     * writes the transactions created from {@code from} inclusive to {@code to} exclusive in id order, either bound may
+     * be null, and returns how many were written. The window is read as a range of ids, so the cost follows the
+     * window, not the size of the repository.
+     */
+    long exportTransactions(OutputStream out, LocalDateTime from, LocalDateTime to) throws IOException;
+
+    /**
+     * saves every line as is, keeping its id and overwriting a transaction with the same id. Malformed lines and lines
+     * without a positive id are skipped and reported.
+     */
+    ImportResult importTransactions(InputStream in) throws IOException;
+}
@@ -1,7 +1,9 @@
 package com.hsbc.billing.transaction.service;
 
+import com.hsbc.billing.transaction.dto.BatchCreateResponse;
 import com.hsbc.billing.transaction.dto.TransactionRequest;
 import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
 
 import java.util.List;
 
@@ -12,6 +14,11 @@ public interface TransactionService {
 
     TransactionResponse createTransaction(TransactionRequest transactionRequest);
 
+    /**
+     * validates, deduplicates and saves every request on its own, one invalid or duplicated request does not fail the others
+     */
+    BatchCreateResponse createTransactions(List<TransactionRequest> transactionRequests);
+
     TransactionResponse updateTransaction(Long id, TransactionRequest transactionRequest);
 
     void deleteTransaction(Long id);
@@ -19,4 +26,14 @@ public interface TransactionService {
     TransactionResponse getTransaction(Long id);
 
     List<TransactionResponse> getAllTransactions(Integer page, Integer size);
+
+    /**
+     * cursor based pagination, returns up to {@code limit} transactions ordered by id and starting after the id {@code after}
+     */
+    List<TransactionResponse> getTransactionsAfter(Long after, Integer limit);
+
+    /**
+     * up to {@code limit} transactions matching every given criterion, ordered by id and starting after the id {@code after}
+     */
+    List<TransactionResponse> searchTransactions(TransactionSearchCriteria criteria, Long after, Integer limit);
 }
@@ -0,0 +1,134 @@
+package com.hsbc.billing.transaction.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hsbc.billing.transaction.dto.BatchCreateResponse;
+import com.hsbc.billing.transaction.dto.ImportResult;
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionQuery;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.service.ReactiveTransactionService;
+import com.hsbc.billing.transaction.service.TransactionService;
+import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Single transactions go through {@link TransactionService}, so the duplicate check and the response cache are shared
+ * with /api/v2; pages are read from the repository directly.
+ * <p>
+ * The in-memory repository never blocks, so everything runs on the calling event loop, except writes when the
+ * write-ahead log waits for the group commit or the duplicate check waits for the shared store: those run on a virtual
+ * thread each, so every waiting write joins the next group commit instead of queueing for a bounded pool. The write
+ * scheduler is chosen and disposed by {@link com.hsbc.billing.transaction.config.ReactiveServerConfig}.
+ *
+ * @author Nickel Fang 2025/5/20
+ */
+public class ReactiveTransactionServiceImpl implements ReactiveTransactionService {
+
+    static final int PAGE_SIZE = 256;
+
+    private final TransactionService transactionService;
+
+    private final TransactionRepository repo;
+
+    private final ObjectReader reader;
+
+    private final Scheduler writeScheduler;
+
+    public ReactiveTransactionServiceImpl(TransactionService transactionService, TransactionRepository repo, ObjectMapper objectMapper,
+            Scheduler writeScheduler) {
+        this.transactionService = transactionService;
+        this.repo = repo;
+        this.reader = objectMapper.readerFor(Transaction.class);
+        this.writeScheduler = writeScheduler;
+    }
+
+    @Override
+    public Mono<TransactionResponse> createTransaction(TransactionRequest transactionRequest) {
+        return Mono.fromCallable(() -> transactionService.createTransaction(transactionRequest)).subscribeOn(writeScheduler);
+    }
+
+    @Override
+    public Mono<BatchCreateResponse> createTransactions(List<TransactionRequest> transactionRequests) {
+        return Mono.fromCallable(() -> transactionService.createTransactions(transactionRequests)).subscribeOn(writeScheduler);
+    }
+
+    @Override
+    public Mono<TransactionResponse> updateTransaction(Long id, TransactionRequest transactionRequest) {
+        return Mono.fromCallable(() -> transactionService.updateTransaction(id, transactionRequest)).subscribeOn(writeScheduler);
+    }
+
+    @Override
+    public Mono<Void> deleteTransaction(Long id) {
+        return Mono.<Void>fromRunnable(() -> transactionService.deleteTransaction(id)).subscribeOn(writeScheduler);
+    }
+
+    @Override
+    public Mono<TransactionResponse> getTransaction(Long id) {
+        return Mono.fromCallable(() -> transactionService.getTransaction(id));
+    }
+
+    @Override
+    public Flux<TransactionResponse> getAllTransactions(Integer page, Integer size) {
+        return Flux.defer(() -> Flux.fromIterable(repo.findAll(page - 1, size))).map(Transaction::toDTO);
+    }
+
+    @Override
+    public Flux<TransactionResponse> getTransactionsAfter(Long after, Integer limit) {
+        return pages(after == null ? Long.MIN_VALUE : after, limit, repo::findAfter).map(Transaction::toDTO);
+    }
+
+    @Override
+    public Flux<TransactionResponse> searchTransactions(TransactionSearchCriteria criteria, Long after, Integer limit) {
+        final TransactionQuery query = TransactionServiceImpl.query(criteria, after);
+        return pages(query.getAfterId() == null ? Long.MIN_VALUE : query.getAfterId(), limit,
+                (afterId, size) -> repo.query(query.toBuilder().afterId(afterId).build(), size))
+                .map(Transaction::toDTO);
+    }
+
+    @Override
+    public Flux<Transaction> exportTransactions(LocalDateTime from, LocalDateTime to) {
+        final long before = to == null ? Long.MAX_VALUE : SnowflakeIdGenerator.firstIdAt(to);
+        final long after = from == null ? Long.MIN_VALUE : SnowflakeIdGenerator.firstIdAt(from) - 1;
+        return pages(after, Long.MAX_VALUE, (afterId, size) -> repo.findBetween(afterId, before, size));
+    }
+
+    @Override
+    public Mono<ImportResult> importTransactions(Flux<String> lines) {
+        return Mono.defer(() -> {
+            final TransactionImporter importer = new TransactionImporter(repo, reader);
+            return lines.publishOn(writeScheduler)
+                    .doOnNext(importer::accept)
+                    .then(Mono.fromCallable(importer::finish));
+        });
+    }
+
+    // reads the next page only once the previous one is consumed, up to limit transactions after the id
+    private static Flux<Transaction> pages(long after, long limit, BiFunction<Long, Integer, List<Transaction>> read) {
+        return Flux.<List<Transaction>, Cursor>generate(() -> new Cursor(after, limit), (cursor, sink) -> {
+            final int size = (int) Math.min(PAGE_SIZE, cursor.remaining());
+            final List<Transaction> page = size == 0 ? List.of() : read.apply(cursor.after(), size);
+            if (!page.isEmpty()) {
+                sink.next(page);
+            }
+            if (page.size() < size || page.isEmpty()) {
+                sink.complete();
+                return cursor;
+            }
+            return new Cursor(page.get(page.size() - 1).getId(), cursor.remaining() - page.size());
+        }).concatMapIterable(Function.identity(), 1);
+    }
+
+    private record Cursor(long after, long remaining) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.hsbc.billing.transaction.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hsbc.billing.transaction.dto.ImportResult;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.service.TransactionBulkService;
+import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @author Nickel Fang 2025/5/13
+ */
+@Service
+@Slf4j
+public class TransactionBulkServiceImpl implements TransactionBulkService {
+
+    static final int PAGE_SIZE = 1000;
+
+    private final TransactionRepository repo;
+
+    private final ObjectWriter writer;
+
+    private final ObjectReader reader;
+
+    @Autowired
+    public TransactionBulkServiceImpl(TransactionRepository repo, ObjectMapper objectMapper) {
+        this.repo = repo;
+        this.writer = objectMapper.writerFor(Transaction.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.reader = objectMapper.readerFor(Transaction.class);
+    }
+
+    @Override
+    public long exportTransactions(OutputStream out) throws IOException {
+        return exportTransactions(out, null, null);
+    }
+
+    @Override
+    public long exportTransactions(OutputStream out, LocalDateTime from, LocalDateTime to) throws IOException {
+        final long before = to == null ? Long.MAX_VALUE : SnowflakeIdGenerator.firstIdAt(to);
+        long exported = 0;
+        long after = from == null ? Long.MIN_VALUE : SnowflakeIdGenerator.firstIdAt(from) - 1;
+        List<Transaction> page;
+        do {
+            page = repo.findBetween(after, before, PAGE_SIZE);
+            for (Transaction transaction : page) {
+                writer.writeValue(out, transaction);
+                out.write('\n');
+            }
+            exported += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+            out.flush();
+        } while (page.size() == PAGE_SIZE);
+        log.info("Exported {} transactions created from {} to {}", exported, from, to);
+        return exported;
+    }
+
+    @Override
+    public ImportResult importTransactions(InputStream in) throws IOException {
+        final TransactionImporter importer = new TransactionImporter(repo, reader);
+        final BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            importer.accept(line);
+        }
+        return importer.finish();
+    }
+}
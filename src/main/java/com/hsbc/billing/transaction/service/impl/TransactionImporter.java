@@ -0,0 +1,83 @@
+package com.hsbc.billing.transaction.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hsbc.billing.transaction.dto.ImportResult;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One import of newline-delimited JSON fed line by line, saving a page at a time, shared by the servlet and the reactive
+ * import. Not thread safe, lines must be fed in order.
+ *
+ * @author Nickel Fang 2025/5/20
+ */
+@Slf4j
+final class TransactionImporter {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final TransactionRepository repo;
+    private final ObjectReader reader;
+    private final List<Transaction> batch = new ArrayList<>(TransactionBulkServiceImpl.PAGE_SIZE);
+    private final List<String> errors = new ArrayList<>();
+    private long imported;
+    private long rejected;
+    private long lineNumber;
+
+    TransactionImporter(TransactionRepository repo, ObjectReader reader) {
+        this.repo = repo;
+        this.reader = reader;
+    }
+
+    void accept(String line) {
+        lineNumber++;
+        if (line.isBlank()) {
+            return;
+        }
+        final String error = parse(line);
+        if (error != null) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + lineNumber + ": " + error);
+            }
+        }
+        if (batch.size() == TransactionBulkServiceImpl.PAGE_SIZE) {
+            flush();
+        }
+    }
+
+    ImportResult finish() {
+        flush();
+        log.info("Imported {} transactions, rejected {} lines", imported, rejected);
+        return new ImportResult(imported, rejected, errors);
+    }
+
+    // adds the parsed transaction to the batch, or returns why the line was rejected
+    private String parse(String line) {
+        final Transaction transaction;
+        try {
+            transaction = reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return e.getOriginalMessage();
+        }
+        if (transaction == null || transaction.getId() == null || transaction.getId() <= 0) {
+            return "a positive id is required";
+        }
+        batch.add(transaction);
+        return null;
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        repo.saveAll(batch);
+        imported += batch.size();
+        batch.clear();
+    }
+}
@@ -1,25 +1,35 @@
 package com.hsbc.billing.transaction.service.impl;
 
+import com.hsbc.billing.transaction.audit.AuditAction;
+import com.hsbc.billing.transaction.audit.AuditLog;
+import com.hsbc.billing.transaction.cache.TransactionCache;
+import com.hsbc.billing.transaction.dedup.DuplicateDetector;
+import com.hsbc.billing.transaction.dto.BatchCreateResponse;
+import com.hsbc.billing.transaction.dto.BatchItemResult;
+import com.hsbc.billing.transaction.dto.BatchItemStatus;
 import com.hsbc.billing.transaction.dto.TransactionRequest;
 import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
 import com.hsbc.billing.transaction.exception.TransactionDuplicatedException;
 import com.hsbc.billing.transaction.exception.TransactionNotFoundException;
+import com.hsbc.billing.transaction.metrics.TransactionMetrics;
 import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.repository.TransactionQuery;
 import com.hsbc.billing.transaction.repository.TransactionRepository;
 import com.hsbc.billing.transaction.service.TransactionService;
 import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -33,40 +43,141 @@ public class TransactionServiceImpl implements TransactionService {
 
     private TransactionRepository repo;
 
-    private CacheManager cacheManager;
+    private DuplicateDetector duplicateDetector;
 
-    public TransactionServiceImpl(@Autowired SnowflakeIdGenerator idGenerator, @Autowired TransactionRepository repo,
-            @Autowired @Qualifier("cache_duplicatedTransactions") CacheManager cacheManager) {
+    private Validator validator;
+
+    private TransactionMetrics metrics;
+
+    private AuditLog auditLog;
+
+    private TransactionCache cache;
+
+    @Autowired
+    public TransactionServiceImpl(SnowflakeIdGenerator idGenerator, TransactionRepository repo,
+            DuplicateDetector duplicateDetector, Validator validator, TransactionMetrics metrics,
+            ObjectProvider<AuditLog> auditLog, ObjectProvider<TransactionCache> cache) {
+        this(idGenerator, repo, duplicateDetector, validator, metrics, auditLog.getIfAvailable(() -> AuditLog.NOOP),
+                cache.getIfAvailable(() -> TransactionCache.NONE));
+    }
+
+    /**
+     * @param metrics  {@link TransactionMetrics#noop()} when not measured
+     * @param auditLog {@link AuditLog#NOOP} when not audited
+     * @param cache    {@link TransactionCache#NONE} when not cached, registered as a listener of the repository when it
+     *                 caches, see TieredTransactionCache
+     */
+    public TransactionServiceImpl(SnowflakeIdGenerator idGenerator, TransactionRepository repo,
+            DuplicateDetector duplicateDetector, Validator validator, TransactionMetrics metrics, AuditLog auditLog,
+            TransactionCache cache) {
         this.idGenerator = idGenerator;
         this.repo = repo;
-        this.cacheManager = cacheManager;
+        this.duplicateDetector = duplicateDetector;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.auditLog = auditLog;
+        this.cache = cache;
     }
 
     @Override
-    @CachePut(value = "transactions", key = "#result.id")
     public TransactionResponse createTransaction(TransactionRequest transactionRequest) {
-        duplicateTransactionCheck(transactionRequest);
-        final Transaction transaction = Transaction.fromDTO(transactionRequest);
-        transaction.setId(idGenerator.nextId());
-        final Transaction saved = repo.save(transaction);
-        log.info("Saved transaction: {}", transaction);
-        return Transaction.toDTO(saved);
+        final long started = System.nanoTime();
+        try {
+            duplicateTransactionCheck(transactionRequest);
+            final long checked = System.nanoTime();
+            final long id = idGenerator.nextId();
+            final long identified = System.nanoTime();
+            final Transaction transaction = Transaction.fromDTO(transactionRequest);
+            transaction.setId(id);
+            final long mapped = System.nanoTime();
+            final Transaction saved = repo.save(transaction);
+            final long written = System.nanoTime();
+            final TransactionResponse response = Transaction.toDTO(saved);
+            metrics.recordCreateStages(started, checked, identified, mapped, written, System.nanoTime());
+            auditLog.record(AuditAction.CREATE, id, transaction);
+            return response;
+        } finally {
+            metrics.create().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public BatchCreateResponse createTransactions(List<TransactionRequest> transactionRequests) {
+        return metrics.createBatch().record(() -> saveBatch(transactionRequests));
+    }
+
+    private BatchCreateResponse saveBatch(List<TransactionRequest> transactionRequests) {
+        final BatchItemResult[] results = new BatchItemResult[transactionRequests.size()];
+        final List<Integer> valid = new ArrayList<>(transactionRequests.size());
+        for (int i = 0; i < transactionRequests.size(); i++) {
+            final String violations = violations(transactionRequests.get(i));
+            if (violations != null) {
+                results[i] = BatchItemResult.invalid(i, violations);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        // checked together, so a shared duplicate store answers the whole batch in one round trip
+        final boolean[] duplicates = duplicateDetector.areDuplicates(valid.stream().map(transactionRequests::get).toList());
+        final List<Integer> accepted = new ArrayList<>(valid.size());
+        for (int i = 0; i < duplicates.length; i++) {
+            final int index = valid.get(i);
+            if (duplicates[i]) {
+                results[index] = BatchItemResult.duplicate(index, "Transaction duplicated with "
+                        + transactionRequests.get(index).toSimpleString());
+            } else {
+                accepted.add(index);
+            }
+        }
+
+        final long[] ids = accepted.isEmpty() ? new long[0] : idGenerator.reserveBlock(accepted.size());
+        final List<Transaction> transactions = new ArrayList<>(accepted.size());
+        for (int i = 0; i < ids.length; i++) {
+            final Transaction transaction = Transaction.fromDTO(transactionRequests.get(accepted.get(i)));
+            transaction.setId(ids[i]);
+            transactions.add(transaction);
+            results[accepted.get(i)] = BatchItemResult.created(accepted.get(i), ids[i]);
+        }
+        repo.saveAll(transactions);
+        for (Transaction transaction : transactions) {
+            auditLog.record(AuditAction.CREATE, transaction.getId(), transaction);
+        }
+
+        final int duplicated = (int) Arrays.stream(results).filter(result -> result.getStatus() == BatchItemStatus.DUPLICATE).count();
+        final int invalid = results.length - ids.length - duplicated;
+        log.info("Saved batch of {} transactions, {} duplicated, {} invalid", ids.length, duplicated, invalid);
+        return new BatchCreateResponse(ids.length, duplicated, invalid, Arrays.asList(results));
+    }
+
+    private String violations(TransactionRequest transactionRequest) {
+        if (transactionRequest == null) {
+            return "Transaction request is required";
+        }
+        final Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(transactionRequest);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("\n"));
     }
 
     // two transaction requests with the same feature info in 1 minute will be considered as duplicated
     private void duplicateTransactionCheck(TransactionRequest transactionRequest) {
-        final Cache cache = cacheManager.getCache("duplicatedTransactions");
-        final String found = cache.get(transactionRequest.getFeatureInfo(), String.class);
-        if (!StringUtils.isEmpty(found)) {
+        if (duplicateDetector.isDuplicate(transactionRequest)) {
             log.warn("Duplicated transaction request: {}", transactionRequest.toSimpleString());
             throw new TransactionDuplicatedException(transactionRequest);
         }
-        cache.put(transactionRequest.getFeatureInfo(), "EXIST");
     }
 
     @Override
-    @CachePut(value = "transactions", key = "#id")
     public TransactionResponse updateTransaction(Long id, TransactionRequest transactionRequest) {
+        return metrics.update().record(() -> update(id, transactionRequest));
+    }
+
+    private TransactionResponse update(Long id, TransactionRequest transactionRequest) {
         if (!repo.existsById(id)) {
             log.warn("Transaction with id {} not found with transaction update request: {}", id, transactionRequest.toSimpleString());
             throw new TransactionNotFoundException(id);
@@ -74,34 +185,69 @@ public class TransactionServiceImpl implements TransactionService {
         final Transaction transaction = Transaction.fromDTO(transactionRequest);
         transaction.setId(id);
         repo.update(transaction);
-        log.info("Updated transaction: {}", transaction);
+        auditLog.record(AuditAction.UPDATE, id, transaction);
         return Transaction.toDTO(transaction);
     }
 
     @Override
-    @CacheEvict(value = "transactions", key = "#id")
     public void deleteTransaction(Long id) {
+        metrics.delete().record(() -> delete(id));
+    }
+
+    private void delete(Long id) {
         if (!repo.existsById(id)) {
             log.warn("Transaction with id {} not found", id);
             throw new TransactionNotFoundException(id);
         }
         repo.delete(id);
-        log.info("Deleted transaction: {}", id);
+        auditLog.record(AuditAction.DELETE, id, null);
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "#id")
     public TransactionResponse getTransaction(Long id) {
-        final Transaction transaction = repo.findById(id);
-        if (transaction == null) {
+        return metrics.get().record(() -> get(id));
+    }
+
+    private TransactionResponse get(Long id) {
+        final TransactionResponse response = cache.get(id, repo::findById);
+        if (response == null) {
             log.warn("Transaction with id {} not found", id);
             throw new TransactionNotFoundException(id);
         }
-        return Transaction.toDTO(transaction);
+        return response;
     }
 
     @Override
     public List<TransactionResponse> getAllTransactions(Integer page, Integer size) {
-        return repo.findAll(page - 1, size).stream().map(Transaction::toDTO).collect(Collectors.toList());
+        return metrics.list().record(() -> repo.findAll(page - 1, size).stream().map(Transaction::toDTO).collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<TransactionResponse> getTransactionsAfter(Long after, Integer limit) {
+        return metrics.list().record(() -> repo.findAfter(after, limit).stream().map(Transaction::toDTO).collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<TransactionResponse> searchTransactions(TransactionSearchCriteria criteria, Long after, Integer limit) {
+        return metrics.search().record(() -> repo.query(query(criteria, after), limit).stream()
+                .map(Transaction::toDTO)
+                .collect(Collectors.toList()));
+    }
+
+    // the from/to window is a range of ids, narrowed further by the cursor
+    static TransactionQuery query(TransactionSearchCriteria criteria, Long after) {
+        Long afterId = after;
+        if (criteria.getFrom() != null) {
+            final long fromId = SnowflakeIdGenerator.firstIdAt(criteria.getFrom()) - 1;
+            afterId = afterId == null ? fromId : Math.max(afterId, fromId);
+        }
+        return TransactionQuery.builder()
+                .senderAccount(criteria.getSender())
+                .receiverAccount(criteria.getReceiver())
+                .channel(criteria.getChannel())
+                .status(criteria.getStatus())
+                .afterId(afterId)
+                .beforeId(criteria.getTo() == null ? null : SnowflakeIdGenerator.firstIdAt(criteria.getTo()))
+                .build();
     }
 }
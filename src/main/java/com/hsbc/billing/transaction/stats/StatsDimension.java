@@ -0,0 +1,32 @@
+package com.hsbc.billing.transaction.stats;
+
+import com.hsbc.billing.transaction.model.Transaction;
+
+import java.util.function.Function;
+
+/**
+ * Transaction attributes {@link TransactionStatistics} groups totals by, amounts are always summed per currency.
+ *
+ * @author Nickel Fang 2025/5/18
+ */
+public enum StatsDimension {
+    CURRENCY(Transaction::getCurrency),
+    TYPE(Transaction::getType),
+    STATUS(Transaction::getStatus),
+    CHANNEL(Transaction::getChannel),
+    // outgoing totals of an account
+    SENDER(Transaction::getSenderAccount),
+    // incoming totals of an account
+    RECEIVER(Transaction::getReceiverAccount);
+
+    private final Function<Transaction, Object> extractor;
+
+    StatsDimension(Function<Transaction, Object> extractor) {
+        this.extractor = extractor;
+    }
+
+    String valueOf(Transaction transaction) {
+        final Object value = extractor.apply(transaction);
+        return value == null ? null : value.toString();
+    }
+}
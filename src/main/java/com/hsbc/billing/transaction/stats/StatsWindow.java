@@ -0,0 +1,26 @@
+package com.hsbc.billing.transaction.stats;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Tumbling windows of {@link TransactionStatistics}, aligned to the local time of this instance and assigned by the
+ * creation time of the transaction. {@link #ALL} is the running total since the repository was recovered.
+ *
+ * @author Nickel Fang 2025/5/18
+ */
+public enum StatsWindow {
+    ALL(ChronoUnit.FOREVER),
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    StatsWindow(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    ChronoUnit unit() {
+        return unit;
+    }
+}
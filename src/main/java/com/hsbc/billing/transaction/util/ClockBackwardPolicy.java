@@ -0,0 +1,15 @@
+package com.hsbc.billing.transaction.util;
+
+/**
+ * What {@link SnowflakeIdGenerator} does when the wall clock is behind the last issued timestamp.
+ *
+ * @author Nickel Fang 2025/5/7
+ */
+public enum ClockBackwardPolicy {
+    // wait until the wall clock catches up with the last issued timestamp
+    WAIT,
+    // keep issuing ids from the last issued timestamp, borrowing future milliseconds
+    BORROW,
+    // throw ClockMovedBackwardsException
+    FAIL
+}
@@ -0,0 +1,249 @@
+package com.hsbc.billing.transaction.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent map keyed by a primitive {@code long}, striped into segments of open addressing tables with linear probing.
+ * Each segment keeps its keys in a {@code long[]} next to a parallel value array, so an entry costs two array slots
+ * instead of a node and a boxed key. Reads are optimistic {@link StampedLock} reads that fall back to the read lock only
+ * when they race a write to the same segment, writes take the segment write lock. Null values are not supported.
+ *
+ * @author Nickel Fang 2025/5/11
+ */
+public class ConcurrentLongMap<V> {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+
+    public ConcurrentLongMap() {
+        this(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongMap(int expectedSize) {
+        final int perSegment = (int) Math.min(1 << 30, (long) Math.max(expectedSize, 1) * 4 / 3 >>> SEGMENT_BITS);
+        final int capacity = Math.max(MIN_SEGMENT_CAPACITY, Integer.highestOneBit(Math.max(1, perSegment - 1)) << 1);
+        segments = new Segment[1 << SEGMENT_BITS];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment<>(capacity);
+        }
+    }
+
+    public V get(long key) {
+        final long hash = mix(key);
+        final Segment<V> segment = segmentFor(hash);
+        long stamp = segment.tryOptimisticRead();
+        V value = segment.find(key, hash);
+        if (!segment.validate(stamp)) {
+            stamp = segment.readLock();
+            try {
+                value = segment.find(key, hash);
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * returns the previous value, null when the key was absent
+     */
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+        final long hash = mix(key);
+        final Segment<V> segment = segmentFor(hash);
+        final long stamp = segment.writeLock();
+        try {
+            return segment.put(key, hash, value);
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    public V remove(long key) {
+        final long hash = mix(key);
+        final Segment<V> segment = segmentFor(hash);
+        final long stamp = segment.writeLock();
+        try {
+            return segment.remove(key, hash);
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            final long stamp = segment.writeLock();
+            try {
+                segment.clear();
+            } finally {
+                segment.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    // murmur3 finalizer, snowflake ids differ mostly in the low timestamp and sequence bits
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Segment<V> extends StampedLock {
+
+        // key 0 marks an empty slot, an entry for key 0 itself is kept aside
+        private long[] keys;
+        private Object[] values;
+        private V zeroValue;
+        private volatile int size;
+
+        Segment(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+
+        // may run unlocked under an optimistic stamp, so it reads each array once and never loops past the table
+        @SuppressWarnings("unchecked")
+        V find(long key, long hash) {
+            if (key == 0) {
+                return zeroValue;
+            }
+            final long[] keys = this.keys;
+            final Object[] values = this.values;
+            if (keys.length != values.length) {
+                return null;
+            }
+            final int mask = keys.length - 1;
+            for (int i = 0, slot = (int) hash & mask; i < keys.length; i++, slot = (slot + 1) & mask) {
+                final long current = keys[slot];
+                if (current == key) {
+                    return (V) values[slot];
+                }
+                if (current == 0) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V put(long key, long hash, V value) {
+            if (key == 0) {
+                final V previous = zeroValue;
+                zeroValue = value;
+                if (previous == null) {
+                    size++;
+                }
+                return previous;
+            }
+            final int mask = keys.length - 1;
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                final long current = keys[slot];
+                if (current == key) {
+                    final V previous = (V) values[slot];
+                    values[slot] = value;
+                    return previous;
+                }
+                if (current == 0) {
+                    keys[slot] = key;
+                    values[slot] = value;
+                    if (++size > keys.length / 4 * 3) {
+                        resize();
+                    }
+                    return null;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        V remove(long key, long hash) {
+            if (key == 0) {
+                final V previous = zeroValue;
+                zeroValue = null;
+                if (previous != null) {
+                    size--;
+                }
+                return previous;
+            }
+            final int mask = keys.length - 1;
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                final long current = keys[slot];
+                if (current == 0) {
+                    return null;
+                }
+                if (current == key) {
+                    final V previous = (V) values[slot];
+                    shiftBack(slot, mask);
+                    size--;
+                    return previous;
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, null);
+            zeroValue = null;
+            size = 0;
+        }
+
+        // backward shift deletion keeps every probe chain unbroken without tombstones
+        private void shiftBack(int hole, int mask) {
+            for (int slot = (hole + 1) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                final int home = (int) mix(keys[slot]) & mask;
+                if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                    keys[hole] = keys[slot];
+                    values[hole] = values[slot];
+                    hole = slot;
+                }
+            }
+            keys[hole] = 0;
+            values[hole] = null;
+        }
+
+        private void resize() {
+            final long[] oldKeys = keys;
+            final Object[] oldValues = values;
+            final long[] newKeys = new long[oldKeys.length << 1];
+            final Object[] newValues = new Object[newKeys.length];
+            final int mask = newKeys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                final long key = oldKeys[i];
+                if (key != 0) {
+                    int slot = (int) mix(key) & mask;
+                    while (newKeys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    newKeys[slot] = key;
+                    newValues[slot] = oldValues[i];
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+    }
+}
@@ -1,50 +1,178 @@
 package com.hsbc.billing.transaction.util;
 
+import com.hsbc.billing.transaction.exception.ClockMovedBackwardsException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
 /**
+ * Lock-free snowflake id generator, the last issued timestamp and sequence are packed into one {@link AtomicLong}
+ * as {@code timestamp << 12 | sequence} and advanced with CAS.
+ *
  * @author Nickel Fang 2025/4/24
  */
 @Component
 public class SnowflakeIdGenerator {
 
-    private final long datacenterId;
-    private final long machineId;
-    private long sequence = 0L;
-    private long lastTimestamp = -1L;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MACHINE_ID_BITS = 5;
+    private static final int DATACENTER_ID_BITS = 5;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_WORKER_ID = (1L << MACHINE_ID_BITS) - 1;
+    private static final int MACHINE_ID_SHIFT = SEQUENCE_BITS;
+    private static final int DATACENTER_ID_SHIFT = SEQUENCE_BITS + MACHINE_ID_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + MACHINE_ID_BITS + DATACENTER_ID_BITS;
+
+    private final long workerBits;
+    private final ClockBackwardPolicy clockBackwardPolicy;
+    private final long maxBackwardMillis;
+    private final LongSupplier clock;
 
-    public SnowflakeIdGenerator(@Value("${snowflake.datacenter-id}") long datacenterId, @Value("${snowflake.instance-id}") long machineId) {
-        this.datacenterId = datacenterId;
-        this.machineId = machineId;
+    // last issued timestamp << SEQUENCE_BITS | last issued sequence
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long datacenterId, long machineId) {
+        this(datacenterId, machineId, ClockBackwardPolicy.WAIT, 10L);
     }
 
-    public synchronized long nextId() {
-        long timestamp = System.currentTimeMillis();
+    @Autowired
+    public SnowflakeIdGenerator(@Value("${snowflake.datacenter-id}") long datacenterId, @Value("${snowflake.instance-id}") long machineId,
+            @Value("${snowflake.clock-backward-policy:WAIT}") ClockBackwardPolicy clockBackwardPolicy,
+            @Value("${snowflake.max-backward-ms:10}") long maxBackwardMillis) {
+        this(datacenterId, machineId, clockBackwardPolicy, maxBackwardMillis, System::currentTimeMillis);
+    }
 
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException("Clock moved backwards");
+    SnowflakeIdGenerator(long datacenterId, long machineId, ClockBackwardPolicy clockBackwardPolicy, long maxBackwardMillis,
+            LongSupplier clock) {
+        if (datacenterId < 0 || datacenterId > MAX_WORKER_ID || machineId < 0 || machineId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("datacenter id and machine id must be between 0 and " + MAX_WORKER_ID);
         }
+        this.workerBits = (datacenterId << DATACENTER_ID_SHIFT) | (machineId << MACHINE_ID_SHIFT);
+        this.clockBackwardPolicy = clockBackwardPolicy;
+        this.maxBackwardMillis = maxBackwardMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * the smallest id any generator can issue in the epoch millisecond, turns a time bound into an id bound
+     */
+    public static long firstIdAt(long epochMillis) {
+        return epochMillis << TIMESTAMP_SHIFT;
+    }
+
+    /**
+     * {@link #firstIdAt(long)} of a local time of this instance, the zone transaction times are recorded in
+     */
+    public static long firstIdAt(LocalDateTime time) {
+        return firstIdAt(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    /**
+     * the epoch millisecond the id was issued in
+     */
+    public static long timestampOf(long id) {
+        return id >>> TIMESTAMP_SHIFT;
+    }
+
+    /**
+     * the datacenter id of the generator that issued the id
+     */
+    public static long datacenterIdOf(long id) {
+        return (id >>> DATACENTER_ID_SHIFT) & MAX_WORKER_ID;
+    }
+
+    /**
+     * the machine id of the generator that issued the id
+     */
+    public static long machineIdOf(long id) {
+        return (id >>> MACHINE_ID_SHIFT) & MAX_WORKER_ID;
+    }
 
-        if (timestamp == lastTimestamp) {
-            sequence = (sequence + 1) & 0xFFF;
-            if (sequence == 0) {
-                timestamp = tilNextMillis(lastTimestamp);
+    public long nextId() {
+        return toId(claim(1));
+    }
+
+    /**
+     * reserves {@code size} ids in ascending order, claiming the whole remaining sequence of a millisecond per CAS
+     */
+    public long[] reserveBlock(int size) {
+        final long[] ids = new long[size];
+        int filled = 0;
+        while (filled < size) {
+            final long start = claim(size - filled);
+            final int claimed = claimedCount(start, size - filled);
+            for (int i = 0; i < claimed; i++) {
+                ids[filled++] = toId(start + i);
             }
-        } else {
-            sequence = 0L;
         }
+        return ids;
+    }
 
-        lastTimestamp = timestamp;
+    // claims up to count consecutive states within one millisecond and returns the first one
+    private long claim(int count) {
+        while (true) {
+            final long current = state.get();
+            final long lastTimestamp = current >>> SEQUENCE_BITS;
+            final long now = clock.getAsLong();
+            final long start;
+            if (now > lastTimestamp) {
+                start = now << SEQUENCE_BITS;
+            } else {
+                final long behind = lastTimestamp - now;
+                if (behind > 0 && !tolerateBackward(behind, lastTimestamp)) {
+                    continue;
+                }
+                if ((current & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                    start = current + 1;
+                } else if (clockBackwardPolicy == ClockBackwardPolicy.BORROW && behind < maxBackwardMillis) {
+                    start = (lastTimestamp + 1) << SEQUENCE_BITS;
+                } else {
+                    // sequence exhausted in this millisecond
+                    waitUntil(lastTimestamp + 1);
+                    continue;
+                }
+            }
+            if (state.compareAndSet(current, start + claimedCount(start, count) - 1)) {
+                return start;
+            }
+        }
+    }
 
-        return (timestamp << 22) | (datacenterId << 17) | (machineId << 12) | sequence;
+    // returns true if ids may be issued from the last timestamp, false after waiting for the clock to catch up
+    private boolean tolerateBackward(long behind, long lastTimestamp) {
+        if (clockBackwardPolicy == ClockBackwardPolicy.FAIL || behind > maxBackwardMillis) {
+            throw new ClockMovedBackwardsException(behind);
+        }
+        if (clockBackwardPolicy == ClockBackwardPolicy.BORROW) {
+            return true;
+        }
+        waitUntil(lastTimestamp);
+        return false;
     }
 
-    private long tilNextMillis(long lastTimestamp) {
-        long timestamp = System.currentTimeMillis();
-        while (timestamp <= lastTimestamp) {
-            timestamp = System.currentTimeMillis();
+    private void waitUntil(long timestamp) {
+        long now;
+        while ((now = clock.getAsLong()) < timestamp) {
+            if (timestamp - now > 1) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(timestamp - now - 1));
+            } else {
+                Thread.onSpinWait();
+            }
         }
-        return timestamp;
+    }
+
+    private static int claimedCount(long start, int count) {
+        return (int) Math.min(count, SEQUENCE_MASK + 1 - (start & SEQUENCE_MASK));
+    }
+
+    private long toId(long packed) {
+        return ((packed >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | workerBits | (packed & SEQUENCE_MASK);
     }
 }
@@ -0,0 +1,151 @@
+package com.hsbc.billing.transaction.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author Nickel Fang 2025/5/22
+ */
+public class FileAuditLogTest {
+
+    private static final int EVENTS = 10_000;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void record_writesEventsInOrderAcrossRestarts() throws Exception {
+        FileAuditLog auditLog = open(1024, AuditOverflowPolicy.BLOCK);
+        auditLog.record(AuditAction.CREATE, 1L, transaction(1L, "88.88"));
+        auditLog.record(AuditAction.UPDATE, 1L, transaction(1L, "99.99"));
+        auditLog.close();
+        auditLog = open(1024, AuditOverflowPolicy.BLOCK);
+        auditLog.record(AuditAction.DELETE, 1L, null);
+        auditLog.close();
+
+        final List<AuditRecord> records = FileAuditLog.readAll(dir);
+        assertEquals(List.of(AuditAction.CREATE, AuditAction.UPDATE, AuditAction.DELETE),
+                records.stream().map(AuditRecord::action).toList());
+        assertEquals(new BigDecimal("99.99"), records.get(1).transaction().getAmount());
+        assertEquals("A123456", records.get(1).transaction().getSenderAccount());
+        assertEquals(1L, records.get(2).id());
+        assertNull(records.get(2).transaction());
+        assertEquals(2, fileCount());
+    }
+
+    @Test
+    public void fullBuffer_dropsOrBlocks() throws Exception {
+        FileAuditLog auditLog = open(4, AuditOverflowPolicy.DROP);
+        for (long id = 1; id <= EVENTS; id++) {
+            auditLog.record(AuditAction.CREATE, id, transaction(id, "1.00"));
+        }
+        auditLog.close();
+        List<AuditRecord> records = FileAuditLog.readAll(dir);
+        assertEquals(EVENTS, records.size() + auditLog.dropped());
+        for (int i = 1; i < records.size(); i++) {
+            assertTrue(records.get(i).id() > records.get(i - 1).id());
+        }
+
+        auditLog = open(4, AuditOverflowPolicy.BLOCK);
+        for (long id = EVENTS + 1; id <= 2 * EVENTS; id++) {
+            auditLog.record(AuditAction.CREATE, id, transaction(id, "1.00"));
+        }
+        auditLog.close();
+        assertEquals(0, auditLog.dropped());
+        records = FileAuditLog.readAll(dir);
+        assertEquals(EVENTS, records.stream().filter(record -> record.id() > EVENTS).count());
+    }
+
+    @Test
+    public void roll_keepsNewestFiles() throws Exception {
+        final FileAuditLog auditLog = new FileAuditLog(dir, 16, 1, 3, AuditOverflowPolicy.BLOCK);
+        auditLog.open();
+        for (long id = 1; id <= 10; id++) {
+            auditLog.record(AuditAction.CREATE, id, transaction(id, "1.00"));
+            // every write rolls, so event n is in file n once file n + 1 is open
+            while (!Files.exists(dir.resolve(String.format("audit-%020d.log", id + 1)))) {
+                Thread.sleep(1);
+            }
+        }
+        auditLog.close();
+
+        assertEquals(3, fileCount());
+        assertEquals(List.of(9L, 10L), FileAuditLog.readAll(dir).stream().map(AuditRecord::id).toList());
+    }
+
+    @Test
+    public void failedWrite_countsDroppedAndResumesInNewFile() throws Exception {
+        final Path auditDir = dir.resolve("audit");
+        final FileAuditLog auditLog = new FileAuditLog(auditDir, 16, 1, 16, AuditOverflowPolicy.BLOCK);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        auditLog.bindTo(registry);
+        auditLog.open();
+
+        // the directory is gone, the file written to is unlinked and the roll after the write fails
+        deleteRecursively(auditDir);
+        auditLog.record(AuditAction.CREATE, 1L, transaction(1L, "1.00"));
+        while (registry.get("transaction.audit.written").functionCounter().count() == 0) {
+            Thread.sleep(1);
+        }
+        auditLog.record(AuditAction.CREATE, 2L, transaction(2L, "2.00"));
+        while (auditLog.dropped() == 0) {
+            Thread.sleep(1);
+        }
+
+        Files.createDirectories(auditDir);
+        auditLog.record(AuditAction.CREATE, 3L, transaction(3L, "3.00"));
+        auditLog.close();
+        assertEquals(1, auditLog.dropped());
+        assertEquals(List.of(3L), FileAuditLog.readAll(auditDir).stream().map(AuditRecord::id).toList());
+    }
+
+    private static void deleteRecursively(Path path) throws Exception {
+        try (Stream<Path> files = Files.list(path)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(path);
+    }
+
+    private FileAuditLog open(int capacity, AuditOverflowPolicy overflowPolicy) {
+        final FileAuditLog auditLog = new FileAuditLog(dir, capacity, 1 << 20, 16, overflowPolicy);
+        auditLog.open();
+        return auditLog;
+    }
+
+    private long fileCount() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private static Transaction transaction(long id, String amount) {
+        final Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCurrency("CNY");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setSenderAccount("A123456");
+        transaction.setReceiverAccount("B654321");
+        transaction.setChannel("MOBILE");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setTransactionTime(LocalDateTime.of(2025, 5, 22, 9, 0));
+        return transaction;
+    }
+}
@@ -0,0 +1,120 @@
+package com.hsbc.billing.transaction.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import com.hsbc.billing.transaction.repository.CompactTransactionStore;
+import com.hsbc.billing.transaction.repository.IndexedField;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * @author Nickel Fang 2025/5/24
+ */
+public class TieredTransactionCacheTest {
+
+    private final AtomicInteger reads = new AtomicInteger();
+
+    private TieredTransactionCache cache;
+
+    private TransactionRepository repo;
+
+    private LongFunction<Transaction> repositoryRead;
+
+    private void setUp(long hotMaxBytes, long coldMaxBytes) {
+        cache = new TieredTransactionCache(hotMaxBytes, coldMaxBytes);
+        repo = new TransactionRepository(new CompactTransactionStore(), null, EnumSet.noneOf(IndexedField.class), List.of(cache));
+        repositoryRead = id -> {
+            reads.incrementAndGet();
+            return repo.findById(id);
+        };
+    }
+
+    @Test
+    public void get_readsTheRepositoryOnce() throws Exception {
+        setUp(1 << 20, 1 << 20);
+        repo.save(transaction(1L, "10.00"));
+
+        assertEquals(new BigDecimal("10.00"), cache.get(1L, repositoryRead).getAmount());
+        assertEquals(new BigDecimal("10.00"), cache.get(1L, repositoryRead).getAmount());
+        assertEquals(1, reads.get());
+        // a missing transaction is not cached
+        assertNull(cache.get(2L, repositoryRead));
+        assertNull(cache.get(2L, repositoryRead));
+        assertEquals(3, reads.get());
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        assertEquals(1, registry.get("cache.gets").tag("tier", "hot").tag("result", "hit").functionCounter().count());
+        assertEquals(3, registry.get("cache.gets").tag("tier", "cold").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void repositoryChanges_invalidate() throws Exception {
+        setUp(1 << 20, 1 << 20);
+        repo.save(transaction(1L, "10.00"));
+        cache.get(1L, repositoryRead);
+
+        repo.update(transaction(1L, "20.00"));
+        assertEquals(new BigDecimal("20.00"), cache.get(1L, repositoryRead).getAmount());
+        repo.delete(1L);
+        assertNull(cache.get(1L, repositoryRead));
+        repo.save(transaction(1L, "30.00"));
+        cache.get(1L, repositoryRead);
+        repo.clear();
+        assertNull(cache.get(1L, repositoryRead));
+        assertEquals(5, reads.get());
+    }
+
+    @Test
+    public void evicted_demotedToColdTier_andPromoted() throws Exception {
+        // room for a few responses in the hot tier
+        setUp(4 * TieredTransactionCache.weigh(Transaction.toDTO(transaction(1L, "1.00"))), 1 << 20);
+        for (long id = 1; id <= 100; id++) {
+            repo.save(transaction(id, id + ".00"));
+            cache.get(id, repositoryRead);
+        }
+        assertEquals(100, reads.get());
+
+        for (long id = 1; id <= 100; id++) {
+            final TransactionResponse response = cache.get(id, repositoryRead);
+            assertEquals(Transaction.toDTO(repo.findById(id)), response);
+        }
+        assertEquals(100, reads.get());
+
+        // a demoted response is invalidated too
+        repo.update(transaction(1L, "0.50"));
+        assertEquals(new BigDecimal("0.50"), cache.get(1L, repositoryRead).getAmount());
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        assertTrue(registry.get("cache.gets").tag("tier", "cold").tag("result", "hit").functionCounter().count() > 90);
+    }
+
+    private static Transaction transaction(long id, String amount) {
+        final Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCurrency("USD");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setSenderAccount("M123456");
+        transaction.setReceiverAccount("N654321");
+        transaction.setChannel("MOBILE");
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setTransactionTime(LocalDateTime.of(2025, 5, 24, 9, 0));
+        return transaction;
+    }
+}
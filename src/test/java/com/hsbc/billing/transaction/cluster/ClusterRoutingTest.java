@@ -0,0 +1,165 @@
+package com.hsbc.billing.transaction.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.billing.transaction.TransactionApiApplication;
+import com.hsbc.billing.transaction.controller.TransactionController;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two instances of the application in this JVM on their own ports, members of one cluster.
+ *
+ * @author Nickel Fang 2025/5/27
+ */
+public class ClusterRoutingTest {
+
+    private static final TypeReference<List<TransactionResponse>> TRANSACTIONS = new TypeReference<>() {
+    };
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private static final HttpClient client = HttpClient.newHttpClient();
+    private static final AtomicInteger seed = new AtomicInteger();
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+    private static URI firstUrl;
+    private static URI secondUrl;
+
+    @BeforeAll
+    public static void startCluster() throws Exception {
+        final int firstPort = freePort();
+        final int secondPort = freePort();
+        firstUrl = URI.create("http://localhost:" + firstPort);
+        secondUrl = URI.create("http://localhost:" + secondPort);
+        final String members = "1/1=" + firstUrl + ",1/2=" + secondUrl;
+        first = start(firstPort, 1, members);
+        second = start(secondPort, 2, members);
+    }
+
+    private static ConfigurableApplicationContext start(int port, int instanceId, String members) {
+        return new SpringApplicationBuilder(TransactionApiApplication.class).run(
+                "--server.port=" + port,
+                "--snowflake.datacenter-id=1",
+                "--snowflake.instance-id=" + instanceId,
+                "--transaction.cluster.enabled=true",
+                "--transaction.cluster.members=" + members,
+                "--transaction.audit.dir=target/audit/cluster-" + instanceId,
+                "--spring.main.banner-mode=off");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @AfterAll
+    public static void stopCluster() {
+        second.close();
+        first.close();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        first.getBean(TransactionRepository.class).clear();
+        second.getBean(TransactionRepository.class).clear();
+    }
+
+    @Test
+    public void byId_proxiedToOwner() throws Exception {
+        final TransactionResponse created = create(secondUrl);
+        assertEquals(2L, SnowflakeIdGenerator.machineIdOf(created.getId()));
+
+        final HttpResponse<String> got = send(firstUrl, "GET", "/api/v2/transactions/" + created.getId(), null, null);
+        assertEquals(200, got.statusCode());
+        assertEquals(created.getId(), objectMapper.readValue(got.body(), TransactionResponse.class).getId());
+        final String etag = got.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, send(firstUrl, "GET", "/api/v2/transactions/" + created.getId(), null, etag).statusCode());
+
+        final HttpResponse<String> updated = send(firstUrl, "PUT", "/api/v2/transactions/" + created.getId(), request("Alipay"), null);
+        assertEquals(200, updated.statusCode());
+        assertEquals("Alipay", second.getBean(TransactionRepository.class).findById(created.getId()).getChannel());
+
+        assertEquals(204, send(firstUrl, "DELETE", "/api/v2/transactions/" + created.getId(), null, null).statusCode());
+        assertEquals(404, send(secondUrl, "GET", "/api/v2/transactions/" + created.getId(), null, null).statusCode());
+        assertEquals(404, send(firstUrl, "GET", "/api/v2/transactions/" + created.getId(), null, null).statusCode());
+
+        // issued by a worker outside the cluster, served locally
+        final long foreign = new SnowflakeIdGenerator(1L, 9L).nextId();
+        assertEquals(404, send(firstUrl, "GET", "/api/v2/transactions/" + foreign, null, null).statusCode());
+    }
+
+    @Test
+    public void list_gathersEveryMember() throws Exception {
+        final List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(create(firstUrl).getId());
+            ids.add(create(secondUrl).getId());
+        }
+        final List<Long> ordered = ids.stream().sorted().toList();
+
+        final HttpResponse<String> firstPage = send(firstUrl, "GET", "/api/v2/transactions?limit=4", null, null);
+        assertEquals(ordered.subList(0, 4), ids(firstPage));
+        final String next = firstPage.headers().firstValue(TransactionController.NEXT_CURSOR_HEADER).orElseThrow();
+        final HttpResponse<String> secondPage = send(secondUrl, "GET", "/api/v2/transactions?limit=4&after=" + next, null, null);
+        assertEquals(ordered.subList(4, 6), ids(secondPage));
+        assertFalse(secondPage.headers().firstValue(TransactionController.NEXT_CURSOR_HEADER).isPresent());
+
+        assertEquals(ordered.subList(2, 4), ids(send(secondUrl, "GET", "/api/v2/transactions?page=2&size=2", null, null)));
+        assertEquals(ordered, ids(send(firstUrl, "GET", "/api/v2/transactions?channel=WeChat&limit=10", null, null)));
+        assertTrue(ids(send(firstUrl, "GET", "/api/v2/transactions?page=4&size=2", null, null)).isEmpty());
+    }
+
+    private static TransactionResponse create(URI member) throws Exception {
+        final HttpResponse<String> response = send(member, "POST", "/api/v2/transactions", request("WeChat"), null);
+        assertEquals(201, response.statusCode());
+        return objectMapper.readValue(response.body(), TransactionResponse.class);
+    }
+
+    // a distinct sender every time, so no request is a duplicate of another
+    private static String request(String channel) {
+        return """
+                {"amount":88.88,"currency":"CNY","type":"TRANSFER","senderAccount":"%d","receiverAccount":"2222222222222222",
+                "channel":"%s","status":"PENDING"}""".formatted(1_000_000_000_000_000L + seed.incrementAndGet(), channel);
+    }
+
+    private static HttpResponse<String> send(URI member, String method, String pathAndQuery, String json, String ifNoneMatch)
+            throws Exception {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(member + pathAndQuery))
+                .method(method, json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json));
+        if (json != null) {
+            request.header("Content-Type", "application/json");
+        }
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static List<Long> ids(HttpResponse<String> response) throws Exception {
+        assertEquals(200, response.statusCode());
+        return objectMapper.readValue(response.body(), TRANSACTIONS).stream().map(TransactionResponse::getId).toList();
+    }
+}
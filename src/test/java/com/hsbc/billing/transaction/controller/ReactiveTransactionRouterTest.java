@@ -0,0 +1,165 @@
+package com.hsbc.billing.transaction.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
+import com.hsbc.billing.transaction.exception.TransactionDuplicatedException;
+import com.hsbc.billing.transaction.exception.TransactionNotFoundException;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import com.hsbc.billing.transaction.service.ReactiveTransactionService;
+import com.hsbc.billing.transaction.stats.TransactionStatistics;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * @author Nickel Fang 2025/5/20
+ */
+public class ReactiveTransactionRouterTest {
+
+    private static final String BASE_PATH = ReactiveTransactionRouter.BASE_PATH;
+
+    private ReactiveTransactionService transactionService;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    public void setUp() {
+        transactionService = mock(ReactiveTransactionService.class);
+        final ReactiveTransactionRouter router = new ReactiveTransactionRouter(transactionService, mock(TransactionStatistics.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2, 100);
+        client = WebTestClient.bindToRouterFunction(router.routes()).build();
+    }
+
+    @Test
+    public void createTransaction_ok() throws Exception {
+        when(transactionService.createTransaction(any(TransactionRequest.class))).thenReturn(Mono.just(response(1L)));
+
+        client.post().uri(BASE_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    public void createTransaction_invalidOrDuplicated() throws Exception {
+        client.post().uri(BASE_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(TransactionRequest.builder().amount(new BigDecimal("-1")).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).value(body -> assertEquals(7, body.lines().count()));
+        verify(transactionService, never()).createTransaction(any());
+
+        when(transactionService.createTransaction(any(TransactionRequest.class)))
+                .thenReturn(Mono.error(new TransactionDuplicatedException(request())));
+        client.post().uri(BASE_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    public void getTransaction_notFoundOrInvalidId() throws Exception {
+        when(transactionService.getTransaction(7L)).thenReturn(Mono.error(new TransactionNotFoundException(7L)));
+
+        client.get().uri(BASE_PATH + "/7").exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("Transaction not found with id: 7");
+        client.get().uri(BASE_PATH + "/abc").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void createTransactions_overLimit_badRequest() throws Exception {
+        client.post().uri(BASE_PATH + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(request(), request(), request()))
+                .exchange()
+                .expectStatus().isBadRequest();
+        verify(transactionService, never()).createTransactions(any());
+    }
+
+    @Test
+    public void getAllTransactions_cursorHeaderOrStream() throws Exception {
+        when(transactionService.getTransactionsAfter(isNull(), eq(3)))
+                .thenAnswer(invocation -> Flux.fromStream(LongStream.rangeClosed(1, 3).mapToObj(ReactiveTransactionRouterTest::response)));
+        when(transactionService.searchTransactions(any(TransactionSearchCriteria.class), eq(10L), anyInt()))
+                .thenReturn(Flux.just(response(11L)));
+
+        client.get().uri(BASE_PATH + "?limit=3").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(TransactionController.NEXT_CURSOR_HEADER, "3")
+                .expectBody().jsonPath("$.length()").isEqualTo(3);
+
+        client.get().uri(BASE_PATH + "?limit=3")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(TransactionController.NEXT_CURSOR_HEADER)
+                .expectBodyList(TransactionResponse.class).hasSize(3);
+
+        client.get().uri(BASE_PATH + "?after=10&status=COMPLETED&from=2025-05-20T00:00:00").exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(TransactionController.NEXT_CURSOR_HEADER)
+                .expectBody().jsonPath("$[0].id").isEqualTo(11);
+        verify(transactionService).searchTransactions(eq(TransactionSearchCriteria.builder()
+                .status(TransactionStatus.COMPLETED)
+                .from(LocalDateTime.of(2025, 5, 20, 0, 0))
+                .build()), eq(10L), eq(10));
+
+        client.get().uri(BASE_PATH + "?status=NOPE").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void getAllTransactions_pageSizeOutOfRange_badRequest() throws Exception {
+        client.get().uri(BASE_PATH + "?limit=-1").exchange().expectStatus().isBadRequest();
+        client.get().uri(BASE_PATH + "?limit=101").exchange().expectStatus().isBadRequest();
+        client.get().uri(BASE_PATH + "?page=2&size=0").exchange().expectStatus().isBadRequest();
+        verify(transactionService, never()).getTransactionsAfter(any(), anyInt());
+        verify(transactionService, never()).getAllTransactions(anyInt(), anyInt());
+    }
+
+    private static TransactionRequest request() {
+        return TransactionRequest.builder()
+                .amount(new BigDecimal("100.00"))
+                .currency("USD")
+                .type(TransactionType.TRANSFER)
+                .senderAccount("A123456")
+                .receiverAccount("B654321")
+                .channel("MOBILE")
+                .status(TransactionStatus.PENDING)
+                .build();
+    }
+
+    private static TransactionResponse response(long id) {
+        final TransactionResponse response = new TransactionResponse();
+        response.setId(id);
+        response.setAmount(new BigDecimal("100.00"));
+        response.setCurrency("USD");
+        response.setStatus(TransactionStatus.PENDING);
+        return response;
+    }
+}
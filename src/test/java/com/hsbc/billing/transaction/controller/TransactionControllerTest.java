@@ -6,31 +6,58 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.billing.transaction.cache.EncodedTransactionCache;
+import com.hsbc.billing.transaction.config.CacheConfig;
+import com.hsbc.billing.transaction.config.CborConfig;
+import com.hsbc.billing.transaction.dto.BatchCreateResponse;
+import com.hsbc.billing.transaction.dto.BatchItemResult;
+import com.hsbc.billing.transaction.dto.ImportResult;
+import com.hsbc.billing.transaction.dto.StatsEntry;
 import com.hsbc.billing.transaction.dto.TransactionRequest;
 import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
+import com.hsbc.billing.transaction.dto.TransactionStatsResponse;
 import com.hsbc.billing.transaction.exception.TransactionDuplicatedException;
 import com.hsbc.billing.transaction.exception.TransactionNotFoundException;
 import com.hsbc.billing.transaction.model.Transaction;
 import com.hsbc.billing.transaction.model.TransactionStatus;
 import com.hsbc.billing.transaction.model.TransactionType;
+import com.hsbc.billing.transaction.service.TransactionBulkService;
 import com.hsbc.billing.transaction.service.TransactionService;
+import com.hsbc.billing.transaction.stats.StatsDimension;
+import com.hsbc.billing.transaction.stats.StatsWindow;
+import com.hsbc.billing.transaction.stats.TransactionStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -38,6 +65,7 @@ import java.util.List;
  * @author Nickel Fang 2025/4/24
  */
 @WebMvcTest(TransactionController.class)
+@Import({CborConfig.class, CacheConfig.class})
 public class TransactionControllerTest {
 
     @Autowired
@@ -46,9 +74,23 @@ public class TransactionControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    private ObjectMapper cborMapper;
+
+    @Autowired
+    private EncodedTransactionCache encodedTransactionCache;
+
     @MockitoBean
     private TransactionService transactionService;
 
+    @MockitoBean
+    private TransactionBulkService transactionBulkService;
+
+    @MockitoBean
+    private TransactionStatistics transactionStatistics;
+
     private TransactionRequest transactionRequest;
 
     @BeforeEach
@@ -65,7 +107,8 @@ public class TransactionControllerTest {
                 .deviceFingerprint("fingerprint")
                 .ipAddress("192.168.1.1")
                 .build();
-
+        cborMapper = cborConverter.getObjectMapper();
+        encodedTransactionCache.onClear();
     }
 
     @Test
@@ -167,6 +210,67 @@ public class TransactionControllerTest {
         assertNotNull(get.getTransactionTime());
     }
 
+    @Test
+    public void getTransaction_servesCachedJsonWithEtag() throws Exception {
+        final Transaction transaction = Transaction.fromDTO(transactionRequest);
+        transaction.setId(1l);
+        when(transactionService.getTransaction(1l)).thenReturn(Transaction.toDTO(transaction));
+
+        final MvcResult first = mockMvc.perform(get("/api/v2/transactions/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(1))
+                .andReturn();
+        final String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        mockMvc.perform(get("/api/v2/transactions/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(first.getResponse().getContentAsByteArray()));
+        mockMvc.perform(get("/api/v2/transactions/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(transactionService, times(1)).getTransaction(1l);
+
+        // another representation skips the JSON cache
+        mockMvc.perform(get("/api/v2/transactions/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        verify(transactionService, times(2)).getTransaction(1l);
+
+        // invalidated by the repository on an update
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        when(transactionService.getTransaction(1l)).thenReturn(Transaction.toDTO(transaction));
+        encodedTransactionCache.onChange(transaction, transaction);
+        mockMvc.perform(get("/api/v2/transactions/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    public void getTransaction_cborPreferredOverJson() throws Exception {
+        final Transaction transaction = Transaction.fromDTO(transactionRequest);
+        transaction.setId(1l);
+        when(transactionService.getTransaction(1l)).thenReturn(Transaction.toDTO(transaction));
+
+        for (String accept : List.of("application/cbor, */*;q=0.1", "application/cbor, application/json;q=0.5",
+                "application/json;q=0.5, application/cbor")) {
+            final byte[] content = mockMvc.perform(get("/api/v2/transactions/1").header(HttpHeaders.ACCEPT, accept))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsByteArray();
+            assertEquals(Transaction.toDTO(transaction), cborMapper.readValue(content, TransactionResponse.class));
+        }
+
+        mockMvc.perform(get("/api/v2/transactions/1").header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, */*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
     @Test
     public void getTransaction_returns404() throws Exception {
         when(transactionService.getTransaction(eq(1l))).thenThrow(new TransactionNotFoundException(1l));
@@ -192,4 +296,179 @@ public class TransactionControllerTest {
         List transactionResponses = objectMapper.readValue(content, List.class);
         assertEquals(1l, transactionResponses.size());
     }
+
+    @Test
+    public void getTransactionsAfter_returns200WithNextCursor() throws Exception {
+        final Transaction transaction = Transaction.fromDTO(transactionRequest);
+        transaction.setId(2l);
+        final List<TransactionResponse> responses = List.of(Transaction.toDTO(transaction));
+        when(transactionService.getTransactionsAfter(eq(1l), eq(1))).thenReturn(responses);
+
+        final String content = mockMvc.perform(get("/api/v2/transactions?after=1&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TransactionController.NEXT_CURSOR_HEADER, "2"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List transactionResponses = objectMapper.readValue(content, List.class);
+        assertEquals(1l, transactionResponses.size());
+    }
+
+    @Test
+    public void searchTransactions_bindsCriteria() throws Exception {
+        final Transaction transaction = Transaction.fromDTO(transactionRequest);
+        transaction.setId(2l);
+        final TransactionSearchCriteria criteria = TransactionSearchCriteria.builder()
+                .sender("1111111111111111")
+                .status(TransactionStatus.PENDING)
+                .from(LocalDateTime.of(2025, 5, 17, 0, 0))
+                .build();
+        when(transactionService.searchTransactions(eq(criteria), eq(null), eq(1))).thenReturn(List.of(Transaction.toDTO(transaction)));
+
+        final String content = mockMvc.perform(get("/api/v2/transactions?sender=1111111111111111&status=PENDING&from=2025-05-17T00:00:00&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TransactionController.NEXT_CURSOR_HEADER, "2"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List transactionResponses = objectMapper.readValue(content, List.class);
+        assertEquals(1l, transactionResponses.size());
+    }
+
+    @Test
+    public void getAllTransactions_returns400WhenPageSizeOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/v2/transactions?limit=-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v2/transactions?after=1&limit=100000000")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v2/transactions?size=0")).andExpect(status().isBadRequest());
+        verify(transactionService, times(0)).getTransactionsAfter(any(), any());
+        verify(transactionService, times(0)).getAllTransactions(any(), any());
+    }
+
+    @Test
+    public void createTransactions_returns200WithItemResults() throws Exception {
+        final BatchCreateResponse batchResponse = new BatchCreateResponse(1, 1, 0,
+                List.of(BatchItemResult.created(0, 1l), BatchItemResult.duplicate(1, "duplicated")));
+        when(transactionService.createTransactions(any())).thenReturn(batchResponse);
+
+        final String content = mockMvc.perform(post("/api/v2/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(transactionRequest, transactionRequest))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(batchResponse, objectMapper.readValue(content, BatchCreateResponse.class));
+    }
+
+    @Test
+    public void createTransactions_cborRequestAndResponse() throws Exception {
+        final BatchCreateResponse batchResponse = new BatchCreateResponse(1, 0, 0, List.of(BatchItemResult.created(0, 1l)));
+        when(transactionService.createTransactions(any())).thenReturn(batchResponse);
+        final Transaction transaction = Transaction.fromDTO(transactionRequest);
+        transaction.setId(1l);
+        when(transactionService.getAllTransactions(any(Integer.class), any(Integer.class))).thenReturn(List.of(Transaction.toDTO(transaction)));
+
+        final byte[] content = mockMvc.perform(post("/api/v2/transactions/batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(List.of(transactionRequest))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        assertEquals(batchResponse, cborMapper.readValue(content, BatchCreateResponse.class));
+        verify(transactionService).createTransactions(eq(List.of(transactionRequest)));
+
+        final byte[] list = mockMvc.perform(get("/api/v2/transactions").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        final TransactionResponse[] responses = cborMapper.readValue(list, TransactionResponse[].class);
+        assertEquals(Transaction.toDTO(transaction), responses[0]);
+
+        // JSON stays the default
+        mockMvc.perform(get("/api/v2/transactions"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void createTransactions_returns400WhenTooLarge() throws Exception {
+        final List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            requests.add(transactionRequest);
+        }
+        mockMvc.perform(post("/api/v2/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportTransactions_streamsNdjson() throws Exception {
+        when(transactionBulkService.exportTransactions(any())).thenAnswer(invocation -> {
+            final OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        final MvcResult result = mockMvc.perform(get("/api/v2/transactions/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final String content = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", content);
+    }
+
+    @Test
+    public void exportTransactions_withinWindow() throws Exception {
+        when(transactionBulkService.exportTransactions(any(), eq(LocalDateTime.of(2025, 5, 18, 0, 0)), eq(null)))
+                .thenAnswer(invocation -> {
+                    final OutputStream out = invocation.getArgument(0);
+                    out.write("{\"id\":3}\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        final MvcResult result = mockMvc.perform(get("/api/v2/transactions/export?from=2025-05-18T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final String content = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertEquals("{\"id\":3}\n", content);
+    }
+
+    @Test
+    public void getStatistics_returns200() throws Exception {
+        final TransactionStatsResponse stats = new TransactionStatsResponse(StatsWindow.HOUR, null, null, StatsDimension.TYPE, 2,
+                List.of(new StatsEntry("TRANSFER", "CNY", 2, new BigDecimal("177.76"))));
+        when(transactionStatistics.snapshot(StatsWindow.HOUR, StatsDimension.TYPE, true)).thenReturn(stats);
+
+        mockMvc.perform(get("/api/v2/transactions/stats?window=HOUR&dimension=TYPE&previous=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.entries[0].value").value("TRANSFER"))
+                .andExpect(jsonPath("$.entries[0].amount").value(177.76));
+    }
+
+    @Test
+    public void importTransactions_returns200() throws Exception {
+        when(transactionBulkService.importTransactions(any())).thenReturn(new ImportResult(2, 0, List.of()));
+
+        mockMvc.perform(post("/api/v2/transactions/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"id\":1}\n{\"id\":2}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+    }
 }
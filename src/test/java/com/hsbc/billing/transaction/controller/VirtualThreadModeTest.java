@@ -0,0 +1,37 @@
+package com.hsbc.billing.transaction.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * @author Nickel Fang 2025/5/19
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=true", "transaction.audit.dir=target/audit"})
+public class VirtualThreadModeTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    public void virtualThreads_serveRequestsOnVirtualThreadExecutor() throws Exception {
+        final TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+        assertInstanceOf(VirtualThreadExecutor.class, webServer.getTomcat().getConnector().getProtocolHandler().getExecutor());
+
+        final ResponseEntity<String> response = restTemplate.getForEntity("/api/v2/transactions?page=1&size=10", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+}
@@ -0,0 +1,86 @@
+package com.hsbc.billing.transaction.dedup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Nickel Fang 2025/5/15
+ */
+public class CaffeineDuplicateDetectorTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    public void isDuplicate_withinWindowOnly() throws Exception {
+        final CaffeineDuplicateDetector detector = new CaffeineDuplicateDetector(Duration.ofMinutes(1), 1_000, nanos::get);
+        assertFalse(detector.isDuplicate(request("A", "B", "10.00", "USD")));
+        assertTrue(detector.isDuplicate(request("A", "B", "10.00", "USD")));
+
+        // a duplicate does not extend the window
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertTrue(detector.isDuplicate(request("A", "B", "10.00", "USD")));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertFalse(detector.isDuplicate(request("A", "B", "10.00", "USD")));
+    }
+
+    @Test
+    public void isDuplicate_concurrentIdenticalRequests_acceptsOne() throws Exception {
+        final CaffeineDuplicateDetector detector = new CaffeineDuplicateDetector(Duration.ofMinutes(1), 1_000);
+        final AtomicInteger accepted = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 8; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    if (!detector.isDuplicate(request("A", "B", "10.00", "USD"))) {
+                        accepted.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, accepted.get());
+    }
+
+    @Test
+    public void fingerprint_followsFeatureInfoEquality() throws Exception {
+        assertEquals(FeatureFingerprint.of(request("A", "B", "10.00", "USD")),
+                FeatureFingerprint.of(request(new String("A"), "B", new BigDecimal("10.00").toString(), "USD")));
+        // differs wherever the joined feature info differs
+        assertNotEquals(FeatureFingerprint.of(request("A", "B", "10.00", "USD")), FeatureFingerprint.of(request("A", "B", "10.0", "USD")));
+        assertNotEquals(FeatureFingerprint.of(request("AB", "C", "1", "USD")), FeatureFingerprint.of(request("A", "BC", "1", "USD")));
+        assertNotEquals(FeatureFingerprint.of(request("A", "B", "1", "USD")), FeatureFingerprint.of(request("B", "A", "1", "USD")));
+        assertNotEquals(FeatureFingerprint.of(request("A", null, "1", "USD")), FeatureFingerprint.of(request("A", "", "1", "USD")));
+        assertNotEquals(FeatureFingerprint.of(request("A", "B", "123456789012345678901234567890", "USD")),
+                FeatureFingerprint.of(request("A", "B", "123456789012345678901234567891", "USD")));
+    }
+
+    private static TransactionRequest request(String sender, String receiver, String amount, String currency) {
+        return TransactionRequest.builder()
+                .senderAccount(sender)
+                .receiverAccount(receiver)
+                .amount(new BigDecimal(amount))
+                .currency(currency)
+                .build();
+    }
+}
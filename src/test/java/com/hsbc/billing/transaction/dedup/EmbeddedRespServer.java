@@ -0,0 +1,134 @@
+package com.hsbc.billing.transaction.dedup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * Local stand-in for the shared duplicate store, speaks enough RESP for {@link SharedDuplicateDetector}:
+ * {@code SET key value [NX] [PX millis]}, {@code PTTL key} and {@code PING}. Every connection is served by its own
+ * thread and answers pipelined commands in order, flushing once nothing more is buffered.
+ *
+ * @author Nickel Fang 2025/5/16
+ */
+public class EmbeddedRespServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final LongSupplier clockMillis;
+    // key to expiry time in milliseconds, Long.MAX_VALUE without expiry
+    private final Map<String, Long> keys = new ConcurrentHashMap<>();
+
+    public EmbeddedRespServer() throws IOException {
+        this(System::currentTimeMillis);
+    }
+
+    public EmbeddedRespServer(LongSupplier clockMillis) throws IOException {
+        this.clockMillis = clockMillis;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.submit(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int keyCount() {
+        return keys.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private Void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.submit(() -> serve(socket));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private Void serve(Socket socket) {
+        try (socket) {
+            final InputStream in = new BufferedInputStream(socket.getInputStream());
+            final OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (true) {
+                final Object command = RespClient.readReply(in);
+                out.write(execute((List<?>) command).getBytes(StandardCharsets.UTF_8));
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String execute(List<?> command) {
+        final String name = ((String) command.get(0)).toUpperCase();
+        final long now = clockMillis.getAsLong();
+        switch (name) {
+            case "PING":
+                return "+PONG\r\n";
+            case "SET": {
+                final String key = (String) command.get(1);
+                boolean nx = false;
+                long expiry = Long.MAX_VALUE;
+                for (int i = 3; i < command.size(); i++) {
+                    final String option = ((String) command.get(i)).toUpperCase();
+                    if (option.equals("NX")) {
+                        nx = true;
+                    } else if (option.equals("PX")) {
+                        expiry = now + Long.parseLong((String) command.get(++i));
+                    } else {
+                        return "-ERR syntax error\r\n";
+                    }
+                }
+                if (!nx) {
+                    keys.put(key, expiry);
+                    return "+OK\r\n";
+                }
+                final long newExpiry = expiry;
+                final boolean[] set = new boolean[1];
+                keys.compute(key, (k, current) -> {
+                    if (current != null && current > now) {
+                        return current;
+                    }
+                    set[0] = true;
+                    return newExpiry;
+                });
+                return set[0] ? "+OK\r\n" : "$-1\r\n";
+            }
+            case "PTTL": {
+                final Long expiry = keys.get((String) command.get(1));
+                if (expiry == null || expiry <= now) {
+                    return ":-2\r\n";
+                }
+                return ":" + (expiry == Long.MAX_VALUE ? -1 : expiry - now) + "\r\n";
+            }
+            default:
+                return "-ERR unknown command '" + name + "'\r\n";
+        }
+    }
+}
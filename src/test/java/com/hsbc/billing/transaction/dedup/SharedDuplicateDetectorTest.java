@@ -0,0 +1,131 @@
+package com.hsbc.billing.transaction.dedup;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two detectors against one {@link EmbeddedRespServer} stand for two replicas sharing the duplicate store.
+ *
+ * @author Nickel Fang 2025/5/16
+ */
+public class SharedDuplicateDetectorTest {
+
+    private final AtomicLong millis = new AtomicLong(1_000_000);
+
+    private EmbeddedRespServer server;
+
+    private SharedDuplicateDetector replicaA;
+
+    private SharedDuplicateDetector replicaB;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new EmbeddedRespServer(millis::get);
+        replicaA = detector(server.getPort());
+        replicaB = detector(server.getPort());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        replicaA.close();
+        replicaB.close();
+        server.close();
+    }
+
+    @Test
+    public void isDuplicate_acrossReplicas() throws Exception {
+        assertFalse(replicaA.isDuplicate(request("A", "B", "10.00")));
+        assertTrue(replicaB.isDuplicate(request("A", "B", "10.00")));
+        assertTrue(replicaA.isDuplicate(request("A", "B", "10.00")));
+        assertFalse(replicaB.isDuplicate(request("A", "B", "10.01")));
+        assertEquals(2, server.keyCount());
+    }
+
+    @Test
+    public void isDuplicate_nearCacheExpiresWithTheStore() throws Exception {
+        assertFalse(replicaA.isDuplicate(request("A", "B", "10.00")));
+        millis.addAndGet(30_000);
+        // remembered by replica B for the 30 seconds left in the store, not for a window of its own
+        assertTrue(replicaB.isDuplicate(request("A", "B", "10.00")));
+        millis.addAndGet(31_000);
+        assertFalse(replicaB.isDuplicate(request("A", "B", "10.00")));
+        assertTrue(replicaA.isDuplicate(request("A", "B", "10.00")));
+    }
+
+    @Test
+    public void areDuplicates_pipelinesTheBatch() throws Exception {
+        assertArrayEquals(new boolean[]{false, false, true},
+                replicaA.areDuplicates(List.of(request("A", "B", "1"), request("A", "B", "2"), request("A", "B", "1"))));
+        assertArrayEquals(new boolean[]{true, false, true},
+                replicaB.areDuplicates(List.of(request("A", "B", "2"), request("A", "B", "3"), request("A", "B", "1"))));
+    }
+
+    @Test
+    public void isDuplicate_concurrentAcrossReplicas_acceptsOne() throws Exception {
+        final AtomicInteger accepted = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 8; i++) {
+                final SharedDuplicateDetector replica = i % 2 == 0 ? replicaA : replicaB;
+                executor.submit(() -> {
+                    start.await();
+                    if (!replica.isDuplicate(request("A", "B", "10.00"))) {
+                        accepted.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, accepted.get());
+    }
+
+    @Test
+    public void isDuplicate_storeUnavailable_fallsBackToLocal() throws Exception {
+        final int port;
+        try (ServerSocket unused = new ServerSocket(0)) {
+            port = unused.getLocalPort();
+        }
+        try (SharedDuplicateDetector detector = detector(port)) {
+            assertFalse(detector.isDuplicate(request("A", "B", "10.00")));
+            assertTrue(detector.isDuplicate(request("A", "B", "10.00")));
+        }
+    }
+
+    private SharedDuplicateDetector detector(int port) {
+        return new SharedDuplicateDetector(new RespClient("localhost", port), "test:", Duration.ofMinutes(1), 1_000,
+                Duration.ofSeconds(1), () -> TimeUnit.MILLISECONDS.toNanos(millis.get()));
+    }
+
+    private static TransactionRequest request(String sender, String receiver, String amount) {
+        return TransactionRequest.builder()
+                .senderAccount(sender)
+                .receiverAccount(receiver)
+                .amount(new BigDecimal(amount))
+                .currency("USD")
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.hsbc.billing.transaction.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.cache.EncodedTransactionCache;
+import com.hsbc.billing.transaction.dto.TransactionRequest;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+
+/**
+ * @author Nickel Fang 2025/5/21
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"transaction.audit.dir=target/audit",
+        "transaction.repository.storage=COMPACT", "transaction.cache.enabled=true", "transaction.cache.cold-max-mb=16"})
+@AutoConfigureObservability
+public class TransactionMetricsTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    public void create_recordsStagesCacheAndRepositoryMetrics() throws Exception {
+        final Timer create = registry.get(TransactionMetrics.OPERATION_TIMER).tag("operation", "create").timer();
+        final long creates = create.count();
+        final double hits = registry.get("cache.gets").tag("cache", EncodedTransactionCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count();
+        final double reads = cacheGets("cold", "miss");
+
+        final ResponseEntity<TransactionResponse> created = restTemplate.postForEntity("/api/v2/transactions", request(),
+                TransactionResponse.class);
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        // read from the repository through the tiered cache, then served as JSON encoded by the first read
+        restTemplate.getForEntity("/api/v2/transactions/" + created.getBody().getId(), TransactionResponse.class);
+        restTemplate.getForEntity("/api/v2/transactions/" + created.getBody().getId(), TransactionResponse.class);
+
+        assertEquals(creates + 1, create.count());
+        for (String stage : new String[]{"duplicate-check", "id-generation", "repository-write", "mapping"}) {
+            assertEquals(creates + 1, registry.get(TransactionMetrics.CREATE_STAGE_TIMER).tag("stage", stage).timer().count());
+        }
+        assertEquals(hits + 1, registry.get("cache.gets").tag("cache", EncodedTransactionCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(reads + 1, cacheGets("cold", "miss"));
+        assertTrue(registry.get("transaction.cache.weight").tag("tier", "hot").gauge().value() > 0);
+        assertTrue(registry.get("transaction.repository.size").gauge().value() >= 1);
+        assertNotNull(registry.get("cache.evictions").tag("cache", "duplicate-fingerprints").functionCounter());
+
+        final String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+        assertTrue(scrape.contains("transaction_operation_seconds_bucket{operation=\"create\""), scrape);
+        assertTrue(scrape.contains("transaction_create_stage_seconds_bucket{stage=\"repository-write\""));
+    }
+
+    private double cacheGets(String tier, String result) {
+        return registry.get("cache.gets").tag("cache", "transactions").tag("tier", tier).tag("result", result).functionCounter().count();
+    }
+
+    private static TransactionRequest request() {
+        return TransactionRequest.builder()
+                .amount(new BigDecimal("42.00"))
+                .currency("USD")
+                .type(TransactionType.TRANSFER)
+                .senderAccount("M123456")
+                .receiverAccount("N654321")
+                .channel("MOBILE")
+                .status(TransactionStatus.PENDING)
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.hsbc.billing.transaction.replication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.billing.transaction.TransactionApiApplication;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.service.ReactiveTransactionService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.netty.DisposableServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A leader and a follower of it in this JVM on their own ports.
+ *
+ * @author Nickel Fang 2025/5/28
+ */
+public class ReplicationTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private static final HttpClient client = HttpClient.newHttpClient();
+    private static final AtomicInteger seed = new AtomicInteger();
+
+    private static ConfigurableApplicationContext leader;
+    private static ConfigurableApplicationContext follower;
+    private static URI leaderUrl;
+    private static URI followerUrl;
+    private static TransactionResponse beforeFollower;
+
+    @BeforeAll
+    public static void startReplicas() throws Exception {
+        final int leaderPort = freePort();
+        final int replicationPort = freePort();
+        final int followerPort = freePort();
+        leaderUrl = URI.create("http://localhost:" + leaderPort);
+        followerUrl = URI.create("http://localhost:" + followerPort);
+        leader = new SpringApplicationBuilder(TransactionApiApplication.class).run(
+                "--server.port=" + leaderPort,
+                "--transaction.replication.role=LEADER",
+                "--transaction.replication.port=" + replicationPort,
+                "--transaction.audit.dir=target/audit/replication-leader",
+                "--spring.main.banner-mode=off");
+        // shipped in the snapshot
+        beforeFollower = create(leaderUrl);
+        follower = new SpringApplicationBuilder(TransactionApiApplication.class).run(
+                "--server.port=" + followerPort,
+                "--transaction.replication.role=FOLLOWER",
+                "--transaction.replication.leader.port=" + replicationPort,
+                "--transaction.replication.leader.url=" + leaderUrl,
+                "--transaction.reactive.enabled=true",
+                "--transaction.reactive.port=0",
+                "--transaction.audit.dir=target/audit/replication-follower",
+                "--spring.main.banner-mode=off");
+        awaitTrue(() -> follower.getBean(ReplicationFollower.class).lagMillis() < 1000);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @AfterAll
+    public static void stopReplicas() {
+        follower.close();
+        leader.close();
+    }
+
+    @Test
+    public void follower_appliesSnapshotAndChanges() throws Exception {
+        final TransactionRepository replica = follower.getBean(TransactionRepository.class);
+        assertNotNull(replica.findById(beforeFollower.getId()));
+
+        final TransactionResponse created = create(leaderUrl);
+        awaitTrue(() -> replica.findById(created.getId()) != null);
+        final HttpResponse<String> read = send(followerUrl, "GET", "/api/v2/transactions/" + created.getId(), null);
+        assertEquals(200, read.statusCode());
+        assertTrue(Long.parseLong(read.headers().firstValue(ReplicaRequestInterceptor.LAG_HEADER).orElseThrow()) >= 0);
+
+        assertEquals(200, send(leaderUrl, "PUT", "/api/v2/transactions/" + created.getId(), request("Alipay")).statusCode());
+        awaitTrue(() -> "Alipay".equals(replica.findById(created.getId()).getChannel()));
+
+        assertEquals(204, send(leaderUrl, "DELETE", "/api/v2/transactions/" + created.getId(), null).statusCode());
+        awaitTrue(() -> replica.findById(created.getId()) == null);
+        assertEquals(404, send(followerUrl, "GET", "/api/v2/transactions/" + created.getId(), null).statusCode());
+        assertEquals(leader.getBean(TransactionRepository.class).count(), replica.count());
+    }
+
+    @Test
+    public void follower_forwardsWritesToLeader() throws Exception {
+        final TransactionResponse created = create(followerUrl);
+        assertNotNull(leader.getBean(TransactionRepository.class).findById(created.getId()));
+        awaitTrue(() -> follower.getBean(TransactionRepository.class).findById(created.getId()) != null);
+
+        assertEquals(204, send(followerUrl, "DELETE", "/api/v2/transactions/" + created.getId(), null).statusCode());
+        assertNull(leader.getBean(TransactionRepository.class).findById(created.getId()));
+    }
+
+    @Test
+    public void follower_withoutReactiveServer() {
+        assertThrows(NoSuchBeanDefinitionException.class, () -> follower.getBean(DisposableServer.class));
+        assertThrows(NoSuchBeanDefinitionException.class, () -> follower.getBean(ReactiveTransactionService.class));
+    }
+
+    @Test
+    public void follower_withoutLeader_down() {
+        final ReplicationFollower orphan = new ReplicationFollower(null, "localhost", 1, 100, 5000);
+        assertEquals(Long.MAX_VALUE, orphan.lagMillis());
+        assertEquals(Status.DOWN, orphan.health().getStatus());
+    }
+
+    private static TransactionResponse create(URI instance) throws Exception {
+        final HttpResponse<String> response = send(instance, "POST", "/api/v2/transactions", request("WeChat"));
+        assertEquals(201, response.statusCode());
+        return objectMapper.readValue(response.body(), TransactionResponse.class);
+    }
+
+    // a distinct sender every time, so no request is a duplicate of another
+    private static String request(String channel) {
+        return """
+                {"amount":88.88,"currency":"CNY","type":"TRANSFER","senderAccount":"%d","receiverAccount":"2222222222222222",
+                "channel":"%s","status":"PENDING"}""".formatted(2_000_000_000_000_000L + seed.incrementAndGet(), channel);
+    }
+
+    private static HttpResponse<String> send(URI instance, String method, String pathAndQuery, String json) throws Exception {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(instance + pathAndQuery))
+                .method(method, json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json));
+        if (json != null) {
+            request.header("Content-Type", "application/json");
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "not replicated within 10 seconds");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+}
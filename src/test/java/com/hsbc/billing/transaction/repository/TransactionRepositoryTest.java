@@ -0,0 +1,215 @@
+package com.hsbc.billing.transaction.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * @author Nickel Fang 2025/5/6
+ */
+public class TransactionRepositoryTest {
+
+    private TransactionRepository repo;
+
+    @BeforeEach
+    public void setUp() {
+        repo = new TransactionRepository(new HeapTransactionStore(), null, TransactionRepository.DEFAULT_INDEXES, List.of());
+    }
+
+    @Test
+    public void findAfter_orderedById() throws Exception {
+        repo.save(transaction(30L));
+        repo.save(transaction(10L));
+        repo.save(transaction(20L));
+
+        final List<Transaction> first = repo.findAfter(null, 2);
+        assertEquals(List.of(10L, 20L), first.stream().map(Transaction::getId).toList());
+
+        final List<Transaction> second = repo.findAfter(20L, 2);
+        assertEquals(List.of(30L), second.stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    public void findAfter_stableUnderInserts() throws Exception {
+        repo.save(transaction(10L));
+        repo.save(transaction(20L));
+        final List<Transaction> first = repo.findAfter(null, 2);
+
+        // a transaction inserted before the cursor does not shift the next page
+        repo.save(transaction(5L));
+        repo.save(transaction(30L));
+
+        final List<Transaction> second = repo.findAfter(first.get(first.size() - 1).getId(), 2);
+        assertEquals(List.of(30L), second.stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    public void findAll_pagesInIdOrder() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            repo.save(transaction(id));
+        }
+        assertEquals(List.of(3L, 4L), repo.findAll(1, 2).stream().map(Transaction::getId).toList());
+        assertEquals(List.of(5L), repo.findAll(2, 2).stream().map(Transaction::getId).toList());
+        assertTrue(repo.findAll(3, 2).isEmpty());
+    }
+
+    @Test
+    public void delete_removesFromOrderedIndex() throws Exception {
+        repo.save(transaction(1L));
+        repo.save(transaction(2L));
+        repo.delete(1L);
+
+        assertFalse(repo.existsById(1L));
+        assertEquals(List.of(2L), repo.findAfter(null, 10).stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    public void compactStore_savesAndFinds() throws Exception {
+        repo = new TransactionRepository(new CompactTransactionStore(), null, TransactionRepository.DEFAULT_INDEXES, List.of());
+        final Transaction transaction = transaction(1L);
+        repo.save(transaction);
+        repo.save(transaction(2L));
+
+        assertEquals(transaction, repo.findById(1L));
+        assertEquals(List.of(1L, 2L), repo.findAfter(null, 10).stream().map(Transaction::getId).toList());
+        repo.delete(1L);
+        assertFalse(repo.existsById(1L));
+        assertEquals(1L, repo.count());
+    }
+
+    @Test
+    public void query_bySender_followsUpdatesAndDeletes() throws Exception {
+        for (long id = 1; id <= 6; id++) {
+            final Transaction transaction = transaction(id);
+            transaction.setSenderAccount(id % 2 == 0 ? "even" : "odd");
+            repo.save(transaction);
+        }
+        final TransactionQuery bySender = TransactionQuery.builder().senderAccount("even").build();
+        assertEquals(List.of(2L, 4L, 6L), ids(repo.query(bySender, 10)));
+
+        final Transaction moved = transaction(3L);
+        moved.setSenderAccount("even");
+        repo.update(moved);
+        repo.delete(4L);
+        assertEquals(List.of(2L, 3L, 6L), ids(repo.query(bySender, 10)));
+        assertEquals(List.of(1L, 5L), ids(repo.query(TransactionQuery.builder().senderAccount("odd").build(), 10)));
+
+        // cursor, id bounds and further filters apply within the posting list
+        assertEquals(List.of(3L), ids(repo.query(TransactionQuery.builder().senderAccount("even").afterId(2L).beforeId(6L).build(), 10)));
+        assertEquals(List.of(2L), ids(repo.query(bySender, 1)));
+        assertTrue(repo.query(TransactionQuery.builder().senderAccount("even").channel("Alipay").build(), 10).isEmpty());
+    }
+
+    @Test
+    public void query_bySender_readsPostingsBeyondOneChunk() throws Exception {
+        // inserted out of order, then every third one deleted, so the list shifts and compacts
+        for (long id = 1000; id >= 1; id--) {
+            final Transaction transaction = transaction(id);
+            transaction.setSenderAccount("shared");
+            repo.save(transaction);
+        }
+        for (long id = 3; id <= 1000; id += 3) {
+            repo.delete(id);
+        }
+        final List<Long> expected = LongStream.rangeClosed(1, 1000).filter(id -> id % 3 != 0).boxed().toList();
+        assertEquals(expected, ids(repo.query(TransactionQuery.builder().senderAccount("shared").build(), 1000)));
+        assertEquals(expected.subList(400, 500), ids(repo.query(TransactionQuery.builder()
+                .senderAccount("shared").afterId(expected.get(399)).build(), 100)));
+
+        for (long id = 1; id <= 1000; id++) {
+            repo.delete(id);
+        }
+        assertTrue(repo.query(TransactionQuery.builder().senderAccount("shared").build(), 10).isEmpty());
+        repo.save(transaction(7L));
+        assertTrue(repo.query(TransactionQuery.builder().senderAccount("shared").build(), 10).isEmpty());
+    }
+
+    @Test
+    public void query_withoutIndex_scansById() throws Exception {
+        repo = new TransactionRepository(new CompactTransactionStore(), null, EnumSet.noneOf(IndexedField.class), List.of());
+        for (long id = 1; id <= 3000; id++) {
+            final Transaction transaction = transaction(id);
+            transaction.setStatus(id % 1000 == 0 ? TransactionStatus.COMPLETED : TransactionStatus.PENDING);
+            repo.save(transaction);
+        }
+        final TransactionQuery completed = TransactionQuery.builder().status(TransactionStatus.COMPLETED).build();
+        assertEquals(List.of(1000L, 2000L, 3000L), ids(repo.query(completed, 10)));
+        assertEquals(List.of(2000L), ids(repo.query(TransactionQuery.builder()
+                .status(TransactionStatus.COMPLETED).afterId(1000L).beforeId(3000L).build(), 10)));
+    }
+
+    @Test
+    public void shardedStore_mergesShardsInIdOrder() throws Exception {
+        final ShardedTransactionStore store = new ShardedTransactionStore(4, shard -> new HeapTransactionStore());
+        repo = new TransactionRepository(store, null, TransactionRepository.DEFAULT_INDEXES, List.of());
+        for (long id = 3000; id >= 1; id--) {
+            repo.save(transaction(id));
+        }
+        for (int shard = 0; shard < store.shards(); shard++) {
+            assertTrue(store.shard(shard).size() > 500);
+        }
+        assertEquals(3000L, repo.count());
+
+        // pages beyond the merge page of a shard
+        assertEquals(List.of(1201L, 1202L, 1203L), ids(repo.findAll(400, 3)));
+        assertEquals(List.of(2999L, 3000L), ids(repo.findAfter(2998L, 10)));
+        final List<Transaction> between = repo.findBetween(100L, 2901L, 5000);
+        assertEquals(2800, between.size());
+        assertEquals(101L, between.get(0).getId());
+        assertEquals(2900L, between.get(2799).getId());
+
+        repo.delete(1202L);
+        assertEquals(List.of(1201L, 1203L, 1204L), ids(repo.findAll(400, 3)));
+        assertEquals(2999L, repo.count());
+    }
+
+    @Test
+    public void shardedStore_queryMergesIndexPartitions() throws Exception {
+        repo = new TransactionRepository(new ShardedTransactionStore(8, shard -> new CompactTransactionStore()), null,
+                EnumSet.of(IndexedField.SENDER), List.of());
+        for (long id = 1; id <= 100; id++) {
+            final Transaction transaction = transaction(id);
+            transaction.setSenderAccount(id % 10 == 0 ? "tenth" : "other");
+            repo.save(transaction);
+        }
+        final TransactionQuery tenth = TransactionQuery.builder().senderAccount("tenth").build();
+        assertEquals(List.of(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L), ids(repo.query(tenth, 20)));
+        assertEquals(List.of(40L, 50L), ids(repo.query(TransactionQuery.builder()
+                .senderAccount("tenth").afterId(30L).beforeId(90L).build(), 2)));
+
+        repo.delete(50L);
+        assertEquals(List.of(40L, 60L), ids(repo.query(TransactionQuery.builder()
+                .senderAccount("tenth").afterId(30L).build(), 2)));
+    }
+
+    private static List<Long> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    private Transaction transaction(Long id) {
+        final Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(BigDecimal.valueOf(88.88));
+        transaction.setCurrency("CNY");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setSenderAccount("1111111111111111");
+        transaction.setReceiverAccount("2222222222222222");
+        transaction.setChannel("WeChat");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setTransactionTime(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return transaction;
+    }
+}
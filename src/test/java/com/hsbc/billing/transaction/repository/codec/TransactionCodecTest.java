@@ -0,0 +1,84 @@
+package com.hsbc.billing.transaction.repository.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * @author Nickel Fang 2025/5/9
+ */
+public class TransactionCodecTest {
+
+    @Test
+    public void encode_roundTrip() throws Exception {
+        final Transaction transaction = transaction();
+        final Transaction decoded = TransactionCodec.decode(TransactionCodec.encode(transaction));
+        assertEquals(transaction, decoded);
+    }
+
+    @Test
+    public void encode_nullFields() throws Exception {
+        final Transaction transaction = new Transaction();
+        transaction.setId(1L);
+        final Transaction decoded = TransactionCodec.decode(TransactionCodec.encode(transaction));
+        assertEquals(transaction, decoded);
+    }
+
+    @Test
+    public void encode_valuesOutsideTheHeader() throws Exception {
+        final Transaction transaction = transaction();
+        transaction.setAmount(new BigDecimal("123456789012345678901234567890.123"));
+        transaction.setCurrency("元宝币");
+        transaction.setBeneficiaryName("方镍 Fang");
+        assertEquals(transaction, TransactionCodec.decode(TransactionCodec.encode(transaction)));
+
+        transaction.setAmount(new BigDecimal("1E+300"));
+        transaction.setCurrency("CN");
+        assertEquals(transaction, TransactionCodec.decode(TransactionCodec.encode(transaction)));
+    }
+
+    @Test
+    public void view_decodesLazilyToResponse() throws Exception {
+        final Transaction transaction = transaction();
+        final CompactTransactionView view = TransactionCodec.view(TransactionCodec.encode(transaction));
+        final TransactionResponse response = Transaction.toDTO(view);
+        assertEquals(Transaction.toDTO(transaction), response);
+        assertEquals("192.168.1.1", view.getIpAddress());
+        assertNull(view.getDescription());
+        assertEquals(transaction.toString(), view.toString());
+        assertThrows(UnsupportedOperationException.class, () -> view.setAmount(BigDecimal.ONE));
+    }
+
+    @Test
+    public void encode_compactSize() throws Exception {
+        // 32 bytes of header, the strings with one length byte each and the two empty amount/currency slots
+        final byte[] bytes = TransactionCodec.encode(transaction());
+        assertEquals(32 + 17 + 17 + 12 + 7 + 1 + 12 + 12 + 2, bytes.length);
+    }
+
+    private Transaction transaction() {
+        final Transaction transaction = new Transaction();
+        transaction.setId(7321404234614837248L);
+        transaction.setAmount(BigDecimal.valueOf(88.88));
+        transaction.setCurrency("CNY");
+        transaction.setType(TransactionType.CARD_PAYMENT);
+        transaction.setSenderAccount("1111111111111111");
+        transaction.setReceiverAccount("2222222222222222");
+        transaction.setBeneficiaryName("Nickel Fang");
+        transaction.setChannel("WeChat");
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setTransactionTime(LocalDateTime.of(2025, 4, 25, 13, 26, 34, 645404000));
+        transaction.setIpAddress("192.168.1.1");
+        transaction.setDeviceFingerprint("fingerprint");
+        return transaction;
+    }
+}
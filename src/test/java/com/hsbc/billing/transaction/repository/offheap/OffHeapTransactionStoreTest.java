@@ -0,0 +1,140 @@
+package com.hsbc.billing.transaction.repository.offheap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * @author Nickel Fang 2025/5/10
+ */
+public class OffHeapTransactionStoreTest {
+
+    private OffHeapTransactionStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new OffHeapTransactionStore(4096, 4);
+    }
+
+    @Test
+    public void put_getAndUpdate() throws Exception {
+        final Transaction transaction = transaction(1L);
+        store.put(transaction);
+        assertEquals(transaction, store.get(1L));
+        assertTrue(store.contains(1L));
+
+        // a longer record no longer fits its block and moves
+        transaction.setDescription("x".repeat(500));
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        store.put(transaction);
+        assertEquals(transaction, store.get(1L));
+        assertEquals(1, store.size());
+
+        transaction.setDescription(null);
+        store.put(transaction);
+        assertEquals(transaction, store.get(1L));
+    }
+
+    @Test
+    public void get_missingOrNonPositiveId() throws Exception {
+        assertNull(store.get(1L));
+        assertNull(store.get(0L));
+        assertFalse(store.contains(-1L));
+        assertThrows(IllegalArgumentException.class, () -> store.put(transaction(0L)));
+    }
+
+    @Test
+    public void remove_reusesFreedBlocks() throws Exception {
+        for (long id = 1; id <= 20; id++) {
+            store.put(transaction(id));
+        }
+        final long reserved = store.reservedBytes();
+        for (long id = 1; id <= 20; id++) {
+            store.remove(id);
+        }
+        assertEquals(0, store.size());
+        for (long id = 21; id <= 40; id++) {
+            store.put(transaction(id));
+        }
+        assertEquals(reserved, store.reservedBytes());
+        assertEquals(transaction(40L), store.get(40L));
+    }
+
+    @Test
+    public void scan_outOfOrderInsertsAndDeletes() throws Exception {
+        for (long id : new long[]{50, 10, 40, 20, 30}) {
+            store.put(transaction(id));
+        }
+        store.remove(20L);
+        assertEquals(List.of(10L, 30L, 40L, 50L), ids(store.scan(Long.MIN_VALUE, 0, 10)));
+        assertEquals(List.of(40L, 50L), ids(store.scan(Long.MIN_VALUE, 2, 10)));
+        assertEquals(List.of(40L), ids(store.scan(30L, 0, 1)));
+        assertEquals(List.of(30L, 40L), ids(store.scan(10L, 50L, 0, 10)));
+        assertTrue(store.scan(Long.MAX_VALUE, 0, 10).isEmpty());
+
+        // a deleted id comes back in place
+        store.put(transaction(20L));
+        assertEquals(List.of(10L, 20L, 30L), ids(store.scan(0L, 0, 3)));
+    }
+
+    @Test
+    public void scan_afterCompactionAndResize() throws Exception {
+        LongStream.rangeClosed(1, 1000).forEach(id -> store.put(transaction(id)));
+        LongStream.rangeClosed(1, 1000).filter(id -> id % 3 != 0).forEach(store::remove);
+
+        assertEquals(333, store.size());
+        final List<Long> expected = LongStream.rangeClosed(1, 1000).filter(id -> id % 3 == 0).boxed().toList();
+        assertEquals(expected, ids(store.scan(Long.MIN_VALUE, 0, 1000)));
+        expected.forEach(id -> assertEquals(id, store.get(id).getId()));
+    }
+
+    @Test
+    public void clear_dropsEverything() throws Exception {
+        store.put(transaction(1L));
+        store.put(transaction(2L));
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertNull(store.get(1L));
+        assertTrue(store.scan(Long.MIN_VALUE, 0, 10).isEmpty());
+        assertEquals(0, store.reservedBytes());
+
+        store.put(transaction(3L));
+        assertEquals(List.of(3L), ids(store.scan(Long.MIN_VALUE, 0, 10)));
+    }
+
+    private static List<Long> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    private static Transaction transaction(Long id) {
+        final Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setCurrency("USD");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setSenderAccount("A123456");
+        transaction.setReceiverAccount("B654321");
+        transaction.setBeneficiaryName("Fang");
+        transaction.setChannel("MOBILE");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setTransactionTime(LocalDateTime.of(2025, 5, 10, 8, 30).truncatedTo(ChronoUnit.MICROS));
+        transaction.setIpAddress("192.168.1.1");
+        transaction.setDeviceFingerprint("device");
+        return transaction;
+    }
+}
@@ -0,0 +1,208 @@
+package com.hsbc.billing.transaction.repository.wal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * @author Nickel Fang 2025/5/9
+ */
+public class WriteAheadLogTest {
+
+    @TempDir
+    private Path dir;
+
+    private WriteAheadLog wal;
+
+    @AfterEach
+    public void tearDown() {
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    @Test
+    public void recover_replaysSaveUpdateDelete() throws Exception {
+        TransactionRepository repo = open();
+        repo.save(transaction(1L, "88.88"));
+        repo.save(transaction(2L, "10.00"));
+        repo.update(transaction(1L, "99.99"));
+        repo.delete(2L);
+        wal.close();
+
+        repo = open();
+        assertEquals(new BigDecimal("99.99"), repo.findById(1L).getAmount());
+        assertEquals("CNY", repo.findById(1L).getCurrency());
+        assertFalse(repo.existsById(2L));
+    }
+
+    @Test
+    public void recover_fromSnapshotAndTail() throws Exception {
+        TransactionRepository repo = open();
+        for (long id = 1; id <= 100; id++) {
+            repo.save(transaction(id, "1.00"));
+        }
+        wal.snapshot();
+        repo.delete(1L);
+        repo.save(transaction(101L, "2.00"));
+        wal.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.filter(path -> path.getFileName().toString().endsWith(".snap")).count());
+        }
+        repo = open();
+        assertFalse(repo.existsById(1L));
+        assertTrue(repo.existsById(100L));
+        assertEquals(new BigDecimal("2.00"), repo.findById(101L).getAmount());
+        assertEquals(100, repo.findAfter(null, 1000).size());
+    }
+
+    @Test
+    public void recover_dropsTornTail() throws Exception {
+        TransactionRepository repo = open();
+        repo.save(transaction(1L, "1.00"));
+        repo.save(transaction(2L, "2.00"));
+        wal.close();
+
+        // corrupt the last byte of the second record
+        final Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(path -> path.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        final int end = lastRecordEnd(segment);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(end - 1);
+            final int last = file.read();
+            file.seek(end - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        repo = open();
+        assertTrue(repo.existsById(1L));
+        assertNull(repo.findById(2L));
+        // appends continue after the last valid record
+        repo.save(transaction(3L, "3.00"));
+        wal.close();
+        repo = open();
+        assertEquals(List.of(1L, 3L), repo.findAfter(null, 10).stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    public void recover_tornEarlierSegment_dropsLaterSegments() throws Exception {
+        TransactionRepository repo = open(256);
+        for (long id = 1; id <= 10; id++) {
+            repo.save(transaction(id, "1.00"));
+        }
+        wal.close();
+
+        // the newer segments reached the disk, the tail of the first one did not
+        final List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+        assertTrue(segments.size() > 2);
+        final int end = lastRecordEnd(segments.get(0));
+        try (RandomAccessFile file = new RandomAccessFile(segments.get(0).toFile(), "rw")) {
+            file.seek(end - 1);
+            final int last = file.read();
+            file.seek(end - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        repo = open(256);
+        final List<Long> recovered = repo.findAfter(null, 100).stream().map(Transaction::getId).toList();
+        assertFalse(recovered.isEmpty());
+        assertFalse(recovered.contains(10L));
+        for (int i = 1; i < segments.size(); i++) {
+            assertFalse(Files.exists(segments.get(i)));
+        }
+        repo.save(transaction(11L, "1.00"));
+        wal.close();
+        repo = open(256);
+        assertTrue(repo.existsById(11L));
+        assertEquals(recovered.size() + 1, repo.findAfter(null, 100).size());
+    }
+
+    @Test
+    public void groupCommit_concurrentWriters() throws Exception {
+        TransactionRepository repo = open();
+        final int threadCount = 8;
+        final int perThread = 500;
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final long base = t * perThread;
+            executorService.submit(() -> {
+                for (long i = 1; i <= perThread; i++) {
+                    repo.save(transaction(base + i, "1.00"));
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(1, TimeUnit.MINUTES));
+        executorService.shutdown();
+        wal.close();
+
+        assertEquals(threadCount * perThread, open().findAfter(null, 10_000).size());
+    }
+
+    private TransactionRepository open() {
+        return open(1 << 20);
+    }
+
+    private TransactionRepository open(int segmentSize) {
+        wal = new WriteAheadLog(dir, segmentSize, WalSyncMode.GROUP, 5L, 1_000_000L);
+        final TransactionRepository repo = new TransactionRepository(new HeapTransactionStore(), wal,
+                TransactionRepository.DEFAULT_INDEXES, List.of());
+        repo.recover();
+        return repo;
+    }
+
+    private int lastRecordEnd(Path segment) throws IOException {
+        final byte[] bytes = Files.readAllBytes(segment);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int position = 0;
+        while (buffer.getInt(position) != 0) {
+            position += 8 + buffer.getInt(position);
+        }
+        return position;
+    }
+
+    private Transaction transaction(Long id, String amount) {
+        final Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCurrency("CNY");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setSenderAccount("1111111111111111");
+        transaction.setReceiverAccount("2222222222222222");
+        transaction.setChannel("WeChat");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setTransactionTime(LocalDateTime.now());
+        return transaction;
+    }
+}
@@ -0,0 +1,137 @@
+package com.hsbc.billing.transaction.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.hsbc.billing.transaction.TransactionApiApplication;
+import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.service.impl.ReactiveTransactionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @author Nickel Fang 2025/5/20
+ */
+public class ReactiveTransactionServiceImplTest {
+
+    private TransactionRepository repo;
+
+    private ReactiveTransactionService reactiveService;
+
+    @BeforeEach
+    public void setUp() {
+        repo = spy(new TransactionRepository(new HeapTransactionStore(), null, TransactionRepository.DEFAULT_INDEXES, List.of()));
+        reactiveService = new ReactiveTransactionServiceImpl(mock(TransactionService.class), repo,
+                Jackson2ObjectMapperBuilder.json().build(), Schedulers.immediate());
+    }
+
+    @Test
+    public void export_readsPagesOnDemand() throws Exception {
+        for (long id = 1; id <= 1000; id++) {
+            repo.save(transaction(id, id % 2 == 0 ? "EVEN" : "ODD"));
+        }
+
+        StepVerifier.create(reactiveService.exportTransactions(null, null), 1)
+                .expectNextMatches(transaction -> transaction.getId() == 1L)
+                .then(() -> verify(repo, times(1)).findBetween(anyLong(), anyLong(), anyInt()))
+                // the rest of the first page is already read, the second page only once it is asked for
+                .thenRequest(300)
+                .expectNextCount(300)
+                .then(() -> verify(repo, times(2)).findBetween(anyLong(), anyLong(), anyInt()))
+                .thenCancel()
+                .verify();
+
+        StepVerifier.create(reactiveService.exportTransactions(null, null))
+                .expectNextCount(1000)
+                .verifyComplete();
+    }
+
+    @Test
+    public void cursorAndSearch_acrossPages_stopAtLimit() throws Exception {
+        for (long id = 1; id <= 1000; id++) {
+            repo.save(transaction(id, id % 2 == 0 ? "EVEN" : "ODD"));
+        }
+
+        final List<TransactionResponse> after = reactiveService.getTransactionsAfter(100L, 600).collectList().block();
+        assertEquals(600, after.size());
+        assertEquals(101L, after.get(0).getId());
+        assertEquals(700L, after.get(599).getId());
+
+        final TransactionSearchCriteria criteria = TransactionSearchCriteria.builder().sender("EVEN").build();
+        final List<TransactionResponse> even = reactiveService.searchTransactions(criteria, 10L, 300).collectList().block();
+        assertEquals(300, even.size());
+        assertEquals(12L, even.get(0).getId());
+        assertEquals(610L, even.get(299).getId());
+
+        assertEquals(500, reactiveService.searchTransactions(criteria, null, 10_000).count().block());
+    }
+
+    @Test
+    public void import_reportsRejectedLines() throws Exception {
+        final Flux<String> lines = Flux.just(
+                "{\"id\":1,\"amount\":10.00,\"currency\":\"USD\",\"type\":\"TRANSFER\",\"status\":\"COMPLETED\"}",
+                "",
+                "{\"id\":2,\"amount\":",
+                "{\"amount\":10.00}");
+
+        StepVerifier.create(reactiveService.importTransactions(lines))
+                .expectNextMatches(result -> result.getImported() == 1 && result.getRejected() == 2
+                        && result.getErrors().get(1).equals("line 4: a positive id is required"))
+                .verifyComplete();
+        assertEquals(TransactionStatus.COMPLETED, repo.findById(1L).getStatus());
+    }
+
+    @Test
+    public void writeScheduler_disposedWithContext() throws Exception {
+        final ConfigurableApplicationContext context = new SpringApplicationBuilder(TransactionApiApplication.class).run(
+                "--server.port=0",
+                "--transaction.reactive.enabled=true",
+                "--transaction.reactive.port=0",
+                "--transaction.persistence.enabled=true",
+                "--transaction.persistence.dir=target/wal/reactive-scheduler",
+                "--transaction.audit.dir=target/audit/reactive-scheduler",
+                "--spring.main.banner-mode=off");
+        final Scheduler scheduler = context.getBean("reactiveWriteScheduler", Scheduler.class);
+        assertFalse(scheduler.isDisposed());
+        context.close();
+        assertTrue(scheduler.isDisposed());
+    }
+
+    private static Transaction transaction(long id, String sender) {
+        final Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setCurrency("USD");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setSenderAccount(sender);
+        transaction.setReceiverAccount("B654321");
+        transaction.setChannel("MOBILE");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setTransactionTime(LocalDateTime.of(2025, 5, 20, 8, 30));
+        return transaction;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hsbc.billing.transaction.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.dto.ImportResult;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import com.hsbc.billing.transaction.repository.CompactTransactionStore;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.service.impl.TransactionBulkServiceImpl;
+import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @author Nickel Fang 2025/5/13
+ */
+public class TransactionBulkServiceImplTest {
+
+    private TransactionRepository repo;
+
+    private TransactionBulkService bulkService;
+
+    @BeforeEach
+    public void setUp() {
+        repo = new TransactionRepository(new HeapTransactionStore(), null, TransactionRepository.DEFAULT_INDEXES, List.of());
+        bulkService = new TransactionBulkServiceImpl(repo, Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    @Test
+    public void export_thenImport_roundTrip() throws Exception {
+        // more than two pages of the export
+        for (long id = 1; id <= 2500; id++) {
+            repo.save(transaction(id));
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2500, bulkService.exportTransactions(out));
+        final String ndjson = out.toString(StandardCharsets.UTF_8);
+        assertEquals(2500, ndjson.lines().count());
+
+        final TransactionRepository target = new TransactionRepository(new CompactTransactionStore(), null,
+                TransactionRepository.DEFAULT_INDEXES, List.of());
+        final TransactionBulkService importer = new TransactionBulkServiceImpl(target, Jackson2ObjectMapperBuilder.json().build());
+        final ImportResult result = importer.importTransactions(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(2500, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals(2500, target.count());
+        assertEquals(repo.findById(1234L), target.findById(1234L));
+    }
+
+    @Test
+    public void import_reportsRejectedLines() throws Exception {
+        final String ndjson = """
+                {"id":1,"amount":10.00,"currency":"USD","type":"TRANSFER","status":"COMPLETED"}
+
+                {"id":2,"amount":
+                {"amount":10.00}
+                {"id":3,"amount":30.00}
+                """;
+        final ImportResult result = bulkService.importTransactions(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("line 3: "));
+        assertEquals("line 4: a positive id is required", result.getErrors().get(1));
+        assertEquals(TransactionStatus.COMPLETED, repo.findById(1L).getStatus());
+        assertEquals(new BigDecimal("30.00"), repo.findById(3L).getAmount());
+    }
+
+    @Test
+    public void export_withinWindow_readsOnlyTheWindow() throws Exception {
+        final LocalDateTime start = LocalDateTime.of(2025, 5, 18, 8, 0);
+        // one transaction per minute over two hours, ids carry their creation time
+        for (int minute = 0; minute < 120; minute++) {
+            repo.save(transaction(SnowflakeIdGenerator.firstIdAt(start.plusMinutes(minute)) + 1));
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(30, bulkService.exportTransactions(out, start.plusMinutes(30), start.plusHours(1)));
+        final List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertTrue(lines.get(0).contains("\"id\":" + (SnowflakeIdGenerator.firstIdAt(start.plusMinutes(30)) + 1)));
+        assertTrue(lines.get(29).contains("\"id\":" + (SnowflakeIdGenerator.firstIdAt(start.plusMinutes(59)) + 1)));
+
+        assertEquals(90, bulkService.exportTransactions(new ByteArrayOutputStream(), start.plusMinutes(30), null));
+    }
+
+    private static Transaction transaction(long id) {
+        final Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setCurrency("USD");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setSenderAccount("A123456");
+        transaction.setReceiverAccount("B654321");
+        transaction.setChannel("MOBILE");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setTransactionTime(LocalDateTime.of(2025, 5, 13, 8, 30, 15, 123_456_000));
+        transaction.setIpAddress("192.168.1.1");
+        transaction.setDeviceFingerprint("device-" + id);
+        return transaction;
+    }
+}
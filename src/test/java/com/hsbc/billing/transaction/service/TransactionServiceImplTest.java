@@ -3,25 +3,38 @@ package com.hsbc.billing.transaction.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-
-import com.github.benmanes.caffeine.cache.Caffeine;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.audit.AuditLog;
+import com.hsbc.billing.transaction.cache.TransactionCache;
+import com.hsbc.billing.transaction.dedup.CaffeineDuplicateDetector;
+import com.hsbc.billing.transaction.dto.BatchCreateResponse;
+import com.hsbc.billing.transaction.dto.BatchItemResult;
+import com.hsbc.billing.transaction.dto.BatchItemStatus;
 import com.hsbc.billing.transaction.dto.TransactionRequest;
 import com.hsbc.billing.transaction.dto.TransactionResponse;
+import com.hsbc.billing.transaction.dto.TransactionSearchCriteria;
 import com.hsbc.billing.transaction.exception.TransactionDuplicatedException;
 import com.hsbc.billing.transaction.exception.TransactionNotFoundException;
+import com.hsbc.billing.transaction.metrics.TransactionMetrics;
 import com.hsbc.billing.transaction.model.TransactionStatus;
 import com.hsbc.billing.transaction.model.TransactionType;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
 import com.hsbc.billing.transaction.repository.TransactionRepository;
 import com.hsbc.billing.transaction.service.impl.TransactionServiceImpl;
 import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Nickel Fang 2025/4/24
@@ -30,7 +43,7 @@ public class TransactionServiceImplTest {
 
     private TransactionService transactionService;
 
-    private CaffeineCacheManager cacheManager;
+    private final AtomicLong nanos = new AtomicLong();
 
     private TransactionRequest transactionRequest;
 
@@ -49,14 +62,13 @@ public class TransactionServiceImplTest {
                 .ipAddress("192.168.1.1")
                 .build();
 
-        cacheManager = new CaffeineCacheManager("duplicatedTransactions");
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(1, TimeUnit.MINUTES)
-                .initialCapacity(1000)
-                .maximumSize(100_000)
-                .recordStats());
+        final CaffeineDuplicateDetector duplicateDetector = new CaffeineDuplicateDetector(Duration.ofMinutes(1), 100_000, nanos::get);
 
-        transactionService = new TransactionServiceImpl(new SnowflakeIdGenerator(1l, 1l), new TransactionRepository(), cacheManager);
+        final TransactionRepository repo = new TransactionRepository(new HeapTransactionStore(), null,
+                TransactionRepository.DEFAULT_INDEXES, List.of());
+        transactionService = new TransactionServiceImpl(new SnowflakeIdGenerator(1l, 1l), repo, duplicateDetector,
+                Validation.buildDefaultValidatorFactory().getValidator(), TransactionMetrics.noop(), AuditLog.NOOP,
+                TransactionCache.NONE);
     }
 
     @Test
@@ -67,6 +79,24 @@ public class TransactionServiceImplTest {
         assertEquals(transactionRequest.getAmount(), transaction.getAmount());
     }
 
+    @Test
+    public void searchTransactions_bySenderWithinTime() throws Exception {
+        final LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        final TransactionResponse first = transactionService.createTransaction(transactionRequest);
+        transactionRequest.setAmount(BigDecimal.valueOf(99.99));
+        final TransactionResponse second = transactionService.createTransaction(transactionRequest);
+        transactionRequest.setSenderAccount("3333333333333333");
+        transactionService.createTransaction(transactionRequest);
+
+        final TransactionSearchCriteria bySender = TransactionSearchCriteria.builder().sender("1111111111111111").from(before).build();
+        assertEquals(List.of(first.getId(), second.getId()),
+                transactionService.searchTransactions(bySender, null, 10).stream().map(TransactionResponse::getId).toList());
+        assertEquals(List.of(second.getId()),
+                transactionService.searchTransactions(bySender, first.getId(), 10).stream().map(TransactionResponse::getId).toList());
+        bySender.setTo(before);
+        assertTrue(transactionService.searchTransactions(bySender, null, 10).isEmpty());
+    }
+
     @Test
     public void createTransaction_duplicated() throws Exception {
         final TransactionResponse transaction = transactionService.createTransaction(transactionRequest);
@@ -76,11 +106,42 @@ public class TransactionServiceImplTest {
     @Test
     public void createTransaction_notDuplicated() throws Exception {
         transactionService.createTransaction(transactionRequest);
-        // Thread.sleep(61000);
-        cacheManager.getCache("duplicatedTransactions").clear();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
         transactionService.createTransaction(transactionRequest);
     }
 
+    @Test
+    public void createTransactions_reportsEachItem() throws Exception {
+        final TransactionRequest other = TransactionRequest.builder()
+                .amount(BigDecimal.valueOf(10))
+                .channel("WeChat")
+                .currency("CNY")
+                .type(TransactionType.TRANSFER)
+                .senderAccount("3333333333333333")
+                .receiverAccount("2222222222222222")
+                .status(TransactionStatus.PENDING)
+                .build();
+        final TransactionRequest invalid = TransactionRequest.builder().amount(BigDecimal.valueOf(-1)).build();
+
+        final BatchCreateResponse response = transactionService.createTransactions(
+                Arrays.asList(transactionRequest, invalid, transactionRequest, other, null));
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getDuplicated());
+        assertEquals(2, response.getInvalid());
+        assertEquals(List.of(BatchItemStatus.CREATED, BatchItemStatus.INVALID, BatchItemStatus.DUPLICATE, BatchItemStatus.CREATED,
+                BatchItemStatus.INVALID), response.getResults().stream().map(BatchItemResult::getStatus).toList());
+        assertTrue(response.getResults().get(1).getError().contains("amount: Amount must be positive"));
+
+        final Long firstId = response.getResults().get(0).getId();
+        final Long secondId = response.getResults().get(3).getId();
+        assertTrue(firstId < secondId);
+        assertEquals(transactionRequest.getAmount(), transactionService.getTransaction(firstId).getAmount());
+        assertEquals(2, transactionService.getAllTransactions(1, 10).size());
+
+        // the batch feeds the same duplicate window as single creates
+        assertThrows(TransactionDuplicatedException.class, () -> transactionService.createTransaction(other));
+    }
+
     @Test
     public void getTransaction_ok() throws Exception {
         final TransactionResponse transaction = transactionService.createTransaction(transactionRequest);
@@ -104,6 +165,21 @@ public class TransactionServiceImplTest {
         assertEquals(2, transactions.size());
     }
 
+    @Test
+    public void getTransactionsAfter_ok() throws Exception {
+        final TransactionResponse first = transactionService.createTransaction(transactionRequest);
+        transactionRequest.setSenderAccount("1234567898765432");
+        final TransactionResponse second = transactionService.createTransaction(transactionRequest);
+
+        final List<TransactionResponse> page = transactionService.getTransactionsAfter(null, 1);
+        assertEquals(1, page.size());
+        assertEquals(first.getId(), page.get(0).getId());
+
+        final List<TransactionResponse> next = transactionService.getTransactionsAfter(page.get(0).getId(), 10);
+        assertEquals(1, next.size());
+        assertEquals(second.getId(), next.get(0).getId());
+    }
+
     @Test
     public void updateTransaction_ok() throws Exception {
         final TransactionResponse transaction = transactionService.createTransaction(transactionRequest);
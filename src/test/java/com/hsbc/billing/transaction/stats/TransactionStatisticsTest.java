@@ -0,0 +1,109 @@
+package com.hsbc.billing.transaction.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.dto.StatsEntry;
+import com.hsbc.billing.transaction.dto.TransactionStatsResponse;
+import com.hsbc.billing.transaction.model.Transaction;
+import com.hsbc.billing.transaction.model.TransactionStatus;
+import com.hsbc.billing.transaction.model.TransactionType;
+import com.hsbc.billing.transaction.repository.HeapTransactionStore;
+import com.hsbc.billing.transaction.repository.IndexedField;
+import com.hsbc.billing.transaction.repository.TransactionRepository;
+import com.hsbc.billing.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Nickel Fang 2025/5/18
+ */
+public class TransactionStatisticsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 18, 9, 0);
+
+    private final AtomicLong millis = new AtomicLong(epochMillis(START));
+
+    private TransactionStatistics statistics;
+
+    private TransactionRepository repo;
+
+    private long sequence;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = new TransactionStatistics(EnumSet.allOf(StatsDimension.class), ZoneOffset.UTC, millis::get);
+        repo = new TransactionRepository(new HeapTransactionStore(), null, EnumSet.noneOf(IndexedField.class), List.of(statistics));
+    }
+
+    @Test
+    public void snapshot_retractsUpdatesAndDeletes() throws Exception {
+        final Transaction first = repo.save(transaction(START, "100.00", "CNY", TransactionType.TRANSFER));
+        repo.save(transaction(START, "50.50", "CNY", TransactionType.DEPOSIT));
+        final Transaction third = repo.save(transaction(START, "10.00", "USD", TransactionType.TRANSFER));
+
+        assertEquals(List.of(new StatsEntry("CNY", "CNY", 2, new BigDecimal("150.50")), new StatsEntry("USD", "USD", 1, new BigDecimal("10.00"))),
+                statistics.snapshot(StatsWindow.ALL, StatsDimension.CURRENCY, false).getEntries());
+
+        final Transaction updated = transaction(START, "120.00", "CNY", TransactionType.DEPOSIT);
+        updated.setId(first.getId());
+        repo.update(updated);
+        repo.delete(third.getId());
+
+        final TransactionStatsResponse byType = statistics.snapshot(StatsWindow.ALL, StatsDimension.TYPE, false);
+        assertEquals(2, byType.getCount());
+        assertEquals(List.of(new StatsEntry("DEPOSIT", "CNY", 2, new BigDecimal("170.50"))), byType.getEntries());
+        assertEquals(List.of(new StatsEntry("A1", "CNY", 2, new BigDecimal("170.50"))),
+                statistics.snapshot(StatsWindow.MINUTE, StatsDimension.SENDER, false).getEntries());
+    }
+
+    @Test
+    public void snapshot_tumblingWindows() throws Exception {
+        repo.save(transaction(START, "1.00", "CNY", TransactionType.TRANSFER));
+        repo.save(transaction(START.plusSeconds(30), "2.00", "CNY", TransactionType.TRANSFER));
+        repo.save(transaction(START.plusMinutes(1), "4.00", "CNY", TransactionType.TRANSFER));
+        millis.set(epochMillis(START.plusMinutes(1).plusSeconds(10)));
+
+        final TransactionStatsResponse minute = statistics.snapshot(StatsWindow.MINUTE, StatsDimension.CURRENCY, false);
+        assertEquals(START.plusMinutes(1), minute.getFrom());
+        assertEquals(START.plusMinutes(2), minute.getTo());
+        assertEquals(List.of(new StatsEntry("CNY", "CNY", 1, new BigDecimal("4.00"))), minute.getEntries());
+        assertEquals(List.of(new StatsEntry("CNY", "CNY", 2, new BigDecimal("3.00"))),
+                statistics.snapshot(StatsWindow.MINUTE, StatsDimension.CURRENCY, true).getEntries());
+        assertEquals(3, statistics.snapshot(StatsWindow.HOUR, StatsDimension.CURRENCY, false).getCount());
+        assertEquals(3, statistics.snapshot(StatsWindow.DAY, StatsDimension.CURRENCY, false).getCount());
+
+        // nothing created in the minute in progress yet
+        millis.set(epochMillis(START.plusMinutes(2).plusSeconds(1)));
+        assertTrue(statistics.snapshot(StatsWindow.MINUTE, StatsDimension.CURRENCY, false).getEntries().isEmpty());
+        assertEquals(1, statistics.snapshot(StatsWindow.MINUTE, StatsDimension.CURRENCY, true).getCount());
+
+        repo.clear();
+        assertEquals(0, statistics.snapshot(StatsWindow.ALL, StatsDimension.CURRENCY, false).getCount());
+    }
+
+    private Transaction transaction(LocalDateTime created, String amount, String currency, TransactionType type) {
+        final Transaction transaction = new Transaction();
+        transaction.setId(SnowflakeIdGenerator.firstIdAt(epochMillis(created)) + ++sequence);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCurrency(currency);
+        transaction.setType(type);
+        transaction.setSenderAccount("A1");
+        transaction.setReceiverAccount("B1");
+        transaction.setChannel("WeChat");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setTransactionTime(created);
+        return transaction;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,113 @@
+package com.hsbc.billing.transaction.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Nickel Fang 2025/5/11
+ */
+public class ConcurrentLongMapTest {
+
+    @Test
+    public void put_getAndRemove() throws Exception {
+        final ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        assertNull(map.put(1L, "a"));
+        assertEquals("a", map.put(1L, "b"));
+        assertNull(map.put(0L, "zero"));
+        assertNull(map.put(-1L, "negative"));
+
+        assertEquals("b", map.get(1L));
+        assertEquals("zero", map.get(0L));
+        assertEquals("negative", map.get(-1L));
+        assertEquals(3, map.size());
+
+        assertEquals("b", map.remove(1L));
+        assertEquals("zero", map.remove(0L));
+        assertNull(map.remove(2L));
+        assertFalse(map.containsKey(1L));
+        assertTrue(map.containsKey(-1L));
+        assertEquals(1, map.size());
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(-1L));
+    }
+
+    @Test
+    public void randomOperations_matchHashMap() throws Exception {
+        final ConcurrentLongMap<Long> map = new ConcurrentLongMap<>();
+        final Map<Long, Long> expected = new HashMap<>();
+        final Random random = new Random(42);
+        // a small key space makes collisions, resizes and backward shifts frequent
+        for (int i = 0; i < 200_000; i++) {
+            final long key = random.nextInt(5_000) << 22;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+    }
+
+    @Test
+    public void concurrentReaders_seeStableKeys() throws Exception {
+        final ConcurrentLongMap<Long> map = new ConcurrentLongMap<>(16);
+        for (long key = 1; key <= 1_000; key++) {
+            map.put(key, key);
+        }
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            // writers churn other keys, forcing resizes and shifts under the readers
+            for (int w = 0; w < 2; w++) {
+                final long base = 1_000_000L * (w + 1);
+                futures.add(executor.submit(() -> {
+                    for (long key = base; key < base + 100_000; key++) {
+                        map.put(key, key);
+                        if (key % 2 == 0) {
+                            map.remove(key - 1);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < 2; r++) {
+                futures.add(executor.submit(() -> {
+                    while (running.get()) {
+                        for (long key = 1; key <= 1_000; key++) {
+                            assertEquals(key, map.get(key));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            futures.get(0).get();
+            futures.get(1).get();
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // each writer keeps its even keys and its last odd key
+        assertEquals(1_000 + 2 * 50_001, map.size());
+    }
+}
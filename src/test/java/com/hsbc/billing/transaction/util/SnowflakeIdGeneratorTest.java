@@ -0,0 +1,101 @@
+package com.hsbc.billing.transaction.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hsbc.billing.transaction.exception.ClockMovedBackwardsException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Nickel Fang 2025/5/7
+ */
+public class SnowflakeIdGeneratorTest {
+
+    @Test
+    public void nextId_uniqueAcrossThreads() throws Exception {
+        final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1L, 1L);
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final int threadCount = 8;
+        final int idsPerThread = 50_000;
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                for (int j = 0; j < idsPerThread; j++) {
+                    ids.add(idGenerator.nextId());
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(1, TimeUnit.MINUTES));
+        executorService.shutdown();
+        assertEquals(threadCount * idsPerThread, ids.size());
+    }
+
+    @Test
+    public void nextId_encodesTimestampAndWorker() throws Exception {
+        final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(3L, 7L, ClockBackwardPolicy.WAIT, 10L, () -> 1_000L);
+        final long id = idGenerator.nextId();
+        assertEquals(1_000L, id >>> 22);
+        assertEquals(3L, (id >>> 17) & 0x1F);
+        assertEquals(7L, (id >>> 12) & 0x1F);
+        assertEquals(0L, id & 0xFFF);
+        assertEquals(1L, idGenerator.nextId() & 0xFFF);
+        assertEquals(3L, SnowflakeIdGenerator.datacenterIdOf(id));
+        assertEquals(7L, SnowflakeIdGenerator.machineIdOf(id));
+    }
+
+    @Test
+    public void reserveBlock_ascendingAcrossMilliseconds() throws Exception {
+        final AtomicLong now = new AtomicLong(1_000L);
+        // the clock moves on every time the generator waits for the next millisecond
+        final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1L, 1L, ClockBackwardPolicy.WAIT, 10L, now::getAndIncrement);
+        final long[] ids = idGenerator.reserveBlock(10_000);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        assertTrue(idGenerator.nextId() > ids[ids.length - 1]);
+    }
+
+    @Test
+    public void borrowPolicy_issuesFromLastTimestamp() throws Exception {
+        final AtomicLong now = new AtomicLong(1_000L);
+        final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1L, 1L, ClockBackwardPolicy.BORROW, 10L, now::get);
+        final long first = idGenerator.nextId();
+        now.set(995L);
+        final long second = idGenerator.nextId();
+        assertTrue(second > first);
+        assertEquals(1_000L, second >>> 22);
+
+        // the sequence of a millisecond is exhausted, the next one is borrowed without waiting
+        final long[] ids = idGenerator.reserveBlock(4096);
+        assertEquals(1_001L, ids[ids.length - 1] >>> 22);
+    }
+
+    @Test
+    public void failPolicy_throwsWhenClockMovesBackwards() throws Exception {
+        final AtomicLong now = new AtomicLong(1_000L);
+        final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1L, 1L, ClockBackwardPolicy.FAIL, 10L, now::get);
+        idGenerator.nextId();
+        now.set(999L);
+        assertThrows(ClockMovedBackwardsException.class, idGenerator::nextId);
+    }
+
+    @Test
+    public void waitPolicy_throwsBeyondMaxBackward() throws Exception {
+        final AtomicLong now = new AtomicLong(1_000L);
+        final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1L, 1L, ClockBackwardPolicy.WAIT, 10L, now::get);
+        idGenerator.nextId();
+        now.set(500L);
+        assertThrows(ClockMovedBackwardsException.class, idGenerator::nextId);
+    }
+}